@@ -0,0 +1,41 @@
+package com.ecommerce.authservice.config;
+
+import com.ecommerce.authservice.security.JwtKeyStore;
+import com.ecommerce.authservice.security.TokenRevocationService;
+import com.ecommerce.security.AccessInterceptor;
+import com.ecommerce.security.JwtAuthenticationFilter;
+import com.ecommerce.security.JwtVerifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.List;
+
+@Configuration
+public class JwtConfig implements WebMvcConfigurer {
+
+    // auth-service holds the keys and the revocation list itself, so it verifies against both directly
+    @Bean
+    public JwtVerifier jwtVerifier(JwtKeyStore jwtKeyStore,
+                                   TokenRevocationService tokenRevocationService,
+                                   @Value("${jwt.verifier.cache-size:10000}") int cacheSize) {
+        return new JwtVerifier(jwtKeyStore, tokenRevocationService, cacheSize);
+    }
+
+    // The /api/auth endpoints stay open; operational endpoints take a bearer token like the other services
+    @Bean
+    public FilterRegistrationBean<JwtAuthenticationFilter> statsAuthenticationFilter(JwtVerifier jwtVerifier) {
+        FilterRegistrationBean<JwtAuthenticationFilter> registration =
+                new FilterRegistrationBean<>(new JwtAuthenticationFilter(jwtVerifier, List.of()));
+        registration.addUrlPatterns("/api/stats/*");
+        return registration;
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new AccessInterceptor()).addPathPatterns("/api/stats/**");
+    }
+}
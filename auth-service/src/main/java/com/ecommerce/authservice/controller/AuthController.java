@@ -2,15 +2,27 @@ package com.ecommerce.authservice.controller;
 
 import com.ecommerce.authservice.dto.AuthResponse;
 import com.ecommerce.authservice.dto.LoginRequest;
+import com.ecommerce.authservice.dto.RefreshRequest;
 import com.ecommerce.authservice.dto.RegisterRequest;
+import com.ecommerce.authservice.dto.RevocationListResponse;
+import com.ecommerce.authservice.security.HashingRejectedException;
+import com.ecommerce.authservice.security.JwtKeyStore;
+import com.ecommerce.authservice.security.LoginThrottledException;
+import com.ecommerce.authservice.security.TokenRevocationService;
 import com.ecommerce.authservice.service.AuthService;
+import com.ecommerce.authservice.service.TokenService;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.Duration;
+import java.time.Instant;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -22,6 +34,9 @@ import java.util.Map;
 public class AuthController {
 
     private final AuthService authService;
+    private final JwtKeyStore jwtKeyStore;
+    private final TokenService tokenService;
+    private final TokenRevocationService tokenRevocationService;
 
     @PostMapping("/register")
     public ResponseEntity<?> register(@Valid @RequestBody RegisterRequest request) {
@@ -29,6 +44,8 @@ public class AuthController {
             log.info("Register request received for email: {}", request.getEmail());
             AuthResponse response = authService.register(request);
             return ResponseEntity.status(HttpStatus.CREATED).body(response);
+        } catch (HashingRejectedException e) {
+            return tooManyRequests(e.getMessage(), e.getRetryAfter());
         } catch (Exception e) {
             log.error("Registration failed: {}", e.getMessage());
             Map<String, String> error = new HashMap<>();
@@ -38,11 +55,16 @@ public class AuthController {
     }
 
     @PostMapping("/login")
-    public ResponseEntity<?> login(@Valid @RequestBody LoginRequest request) {
+    public ResponseEntity<?> login(@Valid @RequestBody LoginRequest request, HttpServletRequest httpRequest) {
         try {
             log.info("Login request received for email: {}", request.getEmail());
-            AuthResponse response = authService.login(request);
+            AuthResponse response = authService.login(request, httpRequest.getRemoteAddr());
             return ResponseEntity.ok(response);
+        } catch (LoginThrottledException e) {
+            log.warn("Login throttled for {} from {}", request.getEmail(), httpRequest.getRemoteAddr());
+            return tooManyRequests(e.getMessage(), e.getRetryAfter());
+        } catch (HashingRejectedException e) {
+            return tooManyRequests(e.getMessage(), e.getRetryAfter());
         } catch (Exception e) {
             log.error("Login failed: {}", e.getMessage());
             Map<String, String> error = new HashMap<>();
@@ -51,6 +73,43 @@ public class AuthController {
         }
     }
 
+    // Exchanges a refresh token for a new access token and the next refresh token
+    @PostMapping("/refresh")
+    public ResponseEntity<?> refresh(@Valid @RequestBody RefreshRequest request) {
+        try {
+            return ResponseEntity.ok(tokenService.refresh(request.getRefreshToken()));
+        } catch (Exception e) {
+            log.warn("Token refresh failed: {}", e.getMessage());
+            Map<String, String> error = new HashMap<>();
+            error.put("error", "Invalid refresh token");
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(error);
+        }
+    }
+
+    @PostMapping("/logout")
+    public ResponseEntity<Map<String, String>> logout(@Valid @RequestBody RefreshRequest request) {
+        tokenService.logout(request.getRefreshToken());
+        Map<String, String> response = new HashMap<>();
+        response.put("message", "Logged out successfully");
+        return ResponseEntity.ok(response);
+    }
+
+    // Revoked access token ids, polled by the other services; pass the returned cursor as "since"
+    @GetMapping("/revocations")
+    public ResponseEntity<RevocationListResponse> revocations(@RequestParam(required = false) Instant since) {
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noStore())
+                .body(tokenRevocationService.listSince(since));
+    }
+
+    // Public signing keys; services cache them and refresh when they meet an unknown key id
+    @GetMapping("/.well-known/jwks.json")
+    public ResponseEntity<Map<String, Object>> jwks() {
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.maxAge(Duration.ofMinutes(5)).cachePublic())
+                .body(jwtKeyStore.getJwkSet());
+    }
+
     @GetMapping("/health")
     public ResponseEntity<Map<String, String>> health() {
         Map<String, String> response = new HashMap<>();
@@ -58,4 +117,14 @@ public class AuthController {
         response.put("service", "auth-service");
         return ResponseEntity.ok(response);
     }
-}
\ No newline at end of file
+
+    // 429 with Retry-After in whole seconds, rounded up
+    private ResponseEntity<Map<String, String>> tooManyRequests(String message, Duration retryAfter) {
+        Map<String, String> error = new HashMap<>();
+        error.put("error", message);
+        long seconds = Math.max(1, (retryAfter.toMillis() + 999) / 1000);
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(seconds))
+                .body(error);
+    }
+}
@@ -0,0 +1,53 @@
+package com.ecommerce.authservice.controller;
+
+import com.ecommerce.authservice.security.LoginThrottle;
+import com.ecommerce.authservice.security.PasswordHasher;
+import com.ecommerce.authservice.security.TokenRevocationService;
+import com.ecommerce.authservice.security.UserCredentialCache;
+import com.ecommerce.security.JwtPrincipal;
+import com.ecommerce.security.JwtVerifier;
+import com.ecommerce.security.RequiresRole;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/stats")
+@RequiredArgsConstructor
+@CrossOrigin(origins = "*")
+@RequiresRole(JwtPrincipal.ROLE_ADMIN)
+public class StatsController {
+
+    private final PasswordHasher passwordHasher;
+    private final JwtVerifier jwtVerifier;
+    private final UserCredentialCache userCredentialCache;
+    private final TokenRevocationService tokenRevocationService;
+    private final LoginThrottle loginThrottle;
+
+    @GetMapping("/password-hashing")
+    public ResponseEntity<Map<String, Object>> passwordHashingStats() {
+        return ResponseEntity.ok(passwordHasher.getStats());
+    }
+
+    @GetMapping("/jwt-verifier")
+    public ResponseEntity<Map<String, Object>> jwtVerifierStats() {
+        return ResponseEntity.ok(jwtVerifier.getStats());
+    }
+
+    @GetMapping("/user-cache")
+    public ResponseEntity<Map<String, Object>> userCacheStats() {
+        return ResponseEntity.ok(userCredentialCache.getStats());
+    }
+
+    @GetMapping("/revocations")
+    public ResponseEntity<Map<String, Object>> revocationStats() {
+        return ResponseEntity.ok(tokenRevocationService.getStats());
+    }
+
+    @GetMapping("/login-throttle")
+    public ResponseEntity<Map<String, Object>> loginThrottleStats() {
+        return ResponseEntity.ok(loginThrottle.getStats());
+    }
+}
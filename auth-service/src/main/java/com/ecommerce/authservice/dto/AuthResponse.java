@@ -18,6 +18,9 @@ public class AuthResponse {
     private String firstName;
     private String lastName;
     private String role;
+    private String refreshToken;
+    // Seconds until the access token expires
+    private Long expiresIn;
 
     public AuthResponse(String token, Long userId, String email, String firstName, String lastName, String role) {
         this.token = token;
@@ -27,4 +30,11 @@ public class AuthResponse {
         this.lastName = lastName;
         this.role = role;
     }
+
+    public AuthResponse(String token, String refreshToken, Long expiresIn, Long userId, String email,
+                        String firstName, String lastName, String role) {
+        this(token, userId, email, firstName, lastName, role);
+        this.refreshToken = refreshToken;
+        this.expiresIn = expiresIn;
+    }
 }
\ No newline at end of file
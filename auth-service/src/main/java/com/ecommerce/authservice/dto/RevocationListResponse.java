@@ -0,0 +1,26 @@
+package com.ecommerce.authservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RevocationListResponse {
+
+    // Pass back as "since" on the next call
+    private Instant cursor;
+    private List<Entry> tokens;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Entry {
+        private String tokenId;
+        private Instant expiresAt;
+    }
+}
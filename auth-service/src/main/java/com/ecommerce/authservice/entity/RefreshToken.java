@@ -0,0 +1,57 @@
+package com.ecommerce.authservice.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * One refresh token of a login session. Tokens are single use: refreshing marks the token
+ * used and issues its successor in the same family. Only the SHA-256 of the token is stored.
+ */
+@Entity
+@Table(name = "refresh_tokens", indexes = {
+        @Index(name = "idx_refresh_tokens_family", columnList = "familyId"),
+        @Index(name = "idx_refresh_tokens_expires_at", columnList = "expiresAt")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class RefreshToken {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "refresh_tokens_seq")
+    @SequenceGenerator(name = "refresh_tokens_seq", sequenceName = "refresh_tokens_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(nullable = false, unique = true, length = 64)
+    private String tokenHash;
+
+    @Column(nullable = false)
+    private Long userId;
+
+    // Shared by every token descending from one login
+    @Column(nullable = false, length = 36)
+    private String familyId;
+
+    // The access token issued together with this refresh token, revoked with the family
+    @Column(length = 36)
+    private String accessTokenId;
+
+    private Instant accessExpiresAt;
+
+    @Column(nullable = false)
+    private Instant expiresAt;
+
+    @Column(nullable = false)
+    private Instant createdAt;
+
+    private Instant usedAt;
+
+    @Column(nullable = false)
+    private boolean revoked;
+}
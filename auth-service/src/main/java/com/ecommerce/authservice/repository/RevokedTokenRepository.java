@@ -0,0 +1,31 @@
+package com.ecommerce.authservice.repository;
+
+import com.ecommerce.authservice.entity.RevokedToken;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.List;
+
+@Repository
+public interface RevokedTokenRepository extends JpaRepository<RevokedToken, Long> {
+
+    // Revoking twice (logout racing a reuse detection) is not an error
+    @Modifying
+    @Query(value = "INSERT INTO revoked_tokens (id, token_id, expires_at, revoked_at) " +
+            "VALUES (nextval('revoked_tokens_seq'), :tokenId, :expiresAt, :revokedAt) " +
+            "ON CONFLICT (token_id) DO NOTHING", nativeQuery = true)
+    int insertIgnoringDuplicate(@Param("tokenId") String tokenId, @Param("expiresAt") Instant expiresAt,
+                                @Param("revokedAt") Instant revokedAt);
+
+    @Query("SELECT t FROM RevokedToken t WHERE t.revokedAt >= :since AND t.expiresAt > :now")
+    List<RevokedToken> findRevokedSince(@Param("since") Instant since, @Param("now") Instant now);
+
+    @Modifying
+    @Query(value = "DELETE FROM revoked_tokens WHERE id IN " +
+            "(SELECT id FROM revoked_tokens WHERE expires_at < :now LIMIT :limit)", nativeQuery = true)
+    int deleteExpired(@Param("now") Instant now, @Param("limit") int limit);
+}
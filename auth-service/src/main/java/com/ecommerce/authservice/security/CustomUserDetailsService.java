@@ -1,7 +1,6 @@
 package com.ecommerce.authservice.security;
 
-import com.ecommerce.authservice.entity.User;
-import com.ecommerce.authservice.repository.UserRepository;
+import com.ecommerce.authservice.security.UserCredentialCache.UserCredentials;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -15,21 +14,21 @@ import java.util.Collections;
 @RequiredArgsConstructor
 public class CustomUserDetailsService implements UserDetailsService {
 
-    private final UserRepository userRepository;
+    private final UserCredentialCache userCredentialCache;
 
     @Override
     public UserDetails loadUserByUsername(String email) throws UsernameNotFoundException {
-        User user = userRepository.findByEmail(email)
+        UserCredentials user = userCredentialCache.findByEmail(email)
                 .orElseThrow(() -> new UsernameNotFoundException("User not found with email: " + email));
 
         return new org.springframework.security.core.userdetails.User(
-                user.getEmail(),
-                user.getPassword(),
-                user.getActive(),
+                user.email(),
+                user.passwordHash(),
+                user.active(),
                 true,
                 true,
                 true,
-                Collections.singletonList(new SimpleGrantedAuthority("ROLE_" + user.getRole().name()))
+                Collections.singletonList(new SimpleGrantedAuthority("ROLE_" + user.role().name()))
         );
     }
 }
\ No newline at end of file
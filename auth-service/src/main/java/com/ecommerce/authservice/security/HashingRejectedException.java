@@ -0,0 +1,18 @@
+package com.ecommerce.authservice.security;
+
+import java.time.Duration;
+
+// Password hashing is at capacity; the client should retry after the given delay
+public class HashingRejectedException extends RuntimeException {
+
+    private final Duration retryAfter;
+
+    public HashingRejectedException(Duration retryAfter) {
+        super("Too many concurrent sign-ins, retry later");
+        this.retryAfter = retryAfter;
+    }
+
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+}
@@ -0,0 +1,170 @@
+package com.ecommerce.authservice.security;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Login attempt counters of this instance, updated lock-free.
+ * <p>
+ * Each key keeps the attempt counts of the current and the previous fixed window in one
+ * {@code long}; the sliding-window estimate weights the previous count by the share of it
+ * still inside the window. Keys idle for two windows and not blocked are evicted by a
+ * periodic sweep, and at most {@code max-keys} are kept: beyond that the least recently seen
+ * unblocked keys go first.
+ */
+@Component
+@ConditionalOnProperty(name = "auth.login-throttle.store", havingValue = "memory", matchIfMissing = true)
+@Slf4j
+public class InMemoryLoginAttemptStore implements LoginAttemptStore {
+
+    // window: [index:32][previous:16][current:16], backoff: [strikes:8][blockedUntil:56]
+    private static final long COUNT_MASK = 0xFFFF;
+    private static final long INDEX_MASK = 0xFFFFFFFFL;
+    private static final long BLOCKED_MASK = (1L << 56) - 1;
+    private static final int MAX_STRIKES = 30;
+
+    private final Map<String, Counter> counters = new ConcurrentHashMap<>();
+    private final int maxKeys;
+    private final AtomicBoolean sweeping = new AtomicBoolean();
+
+    private final LongAdder evictions = new LongAdder();
+
+    public InMemoryLoginAttemptStore(@Value("${auth.login-throttle.max-keys:100000}") int maxKeys) {
+        this.maxKeys = maxKeys;
+    }
+
+    @Override
+    public long tryAcquire(String key, Rule rule) {
+        long now = System.currentTimeMillis();
+        Counter counter = counters.get(key);
+        if (counter == null) {
+            if (counters.size() >= maxKeys) {
+                evictIdle(now);
+            }
+            counter = counters.computeIfAbsent(key, k -> new Counter(rule.window().toMillis()));
+        }
+        counter.lastSeen = now;
+        return counter.tryAcquire(rule, now);
+    }
+
+    @Override
+    public void reset(String key) {
+        counters.remove(key);
+    }
+
+    @Override
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("store", "memory");
+        stats.put("keys", counters.size());
+        stats.put("maxKeys", maxKeys);
+        stats.put("evictions", evictions.sum());
+        return stats;
+    }
+
+    @Scheduled(fixedDelayString = "${auth.login-throttle.sweep-interval:PT1M}")
+    public void sweep() {
+        evictIdle(System.currentTimeMillis());
+    }
+
+    void evictIdle(long now) {
+        // One sweep at a time; callers arriving meanwhile go on without waiting
+        if (!sweeping.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            int before = counters.size();
+            counters.values().removeIf(counter -> counter.isIdle(now));
+
+            int excess = counters.size() - maxKeys * 9 / 10;
+            if (excess > 0) {
+                counters.entrySet().stream()
+                        .filter(entry -> !entry.getValue().isBlocked(now))
+                        .sorted(Comparator.comparingLong(entry -> entry.getValue().lastSeen))
+                        .limit(excess)
+                        .toList()
+                        .forEach(entry -> counters.remove(entry.getKey(), entry.getValue()));
+                log.warn("Login throttle over {} keys, evicted the least recently seen", maxKeys);
+            }
+            evictions.add(Math.max(0, before - counters.size()));
+        } finally {
+            sweeping.set(false);
+        }
+    }
+
+    private static final class Counter {
+
+        private final long windowMillis;
+        private final AtomicLong window = new AtomicLong();
+        private final AtomicLong backoff = new AtomicLong();
+        private volatile long lastSeen;
+
+        Counter(long windowMillis) {
+            this.windowMillis = windowMillis;
+        }
+
+        long tryAcquire(Rule rule, long now) {
+            long blockedUntil = backoff.get() & BLOCKED_MASK;
+            if (blockedUntil > now) {
+                return blockedUntil - now;
+            }
+
+            long index = (now / windowMillis) & INDEX_MASK;
+            double previousShare = (double) (windowMillis - now % windowMillis) / windowMillis;
+            while (true) {
+                long packed = window.get();
+                long previous = (packed >>> 16) & COUNT_MASK;
+                long current = packed & COUNT_MASK;
+                long packedIndex = packed >>> 32;
+                if (packedIndex != index) {
+                    previous = packedIndex == ((index - 1) & INDEX_MASK) ? current : 0;
+                    current = 0;
+                }
+
+                if (previous * previousShare + current >= rule.limit()) {
+                    return strike(rule, now);
+                }
+
+                long next = (index << 32) | (previous << 16) | Math.min(current + 1, COUNT_MASK);
+                if (window.compareAndSet(packed, next)) {
+                    return 0;
+                }
+            }
+        }
+
+        private long strike(Rule rule, long now) {
+            while (true) {
+                long packed = backoff.get();
+                long blockedUntil = packed & BLOCKED_MASK;
+                if (blockedUntil > now) {
+                    // Another attempt hit the limit at the same moment
+                    return blockedUntil - now;
+                }
+                int strikes = (int) Math.min((packed >>> 56) + 1, MAX_STRIKES);
+                long delay = Math.min(rule.initialBackoff().toMillis() << (strikes - 1), rule.maxBackoff().toMillis());
+                if (backoff.compareAndSet(packed, ((long) strikes << 56) | (now + delay))) {
+                    return delay;
+                }
+            }
+        }
+
+        boolean isBlocked(long now) {
+            return (backoff.get() & BLOCKED_MASK) > now;
+        }
+
+        boolean isIdle(long now) {
+            return now - lastSeen > 2 * windowMillis && !isBlocked(now);
+        }
+    }
+}
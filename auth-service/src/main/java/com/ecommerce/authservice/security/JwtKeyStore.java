@@ -0,0 +1,125 @@
+package com.ecommerce.authservice.security;
+
+import com.ecommerce.security.JwtKeySource;
+import io.jsonwebtoken.security.Jwks;
+import io.jsonwebtoken.security.RsaPublicJwk;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.GeneralSecurityException;
+import java.security.KeyFactory;
+import java.security.KeyPairGenerator;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.security.interfaces.RSAPrivateCrtKey;
+import java.security.interfaces.RSAPublicKey;
+import java.security.spec.PKCS8EncodedKeySpec;
+import java.security.spec.RSAPublicKeySpec;
+import java.security.spec.X509EncodedKeySpec;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The RSA key tokens are signed with, plus retired public keys that stay published while
+ * tokens signed with them may still be in circulation.
+ * <p>
+ * Keys are PEM files: {@code jwt.rsa.private-key} (PKCS#8) and
+ * {@code jwt.rsa.retired-public-keys} (X.509, comma separated). To rotate, move the old
+ * public key to the retired list, install the new private key and drop the retired key
+ * once {@code jwt.expiration} has passed. Without a configured key an ephemeral one is
+ * generated, which only suits a single local instance.
+ */
+@Component
+@Slf4j
+public class JwtKeyStore implements JwtKeySource {
+
+    private final PrivateKey signingKey;
+    private final String signingKeyId;
+    private final Map<String, PublicKey> publicKeys = new LinkedHashMap<>();
+    private final List<Map<String, ?>> jwks = new ArrayList<>();
+
+    public JwtKeyStore(@Value("${jwt.rsa.private-key:}") String privateKeyLocation,
+                       @Value("${jwt.rsa.retired-public-keys:}") List<String> retiredPublicKeyLocations) {
+        try {
+            RSAPrivateCrtKey privateKey = StringUtils.hasText(privateKeyLocation)
+                    ? readPrivateKey(Path.of(privateKeyLocation))
+                    : generatePrivateKey();
+            this.signingKey = privateKey;
+            this.signingKeyId = publish(KeyFactory.getInstance("RSA").generatePublic(
+                    new RSAPublicKeySpec(privateKey.getModulus(), privateKey.getPublicExponent())));
+
+            for (String location : retiredPublicKeyLocations) {
+                if (StringUtils.hasText(location)) {
+                    publish(readPublicKey(Path.of(location.trim())));
+                }
+            }
+        } catch (IOException | GeneralSecurityException e) {
+            throw new IllegalStateException("Could not load the JWT signing keys: " + e.getMessage(), e);
+        }
+        log.info("JWT signing key {}, publishing {}", signingKeyId, publicKeys.keySet());
+    }
+
+    public PrivateKey getSigningKey() {
+        return signingKey;
+    }
+
+    public String getSigningKeyId() {
+        return signingKeyId;
+    }
+
+    @Override
+    public PublicKey findKey(String keyId) {
+        return publicKeys.get(keyId);
+    }
+
+    // RFC 7517 JWK set with the public keys only
+    public Map<String, Object> getJwkSet() {
+        return Map.of("keys", jwks);
+    }
+
+    // The RFC 7638 thumbprint is the kid, so the same key always gets the same id
+    private String publish(PublicKey publicKey) {
+        RsaPublicJwk jwk = Jwks.builder()
+                .key((RSAPublicKey) publicKey)
+                .idFromThumbprint()
+                .algorithm("RS256")
+                .publicKeyUse("sig")
+                .build();
+        publicKeys.put(jwk.getId(), publicKey);
+        jwks.add(Map.copyOf(jwk));
+        return jwk.getId();
+    }
+
+    private RSAPrivateCrtKey generatePrivateKey() throws GeneralSecurityException {
+        log.warn("No jwt.rsa.private-key configured, generating an ephemeral signing key; "
+                + "tokens will not survive a restart or validate on other instances");
+        KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+        generator.initialize(2048);
+        return (RSAPrivateCrtKey) generator.generateKeyPair().getPrivate();
+    }
+
+    private RSAPrivateCrtKey readPrivateKey(Path path) throws IOException, GeneralSecurityException {
+        return (RSAPrivateCrtKey) KeyFactory.getInstance("RSA")
+                .generatePrivate(new PKCS8EncodedKeySpec(readPem(path)));
+    }
+
+    private PublicKey readPublicKey(Path path) throws IOException, GeneralSecurityException {
+        return KeyFactory.getInstance("RSA").generatePublic(new X509EncodedKeySpec(readPem(path)));
+    }
+
+    private byte[] readPem(Path path) throws IOException {
+        String pem = Files.readString(path, StandardCharsets.US_ASCII)
+                .replaceAll("-----(BEGIN|END) [A-Z ]+-----", "")
+                .replaceAll("\\s", "");
+        return Base64.getDecoder().decode(pem);
+    }
+}
@@ -1,93 +1,90 @@
 package com.ecommerce.authservice.security;
 
-import io.jsonwebtoken.Claims;
+import com.ecommerce.security.JwtVerifier;
+import io.jsonwebtoken.JwtException;
 import io.jsonwebtoken.Jwts;
-import io.jsonwebtoken.security.Keys;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
-import javax.crypto.SecretKey;
-import java.nio.charset.StandardCharsets;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
-import java.util.function.Function;
+import java.util.UUID;
 
 @Component
 public class JwtUtil {
 
-    @Value("${jwt.secret}")
-    private String secret;
+    private final JwtKeyStore jwtKeyStore;
+    private final Long expiration;
+    private final JwtVerifier jwtVerifier;
 
-    @Value("${jwt.expiration}")
-    private Long expiration;
-
-    private SecretKey getSignKey() {
-        return Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
+    public JwtUtil(JwtKeyStore jwtKeyStore,
+                   @Value("${jwt.expiration}") Long expiration,
+                   JwtVerifier jwtVerifier) {
+        this.jwtKeyStore = jwtKeyStore;
+        this.expiration = expiration;
+        this.jwtVerifier = jwtVerifier;
     }
 
     // Generate token for user
     public String generateToken(String email, Long userId, String role) {
+        return generateToken(email, userId, role, UUID.randomUUID().toString(),
+                new Date(System.currentTimeMillis() + expiration));
+    }
+
+    // Generate token with a known id (jti) and expiry, so it can be revoked later
+    public String generateToken(String email, Long userId, String role, String tokenId, Date expiresAt) {
         Map<String, Object> claims = new HashMap<>();
         claims.put("userId", userId);
         claims.put("role", role);
-        return createToken(claims, email);
+        return createToken(claims, email, tokenId, expiresAt);
+    }
+
+    // Lifetime of access tokens in milliseconds
+    public long getExpiration() {
+        return expiration;
     }
 
     // Create JWT token
-    private String createToken(Map<String, Object> claims, String subject) {
+    private String createToken(Map<String, Object> claims, String subject, String tokenId, Date expiresAt) {
+        // RS256 with the key id in the header, so services can verify with the published key set
         return Jwts.builder()
+                .header().keyId(jwtKeyStore.getSigningKeyId()).and()
                 .claims(claims)
+                .id(tokenId)
                 .subject(subject)
                 .issuedAt(new Date(System.currentTimeMillis()))
-                .expiration(new Date(System.currentTimeMillis() + expiration))
-                .signWith(getSignKey())
+                .expiration(expiresAt)
+                .signWith(jwtKeyStore.getSigningKey(), Jwts.SIG.RS256)
                 .compact();
     }
 
     // Extract email from token
     public String extractEmail(String token) {
-        return extractClaim(token, Claims::getSubject);
+        return jwtVerifier.verify(token).email();
     }
 
     // Extract user ID from token
     public Long extractUserId(String token) {
-        return extractClaim(token, claims -> claims.get("userId", Long.class));
+        return jwtVerifier.verify(token).userId();
     }
 
     // Extract role from token
     public String extractRole(String token) {
-        return extractClaim(token, claims -> claims.get("role", String.class));
+        return jwtVerifier.verify(token).role();
     }
 
     // Extract expiration date
     public Date extractExpiration(String token) {
-        return extractClaim(token, Claims::getExpiration);
-    }
-
-    // Extract specific claim
-    public <T> T extractClaim(String token, Function<Claims, T> claimsResolver) {
-        final Claims claims = extractAllClaims(token);
-        return claimsResolver.apply(claims);
-    }
-
-    // Extract all claims
-    private Claims extractAllClaims(String token) {
-        return Jwts.parser()
-                .verifyWith(getSignKey())
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
-    }
-
-    // Check if token is expired
-    private Boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
+        return Date.from(jwtVerifier.verify(token).expiresAt());
     }
 
-    // Validate token
+    // Validate token: one verification covers signature, expiry and subject
     public Boolean validateToken(String token, String email) {
-        final String tokenEmail = extractEmail(token);
-        return (tokenEmail.equals(email) && !isTokenExpired(token));
+        try {
+            return jwtVerifier.verify(token).email().equals(email);
+        } catch (JwtException e) {
+            return false;
+        }
     }
-}
\ No newline at end of file
+}
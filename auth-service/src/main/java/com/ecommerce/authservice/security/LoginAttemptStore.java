@@ -0,0 +1,30 @@
+package com.ecommerce.authservice.security;
+
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Sliding-window attempt counters behind {@link LoginThrottle}. Selected with
+ * {@code auth.login-throttle.store}: {@code memory} (default) counts per instance,
+ * {@code redis} shares the counters between instances.
+ */
+public interface LoginAttemptStore {
+
+    /**
+     * Counts an attempt for the key. Returns 0 when it is within the rule, otherwise the
+     * milliseconds the key stays blocked; rejected attempts are not counted.
+     */
+    long tryAcquire(String key, Rule rule);
+
+    // Forgets the key's attempts and back-off
+    void reset(String key);
+
+    Map<String, Object> getStats();
+
+    /**
+     * At most {@code limit} attempts per sliding {@code window}. Each time the limit is hit the
+     * key is blocked, for {@code initialBackoff} doubled per consecutive hit up to {@code maxBackoff}.
+     */
+    record Rule(int limit, Duration window, Duration initialBackoff, Duration maxBackoff) {
+    }
+}
@@ -0,0 +1,120 @@
+package com.ecommerce.authservice.security;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Brute-force protection for logins: attempts are counted per client IP and per account from
+ * each client IP in sliding windows, and over-limit attempts are refused with a growing back-off
+ * before any password hashing or database lookup. Keying the account limit on the client as
+ * well means guessing someone's password from one address cannot lock them out everywhere else.
+ * A successful login clears the account's count for that client; the IP count is kept, so one
+ * valid account cannot be used to reset it.
+ * <p>
+ * Guesses spread over many addresses are caught by a second, account-wide limit keyed on the
+ * email alone: higher and over a longer window, with its own back-off, so it only trips under
+ * such an attack. It is checked after the per-client limit, so a client already refused there
+ * does not use it up, and a success does not clear it, as the attack is not over then.
+ * <p>
+ * The client IP comes from the forwarded headers of the gateway
+ * ({@code server.forward-headers-strategy}), not from the proxy's own address.
+ */
+@Component
+public class LoginThrottle {
+
+    private static final String ACCOUNT_PREFIX = "account:";
+    private static final String ACCOUNT_GLOBAL_PREFIX = "account-global:";
+    private static final String IP_PREFIX = "ip:";
+
+    private final LoginAttemptStore store;
+    private final boolean enabled;
+    private final LoginAttemptStore.Rule accountRule;
+    private final LoginAttemptStore.Rule accountGlobalRule;
+    private final LoginAttemptStore.Rule ipRule;
+
+    private final LongAdder allowed = new LongAdder();
+    private final LongAdder rejectedByAccount = new LongAdder();
+    private final LongAdder rejectedByAccountGlobal = new LongAdder();
+    private final LongAdder rejectedByIp = new LongAdder();
+
+    public LoginThrottle(LoginAttemptStore store,
+                         @Value("${auth.login-throttle.enabled:true}") boolean enabled,
+                         @Value("${auth.login-throttle.account.limit:5}") int accountLimit,
+                         @Value("${auth.login-throttle.account.window:PT5M}") Duration accountWindow,
+                         @Value("${auth.login-throttle.account-global.limit:50}") int accountGlobalLimit,
+                         @Value("${auth.login-throttle.account-global.window:PT1H}") Duration accountGlobalWindow,
+                         @Value("${auth.login-throttle.account-global.backoff.initial:PT1M}") Duration accountGlobalInitialBackoff,
+                         @Value("${auth.login-throttle.account-global.backoff.max:PT1H}") Duration accountGlobalMaxBackoff,
+                         @Value("${auth.login-throttle.ip.limit:50}") int ipLimit,
+                         @Value("${auth.login-throttle.ip.window:PT1M}") Duration ipWindow,
+                         @Value("${auth.login-throttle.backoff.initial:PT1S}") Duration initialBackoff,
+                         @Value("${auth.login-throttle.backoff.max:PT15M}") Duration maxBackoff) {
+        this.store = store;
+        this.enabled = enabled;
+        this.accountRule = new LoginAttemptStore.Rule(accountLimit, accountWindow, initialBackoff, maxBackoff);
+        this.accountGlobalRule = new LoginAttemptStore.Rule(accountGlobalLimit, accountGlobalWindow,
+                accountGlobalInitialBackoff, accountGlobalMaxBackoff);
+        this.ipRule = new LoginAttemptStore.Rule(ipLimit, ipWindow, initialBackoff, maxBackoff);
+    }
+
+    // Counts a login attempt, or throws LoginThrottledException when the client or account is over its limit
+    public void acquire(String email, String clientIp) {
+        if (!enabled) {
+            return;
+        }
+
+        if (clientIp != null) {
+            long retryAfter = store.tryAcquire(IP_PREFIX + clientIp, ipRule);
+            if (retryAfter > 0) {
+                rejectedByIp.increment();
+                throw new LoginThrottledException(Duration.ofMillis(retryAfter));
+            }
+        }
+
+        String account = normalize(email);
+        long retryAfter = store.tryAcquire(accountKey(account, clientIp), accountRule);
+        if (retryAfter > 0) {
+            rejectedByAccount.increment();
+            throw new LoginThrottledException(Duration.ofMillis(retryAfter));
+        }
+
+        retryAfter = store.tryAcquire(ACCOUNT_GLOBAL_PREFIX + account, accountGlobalRule);
+        if (retryAfter > 0) {
+            rejectedByAccountGlobal.increment();
+            throw new LoginThrottledException(Duration.ofMillis(retryAfter));
+        }
+        allowed.increment();
+    }
+
+    public void onSuccess(String email, String clientIp) {
+        if (enabled) {
+            store.reset(accountKey(normalize(email), clientIp));
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("allowed", allowed.sum());
+        stats.put("rejectedByAccount", rejectedByAccount.sum());
+        stats.put("rejectedByAccountGlobal", rejectedByAccountGlobal.sum());
+        stats.put("rejectedByIp", rejectedByIp.sum());
+        stats.putAll(store.getStats());
+        return stats;
+    }
+
+    private static String accountKey(String account, String clientIp) {
+        return ACCOUNT_PREFIX + account + "|" + (clientIp != null ? clientIp : "");
+    }
+
+    // Case and padding variants of an email are the same account
+    private static String normalize(String email) {
+        return email == null ? "" : email.trim().toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,18 @@
+package com.ecommerce.authservice.security;
+
+import java.time.Duration;
+
+// Too many login attempts for the account or from the client; retry after the given delay
+public class LoginThrottledException extends RuntimeException {
+
+    private final Duration retryAfter;
+
+    public LoginThrottledException(Duration retryAfter) {
+        super("Too many login attempts, retry later");
+        this.retryAfter = retryAfter;
+    }
+
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+}
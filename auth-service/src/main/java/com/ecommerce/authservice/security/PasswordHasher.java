@@ -0,0 +1,176 @@
+package com.ecommerce.authservice.security;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Runs bcrypt on a small pool sized to the CPU instead of on Tomcat threads.
+ * <p>
+ * Hashing is pure CPU work, so more threads than cores only make every login slower. Work
+ * beyond the pool waits in a bounded queue; when that is full the request is refused at once
+ * with {@link HashingRejectedException}, so a login burst can tie up at most
+ * {@code pool + queue} request threads and the rest of the service keeps responding.
+ * {@code AuthController} answers that exception with 429 and a {@code Retry-After} of
+ * {@code auth.password.retry-after}.
+ */
+@Component
+@Slf4j
+public class PasswordHasher implements DisposableBean {
+
+    private final PasswordEncoder passwordEncoder;
+    private final ThreadPoolExecutor executor;
+    private final Duration maxWait;
+    private final Duration retryAfter;
+
+    // Compared against when the account does not exist, so unknown emails take as long as wrong passwords
+    private final String dummyHash;
+
+    private final LongAdder hashes = new LongAdder();
+    private final LongAdder verifications = new LongAdder();
+    private final LongAdder rehashes = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder timeouts = new LongAdder();
+    private final LongAdder workNanos = new LongAdder();
+    private final LongAdder queueNanos = new LongAdder();
+    private final LongAccumulator maxWorkNanos = new LongAccumulator(Math::max, 0);
+    private final LongAccumulator maxQueueNanos = new LongAccumulator(Math::max, 0);
+
+    public PasswordHasher(PasswordEncoder passwordEncoder,
+                          @Value("${auth.password.hash-threads:0}") int threads,
+                          @Value("${auth.password.queue-capacity:64}") int queueCapacity,
+                          @Value("${auth.password.max-wait:PT5S}") Duration maxWait,
+                          @Value("${auth.password.retry-after:PT1S}") Duration retryAfter) {
+        this.passwordEncoder = passwordEncoder;
+        this.maxWait = maxWait;
+        this.retryAfter = retryAfter;
+
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        AtomicInteger counter = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "password-hasher-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        this.executor.prestartAllCoreThreads();
+        this.dummyHash = passwordEncoder.encode("not-a-real-password");
+        log.info("Password hashing on {} threads with a queue of {}", poolSize, queueCapacity);
+    }
+
+    public String hash(CharSequence rawPassword) {
+        hashes.increment();
+        return run(() -> passwordEncoder.encode(rawPassword));
+    }
+
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        verifications.increment();
+        return run(() -> passwordEncoder.matches(rawPassword, encodedPassword));
+    }
+
+    // Burns the same work as a real check for a login with an unknown email
+    public void matchNothing(CharSequence rawPassword) {
+        matches(rawPassword, dummyHash);
+    }
+
+    // True when the hash was made with a lower work factor than the configured one
+    public boolean needsRehash(String encodedPassword) {
+        return passwordEncoder.upgradeEncoding(encodedPassword);
+    }
+
+    /**
+     * Rehashes a password after a successful login, or returns null when the pool is busy;
+     * the upgrade is simply retried on a later login.
+     */
+    public String rehash(CharSequence rawPassword) {
+        if (executor.getQueue().remainingCapacity() == 0) {
+            return null;
+        }
+        try {
+            String hash = hash(rawPassword);
+            rehashes.increment();
+            return hash;
+        } catch (HashingRejectedException e) {
+            return null;
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        long completed = hashes.sum() + verifications.sum() - rejected.sum() - timeouts.sum();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("poolSize", executor.getCorePoolSize());
+        stats.put("active", executor.getActiveCount());
+        stats.put("queueDepth", executor.getQueue().size());
+        stats.put("queueCapacity", executor.getQueue().size() + executor.getQueue().remainingCapacity());
+        stats.put("hashes", hashes.sum());
+        stats.put("verifications", verifications.sum());
+        stats.put("rehashes", rehashes.sum());
+        stats.put("rejected", rejected.sum());
+        stats.put("timeouts", timeouts.sum());
+        stats.put("avgHashMillis", completed > 0 ? workNanos.sum() / completed / 1_000_000.0 : 0.0);
+        stats.put("maxHashMillis", maxWorkNanos.get() / 1_000_000.0);
+        stats.put("avgQueueMillis", completed > 0 ? queueNanos.sum() / completed / 1_000_000.0 : 0.0);
+        stats.put("maxQueueMillis", maxQueueNanos.get() / 1_000_000.0);
+        return stats;
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdownNow();
+    }
+
+    private <T> T run(Callable<T> work) {
+        long submitted = System.nanoTime();
+        Future<T> future;
+        try {
+            future = executor.submit(() -> {
+                long started = System.nanoTime();
+                try {
+                    return work.call();
+                } finally {
+                    long worked = System.nanoTime() - started;
+                    workNanos.add(worked);
+                    maxWorkNanos.accumulate(worked);
+                    queueNanos.add(started - submitted);
+                    maxQueueNanos.accumulate(started - submitted);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            throw new HashingRejectedException(retryAfter);
+        }
+
+        try {
+            return future.get(maxWait.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            timeouts.increment();
+            throw new HashingRejectedException(retryAfter);
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while hashing password");
+        } catch (ExecutionException e) {
+            throw new RuntimeException("Password hashing failed", e.getCause());
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package com.ecommerce.authservice.security;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Login attempt counters shared by all auth-service instances, one Redis hash per key
+ * ({@code login-throttle:<key>}) expiring two windows after its last attempt.
+ * <p>
+ * Same sliding-window estimate and back-off as {@link InMemoryLoginAttemptStore}, evaluated
+ * atomically in a script on Redis time, so instance clocks do not matter. While Redis is
+ * unreachable the counters of this instance are used instead, so logins keep working and
+ * stay throttled.
+ */
+@Component
+@ConditionalOnProperty(name = "auth.login-throttle.store", havingValue = "redis")
+@Slf4j
+public class RedisLoginAttemptStore implements LoginAttemptStore {
+
+    private static final String KEY_PREFIX = "login-throttle:";
+
+    // KEYS: counter hash; ARGV: limit, window millis, initial backoff millis, max backoff millis
+    private static final RedisScript<Long> TRY_ACQUIRE = new DefaultRedisScript<>(
+            "local t = redis.call('TIME') " +
+                    "local now = t[1] * 1000 + math.floor(t[2] / 1000) " +
+                    "local limit, win = tonumber(ARGV[1]), tonumber(ARGV[2]) " +
+                    "local h = redis.call('HMGET', KEYS[1], 'i', 'p', 'c', 's', 'b') " +
+                    "local blocked = tonumber(h[5]) or 0 " +
+                    "if blocked > now then return blocked - now end " +
+                    "local index = math.floor(now / win) " +
+                    "local prev, cur = tonumber(h[2]) or 0, tonumber(h[3]) or 0 " +
+                    "local last = tonumber(h[1]) or index " +
+                    "if last ~= index then " +
+                    "if last == index - 1 then prev = cur else prev = 0 end cur = 0 end " +
+                    "if prev * (win - now % win) / win + cur >= limit then " +
+                    "local strikes = math.min((tonumber(h[4]) or 0) + 1, 30) " +
+                    "local delay = math.min(tonumber(ARGV[3]) * 2 ^ (strikes - 1), tonumber(ARGV[4])) " +
+                    "redis.call('HSET', KEYS[1], 'i', index, 'p', prev, 'c', cur, 's', strikes, 'b', now + delay) " +
+                    "redis.call('PEXPIRE', KEYS[1], 2 * win + delay) " +
+                    "return delay end " +
+                    "redis.call('HSET', KEYS[1], 'i', index, 'p', prev, 'c', cur + 1) " +
+                    "redis.call('PEXPIRE', KEYS[1], 2 * win) " +
+                    "return 0",
+            Long.class);
+
+    private final StringRedisTemplate redisTemplate;
+    private final InMemoryLoginAttemptStore fallback;
+
+    private final LongAdder fallbacks = new LongAdder();
+
+    public RedisLoginAttemptStore(StringRedisTemplate redisTemplate,
+                                  @Value("${auth.login-throttle.max-keys:100000}") int maxKeys) {
+        this.redisTemplate = redisTemplate;
+        this.fallback = new InMemoryLoginAttemptStore(maxKeys);
+    }
+
+    @Override
+    public long tryAcquire(String key, Rule rule) {
+        try {
+            Long retryAfter = redisTemplate.execute(TRY_ACQUIRE, List.of(KEY_PREFIX + key),
+                    String.valueOf(rule.limit()),
+                    String.valueOf(rule.window().toMillis()),
+                    String.valueOf(rule.initialBackoff().toMillis()),
+                    String.valueOf(rule.maxBackoff().toMillis()));
+            return retryAfter != null ? retryAfter : 0;
+        } catch (DataAccessException e) {
+            fallbacks.increment();
+            log.warn("Login throttle store unavailable, counting locally: {}", e.getMessage());
+            return fallback.tryAcquire(key, rule);
+        }
+    }
+
+    @Override
+    public void reset(String key) {
+        fallback.reset(key);
+        try {
+            redisTemplate.delete(KEY_PREFIX + key);
+        } catch (DataAccessException e) {
+            log.warn("Could not reset login throttle for {}: {}", key, e.getMessage());
+        }
+    }
+
+    @Override
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("store", "redis");
+        stats.put("fallbacks", fallbacks.sum());
+        stats.put("localKeys", fallback.getStats().get("keys"));
+        return stats;
+    }
+
+    @Scheduled(fixedDelayString = "${auth.login-throttle.sweep-interval:PT1M}")
+    public void sweep() {
+        fallback.sweep();
+    }
+}
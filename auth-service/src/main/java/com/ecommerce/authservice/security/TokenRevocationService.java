@@ -0,0 +1,131 @@
+package com.ecommerce.authservice.security;
+
+import com.ecommerce.authservice.dto.RevocationListResponse;
+import com.ecommerce.authservice.repository.RefreshTokenRepository;
+import com.ecommerce.authservice.repository.RevokedTokenRepository;
+import com.ecommerce.security.RevocationCheck;
+import com.ecommerce.security.RevocationFilter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntSupplier;
+
+import static com.ecommerce.authservice.security.TransactionCallbacks.afterCommit;
+
+/**
+ * The revocation list of access tokens: persisted in {@code revoked_tokens}, checked from an
+ * in-memory {@link RevocationFilter}.
+ * <p>
+ * Revocations made by this instance apply locally at commit; those made by other auth-service
+ * instances arrive with the next poll of the table. The other services sync the same list
+ * over {@code GET /api/auth/revocations}. Rows and refresh tokens past their expiry are
+ * deleted in batches by a scheduled sweep.
+ */
+@Service
+@Slf4j
+public class TokenRevocationService implements RevocationCheck {
+
+    private final RevokedTokenRepository revokedTokenRepository;
+    private final RefreshTokenRepository refreshTokenRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final RevocationFilter filter;
+    private final Duration syncOverlap;
+    private final int gcBatchSize;
+
+    private volatile Instant cursor = Instant.EPOCH;
+
+    private final LongAdder revocations = new LongAdder();
+    private final LongAdder revokedRowsDeleted = new LongAdder();
+    private final LongAdder refreshTokensDeleted = new LongAdder();
+
+    public TokenRevocationService(RevokedTokenRepository revokedTokenRepository,
+                                  RefreshTokenRepository refreshTokenRepository,
+                                  TransactionTemplate transactionTemplate,
+                                  @Value("${auth.revocations.expected-entries:100000}") int expectedEntries,
+                                  @Value("${auth.revocations.sync-overlap:PT1M}") Duration syncOverlap,
+                                  @Value("${auth.revocations.gc-batch-size:1000}") int gcBatchSize) {
+        this.revokedTokenRepository = revokedTokenRepository;
+        this.refreshTokenRepository = refreshTokenRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.filter = new RevocationFilter(expectedEntries);
+        this.syncOverlap = syncOverlap;
+        this.gcBatchSize = gcBatchSize;
+    }
+
+    @Override
+    public boolean isRevoked(String tokenId) {
+        return filter.isRevoked(tokenId);
+    }
+
+    // Joins the caller's transaction; the local filter learns about it once that commits
+    public void revoke(String tokenId, Instant expiresAt) {
+        if (tokenId == null || expiresAt == null || !expiresAt.isAfter(Instant.now())) {
+            return;
+        }
+        revokedTokenRepository.insertIgnoringDuplicate(tokenId, expiresAt, Instant.now());
+        revocations.increment();
+        afterCommit(() -> filter.add(tokenId, expiresAt));
+    }
+
+    /**
+     * Revocations from {@code since} on. The returned cursor lies {@code sync-overlap} before
+     * the time of the query, so rows committed late by another instance are picked up by the
+     * next call; clients treat repeats as no-ops.
+     */
+    public RevocationListResponse listSince(Instant since) {
+        Instant now = Instant.now();
+        List<RevocationListResponse.Entry> tokens = revokedTokenRepository
+                .findRevokedSince(since != null ? since : Instant.EPOCH, now).stream()
+                .map(row -> new RevocationListResponse.Entry(row.getTokenId(), row.getExpiresAt()))
+                .toList();
+        return new RevocationListResponse(now.minus(syncOverlap), tokens);
+    }
+
+    @Scheduled(fixedDelayString = "${auth.revocations.poll-interval:PT5S}")
+    public void sync() {
+        try {
+            RevocationListResponse changes = listSince(cursor);
+            changes.getTokens().forEach(entry -> filter.add(entry.getTokenId(), entry.getExpiresAt()));
+            cursor = changes.getCursor();
+        } catch (RuntimeException e) {
+            log.warn("Could not sync revoked tokens: {}", e.getMessage());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${auth.revocations.gc-interval:PT10M}")
+    public void collectGarbage() {
+        Instant now = Instant.now();
+        filter.purgeExpired(now);
+        revokedRowsDeleted.add(deleteInBatches(() -> revokedTokenRepository.deleteExpired(now, gcBatchSize)));
+        refreshTokensDeleted.add(deleteInBatches(() -> refreshTokenRepository.deleteExpired(now, gcBatchSize)));
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>(filter.getStats());
+        stats.put("revocations", revocations.sum());
+        stats.put("syncCursor", cursor);
+        stats.put("revokedRowsDeleted", revokedRowsDeleted.sum());
+        stats.put("refreshTokensDeleted", refreshTokensDeleted.sum());
+        return stats;
+    }
+
+    // Short transactions so the sweep never holds many row locks at once
+    private long deleteInBatches(IntSupplier batch) {
+        long total = 0;
+        int deleted;
+        do {
+            deleted = transactionTemplate.execute(status -> batch.getAsInt());
+            total += deleted;
+        } while (deleted == gcBatchSize);
+        return total;
+    }
+}
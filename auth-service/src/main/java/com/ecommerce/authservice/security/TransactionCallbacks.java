@@ -0,0 +1,26 @@
+package com.ecommerce.authservice.security;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+// Work that must only happen once the surrounding transaction has committed
+final class TransactionCallbacks {
+
+    private TransactionCallbacks() {
+    }
+
+    // Runs straight away when there is no transaction to wait for
+    static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
@@ -0,0 +1,43 @@
+package com.ecommerce.authservice.security;
+
+import com.ecommerce.authservice.entity.User;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * JPA listener on {@link User} that evicts the cached credentials when the row is updated
+ * (password, role, deactivation) or deleted. Evicts again after commit so a login that read
+ * the old row in between does not leave it cached.
+ */
+@Component
+@RequiredArgsConstructor
+public class UserCacheInvalidator {
+
+    // Looked up lazily: Hibernate creates its listeners while the repositories the cache needs are still being built
+    private final ObjectProvider<UserCredentialCache> userCredentialCache;
+
+    @PostUpdate
+    @PostRemove
+    public void userChanged(User user) {
+        evict(user.getEmail());
+    }
+
+    // For bulk JPQL updates, which bypass entity listeners
+    public void evict(String email) {
+        UserCredentialCache cache = userCredentialCache.getObject();
+        cache.invalidate(email);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    cache.invalidate(email);
+                }
+            });
+        }
+    }
+}
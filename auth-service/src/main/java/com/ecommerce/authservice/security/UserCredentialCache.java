@@ -0,0 +1,103 @@
+package com.ecommerce.authservice.security;
+
+import com.ecommerce.authservice.entity.User;
+import com.ecommerce.authservice.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded LRU of the user fields a login needs, keyed by email, so repeat sign-ins are
+ * served without a query.
+ * <p>
+ * Entries are dropped when the user row changes in this service (see
+ * {@link UserCacheInvalidator}) and expire after {@code auth.user-cache.ttl} in any case,
+ * which bounds how long a change made by another instance goes unnoticed. Unknown emails
+ * are not cached, so a new registration is visible at once.
+ */
+@Component
+public class UserCredentialCache {
+
+    private final UserRepository userRepository;
+    private final long ttlNanos;
+    private final LinkedHashMap<String, Entry> entries;
+    private long lastInvalidation = System.nanoTime();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+
+    public UserCredentialCache(UserRepository userRepository,
+                               @Value("${auth.user-cache.max-entries:10000}") int maxEntries,
+                               @Value("${auth.user-cache.ttl:PT5M}") Duration ttl) {
+        this.userRepository = userRepository;
+        this.ttlNanos = ttl.toNanos();
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    public Optional<UserCredentials> findByEmail(String email) {
+        long now = System.nanoTime();
+        synchronized (this) {
+            Entry entry = entries.get(email);
+            if (entry != null && now - entry.loadedAt() < ttlNanos) {
+                hits.increment();
+                return Optional.of(entry.credentials());
+            }
+        }
+
+        misses.increment();
+        Optional<UserCredentials> loaded = userRepository.findByEmail(email).map(UserCredentials::of);
+        loaded.ifPresent(credentials -> put(email, credentials, now));
+        return loaded;
+    }
+
+    public synchronized void invalidate(String email) {
+        lastInvalidation = System.nanoTime();
+        if (entries.remove(email) != null) {
+            invalidations.increment();
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        synchronized (this) {
+            stats.put("size", entries.size());
+        }
+        stats.put("hits", hits.sum());
+        stats.put("misses", misses.sum());
+        stats.put("invalidations", invalidations.sum());
+        return stats;
+    }
+
+    private synchronized void put(String email, UserCredentials credentials, long loadedAt) {
+        // The row may have changed while it was being read; such a load is used once but not kept
+        if (loadedAt - lastInvalidation > 0) {
+            entries.put(email, new Entry(credentials, loadedAt));
+        }
+    }
+
+    /**
+     * The login-relevant columns of a user; immutable so it can be shared between requests.
+     */
+    public record UserCredentials(Long id, String email, String passwordHash, String firstName,
+                                  String lastName, User.Role role, boolean active) {
+
+        static UserCredentials of(User user) {
+            return new UserCredentials(user.getId(), user.getEmail(), user.getPassword(), user.getFirstName(),
+                    user.getLastName(), user.getRole(), Boolean.TRUE.equals(user.getActive()));
+        }
+    }
+
+    private record Entry(UserCredentials credentials, long loadedAt) {
+    }
+}
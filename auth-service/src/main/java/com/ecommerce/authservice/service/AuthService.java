@@ -5,14 +5,17 @@ import com.ecommerce.authservice.dto.LoginRequest;
 import com.ecommerce.authservice.dto.RegisterRequest;
 import com.ecommerce.authservice.entity.User;
 import com.ecommerce.authservice.repository.UserRepository;
-import com.ecommerce.authservice.security.JwtUtil;
+import com.ecommerce.authservice.security.LoginThrottle;
+import com.ecommerce.authservice.security.PasswordHasher;
+import com.ecommerce.authservice.security.UserCacheInvalidator;
+import com.ecommerce.authservice.security.UserCredentialCache;
+import com.ecommerce.authservice.security.UserCredentialCache.UserCredentials;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.security.authentication.AuthenticationManager;
-import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
-import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.SQLException;
 
 @Service
 @RequiredArgsConstructor
@@ -20,23 +23,20 @@ import org.springframework.transaction.annotation.Transactional;
 public class AuthService {
 
     private final UserRepository userRepository;
-    private final PasswordEncoder passwordEncoder;
-    private final JwtUtil jwtUtil;
-    private final AuthenticationManager authenticationManager;
+    private final PasswordHasher passwordHasher;
+    private final TokenService tokenService;
+    private final UserCredentialCache userCredentialCache;
+    private final UserCacheInvalidator userCacheInvalidator;
+    private final LoginThrottle loginThrottle;
 
-    @Transactional
+    // Not transactional: no connection is held while the password is hashed
     public AuthResponse register(RegisterRequest request) {
         log.info("Registering new user: {}", request.getEmail());
 
-        // Check if email already exists
-        if (userRepository.existsByEmail(request.getEmail())) {
-            throw new RuntimeException("Email already exists");
-        }
-
         // Create new user
         User user = User.builder()
                 .email(request.getEmail())
-                .password(passwordEncoder.encode(request.getPassword()))
+                .password(passwordHasher.hash(request.getPassword()))
                 .firstName(request.getFirstName())
                 .lastName(request.getLastName())
                 .phone(request.getPhone())
@@ -44,18 +44,20 @@ public class AuthService {
                 .active(true)
                 .build();
 
-        User savedUser = userRepository.save(user);
+        // The unique index on email decides duplicates, also between concurrent registrations
+        User savedUser;
+        try {
+            savedUser = userRepository.save(user);
+        } catch (DataIntegrityViolationException e) {
+            if (isUniqueViolation(e)) {
+                throw new RuntimeException("Email already exists");
+            }
+            throw e;
+        }
         log.info("User registered successfully: {}", savedUser.getEmail());
 
-        // Generate JWT token
-        String token = jwtUtil.generateToken(
-                savedUser.getEmail(),
-                savedUser.getId(),
-                savedUser.getRole().name()
-        );
-
-        return new AuthResponse(
-                token,
+        // Generate access and refresh token
+        return tokenService.issue(
                 savedUser.getId(),
                 savedUser.getEmail(),
                 savedUser.getFirstName(),
@@ -64,41 +66,57 @@ public class AuthService {
         );
     }
 
-    public AuthResponse login(LoginRequest request) {
+    public AuthResponse login(LoginRequest request, String clientIp) {
         log.info("User login attempt: {}", request.getEmail());
 
-        // Authenticate user
-        authenticationManager.authenticate(
-                new UsernamePasswordAuthenticationToken(
-                        request.getEmail(),
-                        request.getPassword()
-                )
-        );
+        // Refuse over-limit attempts before any lookup or hashing
+        loginThrottle.acquire(request.getEmail(), clientIp);
 
-        // Find user
-        User user = userRepository.findByEmail(request.getEmail())
-                .orElseThrow(() -> new RuntimeException("User not found"));
+        // Find user once, usually from the cache; unknown emails still pay for one hash so
+        // they cannot be told apart by timing
+        UserCredentials user = userCredentialCache.findByEmail(request.getEmail()).orElse(null);
+        if (user == null) {
+            passwordHasher.matchNothing(request.getPassword());
+            throw new RuntimeException("Invalid email or password");
+        }
+
+        // Authenticate user
+        if (!passwordHasher.matches(request.getPassword(), user.passwordHash())) {
+            throw new RuntimeException("Invalid email or password");
+        }
 
-        if (!user.getActive()) {
+        if (!user.active()) {
             throw new RuntimeException("User account is inactive");
         }
 
-        log.info("User logged in successfully: {}", user.getEmail());
+        // Work factor was raised since this password was stored
+        if (passwordHasher.needsRehash(user.passwordHash())) {
+            upgradePassword(user, request.getPassword());
+        }
 
-        // Generate JWT token
-        String token = jwtUtil.generateToken(
-                user.getEmail(),
-                user.getId(),
-                user.getRole().name()
-        );
+        loginThrottle.onSuccess(request.getEmail(), clientIp);
+        log.info("User logged in successfully: {}", user.email());
 
-        return new AuthResponse(
-                token,
-                user.getId(),
-                user.getEmail(),
-                user.getFirstName(),
-                user.getLastName(),
-                user.getRole().name()
+        // Generate access and refresh token
+        return tokenService.issue(
+                user.id(),
+                user.email(),
+                user.firstName(),
+                user.lastName(),
+                user.role().name()
         );
     }
-}
\ No newline at end of file
+
+    private void upgradePassword(UserCredentials user, String rawPassword) {
+        String rehashed = passwordHasher.rehash(rawPassword);
+        if (rehashed != null
+                && userRepository.updatePassword(user.id(), user.passwordHash(), rehashed) == 1) {
+            userCacheInvalidator.evict(user.email());
+            log.debug("Rehashed password of user {} with the current work factor", user.id());
+        }
+    }
+
+    private boolean isUniqueViolation(DataIntegrityViolationException e) {
+        return e.getMostSpecificCause() instanceof SQLException sql && "23505".equals(sql.getSQLState());
+    }
+}
@@ -0,0 +1,154 @@
+package com.ecommerce.authservice.service;
+
+import com.ecommerce.authservice.dto.AuthResponse;
+import com.ecommerce.authservice.entity.RefreshToken;
+import com.ecommerce.authservice.entity.User;
+import com.ecommerce.authservice.repository.RefreshTokenRepository;
+import com.ecommerce.authservice.repository.UserRepository;
+import com.ecommerce.authservice.security.JwtUtil;
+import com.ecommerce.authservice.security.TokenRevocationService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Date;
+import java.util.HexFormat;
+import java.util.UUID;
+
+/**
+ * Issues short-lived access tokens together with single-use refresh tokens.
+ * <p>
+ * Every refresh marks the presented token used and hands out its successor in the same family.
+ * A used or revoked token presented again means it was copied, so the whole family is revoked,
+ * including the access tokens issued with it.
+ */
+@Service
+@Slf4j
+public class TokenService {
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    private final RefreshTokenRepository refreshTokenRepository;
+    private final UserRepository userRepository;
+    private final JwtUtil jwtUtil;
+    private final TokenRevocationService tokenRevocationService;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration refreshExpiration;
+
+    public TokenService(RefreshTokenRepository refreshTokenRepository,
+                        UserRepository userRepository,
+                        JwtUtil jwtUtil,
+                        TokenRevocationService tokenRevocationService,
+                        TransactionTemplate transactionTemplate,
+                        @Value("${jwt.refresh-expiration:P14D}") Duration refreshExpiration) {
+        this.refreshTokenRepository = refreshTokenRepository;
+        this.userRepository = userRepository;
+        this.jwtUtil = jwtUtil;
+        this.tokenRevocationService = tokenRevocationService;
+        this.transactionTemplate = transactionTemplate;
+        this.refreshExpiration = refreshExpiration;
+    }
+
+    // Starts a new token family for a login or registration
+    public AuthResponse issue(Long userId, String email, String firstName, String lastName, String role) {
+        return issueInFamily(UUID.randomUUID().toString(), userId, email, firstName, lastName, role);
+    }
+
+    public AuthResponse refresh(String refreshToken) {
+        // Not @Transactional: a family revoked on reuse must stay revoked although the call fails
+        AuthResponse response = transactionTemplate.execute(status -> rotate(hash(refreshToken)));
+        if (response == null) {
+            throw new RuntimeException("Invalid refresh token");
+        }
+        return response;
+    }
+
+    // Ends the session of the refresh token, revoking its live access tokens as well
+    public void logout(String refreshToken) {
+        transactionTemplate.executeWithoutResult(status -> refreshTokenRepository
+                .findByTokenHashForUpdate(hash(refreshToken))
+                .ifPresent(token -> revokeFamily(token.getFamilyId())));
+    }
+
+    private AuthResponse rotate(String tokenHash) {
+        RefreshToken current = refreshTokenRepository.findByTokenHashForUpdate(tokenHash).orElse(null);
+        if (current == null) {
+            return null;
+        }
+
+        if (current.isRevoked() || current.getUsedAt() != null) {
+            log.warn("Refresh token reuse in family {} of user {}, revoking the family",
+                    current.getFamilyId(), current.getUserId());
+            revokeFamily(current.getFamilyId());
+            return null;
+        }
+
+        Instant now = Instant.now();
+        if (!current.getExpiresAt().isAfter(now)) {
+            return null;
+        }
+
+        User user = userRepository.findById(current.getUserId()).orElse(null);
+        if (user == null || !Boolean.TRUE.equals(user.getActive())) {
+            revokeFamily(current.getFamilyId());
+            return null;
+        }
+
+        current.setUsedAt(now);
+        return issueInFamily(current.getFamilyId(), user.getId(), user.getEmail(),
+                user.getFirstName(), user.getLastName(), user.getRole().name());
+    }
+
+    private AuthResponse issueInFamily(String familyId, Long userId, String email,
+                                      String firstName, String lastName, String role) {
+        Instant now = Instant.now();
+        String accessTokenId = UUID.randomUUID().toString();
+        Instant accessExpiresAt = now.plusMillis(jwtUtil.getExpiration());
+        String accessToken = jwtUtil.generateToken(email, userId, role, accessTokenId, Date.from(accessExpiresAt));
+
+        byte[] secret = new byte[32];
+        RANDOM.nextBytes(secret);
+        String refreshToken = Base64.getUrlEncoder().withoutPadding().encodeToString(secret);
+
+        refreshTokenRepository.save(RefreshToken.builder()
+                .tokenHash(hash(refreshToken))
+                .userId(userId)
+                .familyId(familyId)
+                .accessTokenId(accessTokenId)
+                .accessExpiresAt(accessExpiresAt)
+                .expiresAt(now.plus(refreshExpiration))
+                .createdAt(now)
+                .revoked(false)
+                .build());
+
+        return new AuthResponse(accessToken, refreshToken, jwtUtil.getExpiration() / 1000,
+                userId, email, firstName, lastName, role);
+    }
+
+    private void revokeFamily(String familyId) {
+        for (RefreshToken token : refreshTokenRepository.findByFamilyIdAndRevokedFalse(familyId)) {
+            if (token.getAccessTokenId() != null) {
+                tokenRevocationService.revoke(token.getAccessTokenId(), token.getAccessExpiresAt());
+            }
+        }
+        refreshTokenRepository.revokeFamily(familyId);
+    }
+
+    // Refresh tokens are 256 random bits, so an unsalted SHA-256 is enough to store them
+    private static String hash(String refreshToken) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(refreshToken.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
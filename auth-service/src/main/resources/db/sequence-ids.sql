@@ -0,0 +1,38 @@
+-- Moves the auth-service tables from IDENTITY ids to the pooled sequences the entities now
+-- use (allocationSize 50). Run it once with auth-service stopped and BEFORE deploying that
+-- version: otherwise ddl-auto=update creates the sequences starting at 1 and the first inserts
+-- collide with existing ids.
+--
+-- Hibernate's pooled optimizer reads every sequence value as the top of a block of 50 ids,
+-- so each sequence is set to start at MAX(id) + 50. Column defaults point at the same
+-- sequences, so plain SQL inserts keep working and can never reuse a block Hibernate holds.
+-- Safe to re-run while the service is stopped.
+
+CREATE OR REPLACE FUNCTION pg_temp.use_pooled_sequence(tbl TEXT, seq TEXT)
+RETURNS VOID AS $$
+DECLARE
+    max_id     BIGINT;
+    serial_seq TEXT := pg_get_serial_sequence(tbl, 'id');
+BEGIN
+    EXECUTE format('SELECT COALESCE(MAX(id), 0) FROM %I', tbl) INTO max_id;
+
+    EXECUTE format('CREATE SEQUENCE IF NOT EXISTS %I INCREMENT BY 50', seq);
+    EXECUTE format('ALTER SEQUENCE %I INCREMENT BY 50', seq);
+    PERFORM setval(seq, max_id + 50, false);
+
+    EXECUTE format('ALTER TABLE %I ALTER COLUMN id DROP IDENTITY IF EXISTS', tbl);
+    EXECUTE format('ALTER TABLE %I ALTER COLUMN id SET DEFAULT nextval(%L)', tbl, seq);
+    EXECUTE format('ALTER SEQUENCE %I OWNED BY %I.id', seq, tbl);
+
+    -- A serial column still has its old sequence
+    IF serial_seq IS NOT NULL AND to_regclass(serial_seq) IS NOT NULL
+            AND to_regclass(serial_seq) <> to_regclass(seq) THEN
+        EXECUTE 'DROP SEQUENCE ' || serial_seq;
+    END IF;
+END $$ LANGUAGE plpgsql;
+
+BEGIN;
+
+SELECT pg_temp.use_pooled_sequence('users', 'users_seq');
+
+COMMIT;
@@ -0,0 +1,121 @@
+package com.ecommerce.authservice.security;
+
+import com.ecommerce.security.JwtVerifier;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token validations per second: the old HS256 validation with a per-call key/parser and a
+ * double parse against RS256 {@link JwtVerifier} without and with its cache.
+ * <p>
+ * Run after {@code mvn test-compile} with:
+ * <pre>
+ * java -cp target/test-classes:target/classes:$(mvn -q dependency:build-classpath -Dmdep.outputFile=/dev/stdout) \
+ *     com.ecommerce.authservice.security.JwtVerificationBenchmark
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(4)
+public class JwtVerificationBenchmark {
+
+    private static final String SECRET = "MySecretKeyForJWTTokenGenerationAndValidation2024!@#$%";
+
+    // Distinct tokens in circulation, i.e. concurrently active sessions
+    @Param({"1000"})
+    public int tokens;
+
+    private String[] legacyTokens;
+    private String[] tokenPool;
+    private String[] emails;
+    private JwtVerifier uncached;
+    private JwtVerifier cached;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        legacyTokens = new String[tokens];
+        tokenPool = new String[tokens];
+        emails = new String[tokens];
+        JwtKeyStore keyStore = new JwtKeyStore("", List.of());
+        JwtUtil issuer = new JwtUtil(keyStore, 3_600_000L, new JwtVerifier(keyStore, 0));
+        SecretKey legacyKey = Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8));
+        for (int i = 0; i < tokens; i++) {
+            emails[i] = "user" + i + "@example.com";
+            tokenPool[i] = issuer.generateToken(emails[i], (long) i, "USER");
+            legacyTokens[i] = Jwts.builder()
+                    .subject(emails[i])
+                    .expiration(new Date(System.currentTimeMillis() + 3_600_000L))
+                    .signWith(legacyKey)
+                    .compact();
+        }
+        uncached = new JwtVerifier(keyStore, 0);
+        cached = new JwtVerifier(keyStore, tokens * 2);
+    }
+
+    @Benchmark
+    public boolean legacy() {
+        int i = ThreadLocalRandom.current().nextInt(tokens);
+        return legacyValidate(legacyTokens[i], emails[i]);
+    }
+
+    @Benchmark
+    public boolean verifierUncached() {
+        int i = ThreadLocalRandom.current().nextInt(tokens);
+        return uncached.verify(tokenPool[i]).email().equals(emails[i]);
+    }
+
+    @Benchmark
+    public boolean verifierCached() {
+        int i = ThreadLocalRandom.current().nextInt(tokens);
+        return cached.verify(tokenPool[i]).email().equals(emails[i]);
+    }
+
+    // What JwtUtil.validateToken used to do: new key and parser per claim, two full parses
+    private static boolean legacyValidate(String token, String email) {
+        String subject = legacyClaims(token).getSubject();
+        Date expiration = legacyClaims(token).getExpiration();
+        return subject.equals(email) && !expiration.before(new Date());
+    }
+
+    private static Claims legacyClaims(String token) {
+        return Jwts.parser()
+                .verifyWith(Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8)))
+                .build()
+                .parseSignedClaims(token)
+                .getPayload();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(JwtVerificationBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,73 @@
+package com.ecommerce.authservice.security;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Login password checks per second through {@link PasswordHasher} for several bcrypt work
+ * factors, with more callers than hashing threads the way a login burst looks to Tomcat.
+ * Each step of strength doubles the cost, so pick the highest one that still covers peak logins.
+ * <p>
+ * Run after {@code mvn test-compile} with the test classpath and
+ * {@code com.ecommerce.authservice.security.PasswordHashingBenchmark} as main class.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 3)
+@Measurement(iterations = 3, time = 5)
+@Fork(1)
+@Threads(16)
+public class PasswordHashingBenchmark {
+
+    private static final String PASSWORD = "correct horse battery staple";
+
+    @Param({"8", "10", "12"})
+    public int strength;
+
+    private PasswordHasher passwordHasher;
+    private String storedHash;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        BCryptPasswordEncoder encoder = new BCryptPasswordEncoder(strength);
+        // Queue large enough that the benchmark measures throughput, not rejections
+        passwordHasher = new PasswordHasher(encoder, 0, 64, Duration.ofMinutes(1), Duration.ofSeconds(1));
+        storedHash = encoder.encode(PASSWORD);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        passwordHasher.destroy();
+    }
+
+    @Benchmark
+    public boolean login() {
+        return passwordHasher.matches(PASSWORD, storedHash);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(PasswordHashingBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,82 @@
+package com.ecommerce.orderservice.client;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Consecutive-failure circuit breaker.
+ * <p>
+ * CLOSED lets everything through; after {@code failureThreshold} consecutive failures it
+ * goes OPEN and rejects calls for {@code openDuration}; then a single HALF_OPEN probe
+ * decides whether to close again or re-open.
+ */
+public class CircuitBreaker {
+
+    public enum State {
+        CLOSED,
+        OPEN,
+        HALF_OPEN
+    }
+
+    private final int failureThreshold;
+    private final long openDurationNanos;
+    private final AtomicInteger consecutiveFailures = new AtomicInteger();
+
+    private volatile State state = State.CLOSED;
+    private volatile long openedAt;
+    private boolean probeInFlight;
+
+    public CircuitBreaker(int failureThreshold, Duration openDuration) {
+        this.failureThreshold = failureThreshold;
+        this.openDurationNanos = openDuration.toNanos();
+    }
+
+    // Cheap check used to skip instances while routing, does not reserve the probe
+    public boolean isCallPermitted() {
+        State current = state;
+        return current == State.CLOSED
+                || (current == State.OPEN && System.nanoTime() - openedAt >= openDurationNanos);
+    }
+
+    public boolean tryAcquirePermission() {
+        if (state == State.CLOSED) {
+            return true;
+        }
+
+        synchronized (this) {
+            if (state == State.OPEN && System.nanoTime() - openedAt >= openDurationNanos) {
+                state = State.HALF_OPEN;
+                probeInFlight = false;
+            }
+            if (state == State.HALF_OPEN && !probeInFlight) {
+                probeInFlight = true;
+                return true;
+            }
+            return state == State.CLOSED;
+        }
+    }
+
+    public void onSuccess() {
+        consecutiveFailures.set(0);
+        if (state != State.CLOSED) {
+            synchronized (this) {
+                state = State.CLOSED;
+                probeInFlight = false;
+            }
+        }
+    }
+
+    public void onFailure() {
+        if (state == State.HALF_OPEN || consecutiveFailures.incrementAndGet() >= failureThreshold) {
+            synchronized (this) {
+                state = State.OPEN;
+                openedAt = System.nanoTime();
+                probeInFlight = false;
+            }
+        }
+    }
+
+    public State getState() {
+        return state;
+    }
+}
@@ -0,0 +1,97 @@
+package com.ecommerce.orderservice.client;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free request counters and a fixed-bucket latency histogram for an HTTP client.
+ */
+public class ClientMetrics {
+
+    // Upper bounds of the latency buckets in milliseconds, the last bucket is open-ended
+    private static final long[] BUCKET_BOUNDS_MS = {5, 10, 25, 50, 100, 250, 500, 1000, 2500, 5000};
+
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder successes = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+    private final LongAdder retries = new LongAdder();
+    private final LongAdder circuitRejections = new LongAdder();
+    private final LongAdder bulkheadRejections = new LongAdder();
+    private final LongAdder totalLatencyNanos = new LongAdder();
+    private final AtomicLong maxLatencyNanos = new AtomicLong();
+    private final AtomicLongArray latencyBuckets = new AtomicLongArray(BUCKET_BOUNDS_MS.length + 1);
+
+    public void recordCall(long latencyNanos, boolean success) {
+        requests.increment();
+        if (success) {
+            successes.increment();
+        } else {
+            failures.increment();
+        }
+        totalLatencyNanos.add(latencyNanos);
+        maxLatencyNanos.accumulateAndGet(latencyNanos, Math::max);
+        latencyBuckets.incrementAndGet(bucketOf(TimeUnit.NANOSECONDS.toMillis(latencyNanos)));
+    }
+
+    public void recordRetry() {
+        retries.increment();
+    }
+
+    public void recordCircuitRejection() {
+        circuitRejections.increment();
+    }
+
+    public void recordBulkheadRejection() {
+        bulkheadRejections.increment();
+    }
+
+    public Map<String, Object> snapshot() {
+        long calls = requests.sum();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("requests", calls);
+        stats.put("successes", successes.sum());
+        stats.put("failures", failures.sum());
+        stats.put("retries", retries.sum());
+        stats.put("circuitRejections", circuitRejections.sum());
+        stats.put("bulkheadRejections", bulkheadRejections.sum());
+        stats.put("avgLatencyMs", calls == 0 ? 0.0 : totalLatencyNanos.sum() / 1_000_000.0 / calls);
+        stats.put("maxLatencyMs", TimeUnit.NANOSECONDS.toMillis(maxLatencyNanos.get()));
+        stats.put("p50LatencyMs", percentile(0.50));
+        stats.put("p99LatencyMs", percentile(0.99));
+        return stats;
+    }
+
+    // Upper bound of the bucket holding the given percentile, -1 when above the last bound
+    private long percentile(double quantile) {
+        long total = 0;
+        for (int i = 0; i < latencyBuckets.length(); i++) {
+            total += latencyBuckets.get(i);
+        }
+        if (total == 0) {
+            return 0;
+        }
+
+        long rank = (long) Math.ceil(total * quantile);
+        long seen = 0;
+        for (int i = 0; i < BUCKET_BOUNDS_MS.length; i++) {
+            seen += latencyBuckets.get(i);
+            if (seen >= rank) {
+                return BUCKET_BOUNDS_MS[i];
+            }
+        }
+        return -1;
+    }
+
+    private static int bucketOf(long latencyMs) {
+        for (int i = 0; i < BUCKET_BOUNDS_MS.length; i++) {
+            if (latencyMs <= BUCKET_BOUNDS_MS[i]) {
+                return i;
+            }
+        }
+        return BUCKET_BOUNDS_MS.length;
+    }
+}
@@ -0,0 +1,27 @@
+package com.ecommerce.orderservice.client;
+
+/**
+ * A downstream service answered with a client error (4xx) or 501 Not Implemented.
+ */
+public class RemoteCallException extends RuntimeException {
+
+    private final int statusCode;
+
+    public RemoteCallException(int statusCode, String message) {
+        super(message);
+        this.statusCode = statusCode;
+    }
+
+    public int getStatusCode() {
+        return statusCode;
+    }
+
+    public boolean isNotFound() {
+        return statusCode == 404;
+    }
+
+    // The endpoint itself is missing or not supported by this version of the service
+    public boolean isUnsupported() {
+        return statusCode == 404 || statusCode == 405 || statusCode == 501;
+    }
+}
@@ -0,0 +1,60 @@
+package com.ecommerce.orderservice.client;
+
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * One downstream base URL with its own bulkhead and circuit breaker.
+ * The bulkhead caps concurrent requests, and so pooled connections, per route.
+ */
+public class ServiceInstance {
+
+    private final String baseUrl;
+    private final int maxConcurrent;
+    private final Semaphore bulkhead;
+    private final CircuitBreaker circuitBreaker;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger peakInFlight = new AtomicInteger();
+
+    public ServiceInstance(String baseUrl, int maxConcurrent, CircuitBreaker circuitBreaker) {
+        this.baseUrl = baseUrl.endsWith("/") ? baseUrl.substring(0, baseUrl.length() - 1) : baseUrl;
+        this.maxConcurrent = maxConcurrent;
+        this.bulkhead = new Semaphore(maxConcurrent);
+        this.circuitBreaker = circuitBreaker;
+    }
+
+    public boolean tryAcquire(Duration maxWait) throws InterruptedException {
+        if (!bulkhead.tryAcquire(maxWait.toNanos(), TimeUnit.NANOSECONDS)) {
+            return false;
+        }
+        peakInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+        return true;
+    }
+
+    public void release() {
+        inFlight.decrementAndGet();
+        bulkhead.release();
+    }
+
+    public String getBaseUrl() {
+        return baseUrl;
+    }
+
+    public int getMaxConcurrent() {
+        return maxConcurrent;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    public int getPeakInFlight() {
+        return peakInFlight.get();
+    }
+
+    public CircuitBreaker getCircuitBreaker() {
+        return circuitBreaker;
+    }
+}
@@ -0,0 +1,42 @@
+package com.ecommerce.orderservice.config;
+
+import com.ecommerce.orderservice.service.ProductSnapshotCache;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Subscribes to product change notifications published by product-service and drops
+ * the matching local snapshots. Without it snapshots simply age out by TTL.
+ */
+@Configuration
+@ConditionalOnProperty(value = "product-cache.push-invalidation.enabled", havingValue = "true")
+@Slf4j
+public class ProductCacheInvalidationConfig {
+
+    @Bean
+    public RedisMessageListenerContainer productInvalidationListener(
+            RedisConnectionFactory connectionFactory,
+            ProductSnapshotCache productSnapshotCache,
+            @Value("${product-cache.push-invalidation.channel:product-updates}") String channel) {
+
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        container.addMessageListener((message, pattern) -> {
+            String body = new String(message.getBody(), StandardCharsets.UTF_8);
+            try {
+                productSnapshotCache.invalidate(Long.valueOf(body));
+            } catch (NumberFormatException e) {
+                log.warn("Ignoring malformed product invalidation: {}", body);
+            }
+        }, new ChannelTopic(channel));
+        return container;
+    }
+}
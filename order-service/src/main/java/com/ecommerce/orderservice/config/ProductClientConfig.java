@@ -0,0 +1,52 @@
+package com.ecommerce.orderservice.config;
+
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.web.client.RestTemplate;
+
+import java.time.Duration;
+import java.util.List;
+
+@Configuration
+public class ProductClientConfig {
+
+    @Bean
+    public RestTemplate productRestTemplate(
+            @Value("${product-service.client.connect-timeout:PT1S}") Duration connectTimeout,
+            @Value("${product-service.client.read-timeout:PT2S}") Duration readTimeout,
+            @Value("${product-service.client.keep-alive:PT30S}") Duration keepAlive,
+            @Value("${product-service.client.max-connections-per-route:50}") int maxConnectionsPerRoute,
+            @Value("${product-service.urls:http://localhost:8082}") List<String> baseUrls) {
+
+        // Keep-alive connections pooled per route, sized like the per-instance bulkhead; idle ones
+        // are closed before product-service would drop them under a request
+        PoolingHttpClientConnectionManager connectionManager = PoolingHttpClientConnectionManagerBuilder.create()
+                .setMaxConnPerRoute(maxConnectionsPerRoute)
+                .setMaxConnTotal(maxConnectionsPerRoute * baseUrls.size())
+                .setDefaultConnectionConfig(ConnectionConfig.custom()
+                        .setConnectTimeout(Timeout.of(connectTimeout))
+                        .setSocketTimeout(Timeout.of(readTimeout))
+                        .build())
+                .build();
+
+        CloseableHttpClient httpClient = HttpClients.custom()
+                .setConnectionManager(connectionManager)
+                .evictIdleConnections(TimeValue.of(keepAlive))
+                .evictExpiredConnections()
+                .build();
+
+        HttpComponentsClientHttpRequestFactory requestFactory = new HttpComponentsClientHttpRequestFactory(httpClient);
+        requestFactory.setReadTimeout(readTimeout);
+
+        return new RestTemplate(requestFactory);
+    }
+}
@@ -0,0 +1,51 @@
+package com.ecommerce.orderservice.config;
+
+import com.ecommerce.security.JwtPrincipal;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.util.Map;
+
+/**
+ * Rejects requests whose {@code {userId}} path variable is not the user of the bearer token,
+ * so carts and order histories can only be read and changed by their owner or an admin.
+ */
+@Slf4j
+public class UserOwnershipInterceptor implements HandlerInterceptor {
+
+    private static final String USER_ID = "userId";
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler)
+            throws Exception {
+        Map<String, String> variables =
+                (Map<String, String>) request.getAttribute(HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE);
+        if (variables == null || !variables.containsKey(USER_ID)) {
+            return true;
+        }
+
+        JwtPrincipal principal = JwtPrincipal.from(request);
+        Long userId;
+        try {
+            userId = Long.valueOf(variables.get(USER_ID));
+        } catch (NumberFormatException e) {
+            // Left to the controller's own parameter binding
+            return true;
+        }
+        if (principal != null && principal.canActFor(userId)) {
+            return true;
+        }
+
+        log.warn("User {} denied access to {} {}", principal != null ? principal.userId() : null,
+                request.getMethod(), request.getRequestURI());
+        response.setStatus(HttpServletResponse.SC_FORBIDDEN);
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.getWriter().write("{\"error\":\"Access denied\"}");
+        return false;
+    }
+}
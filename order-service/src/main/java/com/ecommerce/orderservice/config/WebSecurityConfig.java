@@ -0,0 +1,16 @@
+package com.ecommerce.orderservice.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+// Token verification and @RequiresRole come from security-common; ownership is checked here
+@Configuration
+public class WebSecurityConfig implements WebMvcConfigurer {
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new UserOwnershipInterceptor())
+                .addPathPatterns("/api/cart/**", "/api/orders/user/**");
+    }
+}
@@ -0,0 +1,101 @@
+package com.ecommerce.orderservice.controller;
+
+import com.ecommerce.orderservice.dto.SalesRollupResponse;
+import com.ecommerce.orderservice.entity.SalesRollup.Dimension;
+import com.ecommerce.orderservice.entity.SalesRollup.Granularity;
+import com.ecommerce.orderservice.service.CoPurchaseService;
+import com.ecommerce.orderservice.service.SalesRollupService;
+import com.ecommerce.security.JwtPrincipal;
+import com.ecommerce.security.RequiresRole;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/analytics")
+@RequiredArgsConstructor
+@Slf4j
+@CrossOrigin(origins = "*")
+public class AnalyticsController {
+
+    private final SalesRollupService salesRollupService;
+    private final CoPurchaseService coPurchaseService;
+
+    @RequiresRole(JwtPrincipal.ROLE_ADMIN)
+    @GetMapping("/sales")
+    public ResponseEntity<?> getSalesSeries(
+            @RequestParam(defaultValue = "DAY") Granularity granularity,
+            @RequestParam(defaultValue = "TOTAL") Dimension dimension,
+            @RequestParam(required = false) Long id,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        try {
+            if (dimension != Dimension.TOTAL && id == null) {
+                throw new RuntimeException("An id is required for the " + dimension + " dimension");
+            }
+            List<SalesRollupResponse> series = salesRollupService.getSeries(granularity, dimension, id, from, to);
+            return ResponseEntity.ok(series);
+        } catch (Exception e) {
+            log.error("Error getting sales series: {}", e.getMessage());
+            Map<String, String> error = new HashMap<>();
+            error.put("error", e.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
+        }
+    }
+
+    @RequiresRole(JwtPrincipal.ROLE_ADMIN)
+    @GetMapping("/sales/top")
+    public ResponseEntity<?> getTopSellers(
+            @RequestParam(defaultValue = "PRODUCT") Dimension dimension,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "10") int limit) {
+        try {
+            return ResponseEntity.ok(salesRollupService.getTop(dimension, from, to, Math.min(Math.max(limit, 1), 100)));
+        } catch (Exception e) {
+            log.error("Error getting top sellers: {}", e.getMessage());
+            Map<String, String> error = new HashMap<>();
+            error.put("error", e.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
+        }
+    }
+
+    @RequiresRole(JwtPrincipal.ROLE_ADMIN)
+    @PostMapping("/sales/rebuild")
+    public ResponseEntity<?> rebuildRollups(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        try {
+            log.info("Sales rollup rebuild requested for {}..{}", from, to);
+            salesRollupService.rebuild(from, to);
+            return ResponseEntity.accepted().build();
+        } catch (Exception e) {
+            log.error("Error starting rollup rebuild: {}", e.getMessage());
+            Map<String, String> error = new HashMap<>();
+            error.put("error", e.getMessage());
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(error);
+        }
+    }
+
+    @GetMapping("/products/{productId}/related")
+    public ResponseEntity<?> getRelatedProducts(@PathVariable Long productId,
+                                                @RequestParam(defaultValue = "10") int limit) {
+        try {
+            return ResponseEntity.ok(coPurchaseService.getRelatedProducts(productId, Math.min(Math.max(limit, 1), 50)));
+        } catch (Exception e) {
+            log.error("Error getting related products for {}: {}", productId, e.getMessage());
+            Map<String, String> error = new HashMap<>();
+            error.put("error", e.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
+        }
+    }
+}
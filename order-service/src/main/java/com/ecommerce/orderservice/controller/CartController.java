@@ -2,6 +2,7 @@ package com.ecommerce.orderservice.controller;
 
 import com.ecommerce.orderservice.dto.CartItemRequest;
 import com.ecommerce.orderservice.dto.CartResponse;
+import com.ecommerce.orderservice.dto.CheckoutValidationResponse;
 import com.ecommerce.orderservice.service.CartService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
@@ -11,6 +12,7 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 @RestController
@@ -81,6 +83,35 @@ public class CartController {
         }
     }
 
+    @DeleteMapping("/{userId}/items")
+    public ResponseEntity<?> removeItemsFromCart(@PathVariable Long userId,
+                                                 @RequestParam List<Long> itemIds) {
+        try {
+            log.info("Remove {} items from cart - User: {}", itemIds.size(), userId);
+            CartResponse response = cartService.removeItemsFromCart(userId, itemIds);
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            log.error("Error removing items from cart: {}", e.getMessage());
+            Map<String, String> error = new HashMap<>();
+            error.put("error", e.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
+        }
+    }
+
+    @PostMapping("/{userId}/validate")
+    public ResponseEntity<?> validateCart(@PathVariable Long userId) {
+        try {
+            log.info("Validate cart - User: {}", userId);
+            CheckoutValidationResponse response = cartService.validateCart(userId);
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            log.error("Error validating cart: {}", e.getMessage());
+            Map<String, String> error = new HashMap<>();
+            error.put("error", e.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
+        }
+    }
+
     @DeleteMapping("/{userId}")
     public ResponseEntity<?> clearCart(@PathVariable Long userId) {
         try {
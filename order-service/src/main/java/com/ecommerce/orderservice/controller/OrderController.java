@@ -1,20 +1,44 @@
 package com.ecommerce.orderservice.controller;
 
+import com.ecommerce.orderservice.dto.BulkStatusUpdateRequest;
+import com.ecommerce.orderservice.dto.BulkStatusUpdateResponse;
+import com.ecommerce.orderservice.dto.OrderIntakeStatusResponse;
 import com.ecommerce.orderservice.dto.OrderRequest;
 import com.ecommerce.orderservice.dto.OrderResponse;
+import com.ecommerce.orderservice.dto.OrderSummaryResponse;
 import com.ecommerce.orderservice.entity.OrderStatus;
+import com.ecommerce.orderservice.service.CheckoutValidationException;
+import com.ecommerce.orderservice.service.IdempotencyConflictException;
+import com.ecommerce.orderservice.service.IntakeRejectedException;
+import com.ecommerce.orderservice.service.OrderExportService;
+import com.ecommerce.orderservice.service.OrderExportService.ExportRequest;
+import com.ecommerce.orderservice.service.OrderExportService.Format;
+import com.ecommerce.orderservice.service.OrderQueryService;
 import com.ecommerce.orderservice.service.OrderService;
+import com.ecommerce.security.JwtPrincipal;
+import com.ecommerce.security.RequiresRole;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.WebAsyncTask;
 
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -26,13 +50,43 @@ import java.util.Map;
 public class OrderController {
 
     private final OrderService orderService;
+    private final OrderQueryService orderQueryService;
+    private final OrderExportService orderExportService;
+
+    @Value("${orders.export.timeout:PT1H}")
+    private Duration exportTimeout;
 
     @PostMapping
-    public ResponseEntity<?> createOrder(@Valid @RequestBody OrderRequest request) {
+    public ResponseEntity<?> createOrder(@Valid @RequestBody OrderRequest request,
+                                         @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
+                                         HttpServletRequest httpRequest) {
+        if (!canActFor(httpRequest, request.getUserId())) {
+            return forbidden();
+        }
         try {
             log.info("Create order request - User: {}", request.getUserId());
-            OrderResponse response = orderService.createOrder(request);
+            OrderResponse response = orderService.createOrder(request, idempotencyKey);
+            if (orderService.isAsyncIntakeEnabled()) {
+                return ResponseEntity.accepted()
+                        .location(URI.create("/api/orders/intake/" + response.getId()))
+                        .body(response);
+            }
             return ResponseEntity.status(HttpStatus.CREATED).body(response);
+        } catch (IntakeRejectedException e) {
+            log.warn("Order intake full, rejecting order for user {}", request.getUserId());
+            Map<String, String> error = new HashMap<>();
+            error.put("error", e.getMessage());
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header(HttpHeaders.RETRY_AFTER, String.valueOf(Math.max(1, e.getRetryAfter().toSeconds())))
+                    .body(error);
+        } catch (CheckoutValidationException e) {
+            log.warn("Checkout refused for user {}: {}", request.getUserId(), e.getMessage());
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getValidation());
+        } catch (IdempotencyConflictException e) {
+            log.warn("Idempotency conflict for user {}: {}", request.getUserId(), e.getMessage());
+            Map<String, String> error = new HashMap<>();
+            error.put("error", e.getMessage());
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(error);
         } catch (Exception e) {
             log.error("Error creating order: {}", e.getMessage());
             Map<String, String> error = new HashMap<>();
@@ -41,10 +95,63 @@ public class OrderController {
         }
     }
 
+    // Only the export gets the long async timeout; other async requests keep the default
+    @RequiresRole(JwtPrincipal.ROLE_ADMIN)
+    @GetMapping("/export")
+    public WebAsyncTask<ResponseEntity<?>> exportOrders(
+            @RequestParam(defaultValue = "NDJSON") Format format,
+            @RequestParam(required = false) OrderStatus status,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) String checkpoint,
+            HttpServletResponse httpResponse) {
+        ExportRequest request;
+        try {
+            request = orderExportService.prepare(format, status, from, to, checkpoint);
+        } catch (Exception e) {
+            log.error("Error starting order export: {}", e.getMessage());
+            Map<String, String> error = new HashMap<>();
+            error.put("error", e.getMessage());
+            return new WebAsyncTask<>(() -> ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error));
+        }
+
+        log.info("Order export requested - format: {}, status: {}, from: {}, to: {}, after order: {}",
+                format, request.status(), request.from(), request.to(), request.afterOrderId());
+        return new WebAsyncTask<>(exportTimeout.toMillis(), () -> {
+            httpResponse.setContentType((format == Format.CSV
+                    ? new MediaType("text", "csv", StandardCharsets.UTF_8)
+                    : new MediaType("application", "x-ndjson")).toString());
+            httpResponse.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                    "attachment; filename=orders." + format.name().toLowerCase());
+            orderExportService.export(request, httpResponse.getOutputStream());
+            // Already written to the response
+            return null;
+        });
+    }
+
+    @GetMapping("/intake/{orderId}")
+    public ResponseEntity<?> getIntakeStatus(@PathVariable Long orderId, HttpServletRequest httpRequest) {
+        try {
+            OrderIntakeStatusResponse response = orderService.getIntakeStatus(orderId);
+            if (!canActFor(httpRequest, response.getUserId())) {
+                return forbidden();
+            }
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            log.error("Error fetching intake status: {}", e.getMessage());
+            Map<String, String> error = new HashMap<>();
+            error.put("error", e.getMessage());
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(error);
+        }
+    }
+
     @GetMapping("/{orderId}")
-    public ResponseEntity<?> getOrderById(@PathVariable Long orderId) {
+    public ResponseEntity<?> getOrderById(@PathVariable Long orderId, HttpServletRequest httpRequest) {
         try {
-            OrderResponse response = orderService.getOrderById(orderId);
+            OrderResponse response = orderQueryService.getOrderById(orderId);
+            if (!canActFor(httpRequest, response.getUserId())) {
+                return forbidden();
+            }
             return ResponseEntity.ok(response);
         } catch (Exception e) {
             log.error("Error fetching order: {}", e.getMessage());
@@ -54,9 +161,11 @@ public class OrderController {
         }
     }
 
+    // Orders moved to the archive (orders.archive.retention) are only listed with includeArchived=true
     @GetMapping("/user/{userId}")
     public ResponseEntity<Page<OrderResponse>> getUserOrders(
             @PathVariable Long userId,
+            @RequestParam(defaultValue = "false") boolean includeArchived,
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size,
             @RequestParam(defaultValue = "createdAt") String sortBy,
@@ -66,13 +175,53 @@ public class OrderController {
                 Sort.by(sortBy).descending() : Sort.by(sortBy).ascending();
 
         Pageable pageable = PageRequest.of(page, size, sort);
-        Page<OrderResponse> orders = orderService.getUserOrders(userId, pageable);
+        Page<OrderResponse> orders = orderQueryService.getUserOrders(userId, includeArchived, pageable);
 
         return ResponseEntity.ok(orders);
     }
 
+    @GetMapping("/user/{userId}/summaries")
+    public ResponseEntity<Page<OrderSummaryResponse>> getUserOrderSummaries(
+            @PathVariable Long userId,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "createdAt") String sortBy,
+            @RequestParam(defaultValue = "DESC") String sortDir) {
+
+        Sort sort = sortDir.equalsIgnoreCase("DESC") ?
+                Sort.by(sortBy).descending() : Sort.by(sortBy).ascending();
+
+        Pageable pageable = PageRequest.of(page, size, sort);
+        Page<OrderSummaryResponse> orders = orderQueryService.getUserOrderSummaries(userId, pageable);
+
+        return ResponseEntity.ok(orders);
+    }
+
+    @RequiresRole(JwtPrincipal.ROLE_ADMIN)
+    @GetMapping("/summaries")
+    public ResponseEntity<Page<OrderSummaryResponse>> getAllOrderSummaries(
+            @RequestParam(required = false) OrderStatus status,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "createdAt") String sortBy,
+            @RequestParam(defaultValue = "DESC") String sortDir) {
+
+        Sort sort = sortDir.equalsIgnoreCase("DESC") ?
+                Sort.by(sortBy).descending() : Sort.by(sortBy).ascending();
+
+        Pageable pageable = PageRequest.of(page, size, sort);
+        Page<OrderSummaryResponse> orders = orderQueryService.getAllOrderSummaries(status, pageable);
+
+        return ResponseEntity.ok(orders);
+    }
+
+    @RequiresRole(JwtPrincipal.ROLE_ADMIN)
     @GetMapping
     public ResponseEntity<Page<OrderResponse>> getAllOrders(
+            @RequestParam(required = false) OrderStatus status,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(defaultValue = "false") boolean includeArchived,
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size,
             @RequestParam(defaultValue = "createdAt") String sortBy,
@@ -82,11 +231,27 @@ public class OrderController {
                 Sort.by(sortBy).descending() : Sort.by(sortBy).ascending();
 
         Pageable pageable = PageRequest.of(page, size, sort);
-        Page<OrderResponse> orders = orderService.getAllOrders(pageable);
+        Page<OrderResponse> orders = orderQueryService.getAllOrders(status, from, to, includeArchived, pageable);
 
         return ResponseEntity.ok(orders);
     }
 
+    @RequiresRole(JwtPrincipal.ROLE_ADMIN)
+    @PatchMapping("/status")
+    public ResponseEntity<?> updateOrderStatuses(@Valid @RequestBody BulkStatusUpdateRequest request) {
+        try {
+            log.info("Bulk update order status - Orders: {}, Status: {}", request.getOrderIds().size(), request.getStatus());
+            BulkStatusUpdateResponse response = orderService.updateOrderStatuses(request);
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            log.error("Error updating order statuses: {}", e.getMessage());
+            Map<String, String> error = new HashMap<>();
+            error.put("error", e.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
+        }
+    }
+
+    @RequiresRole(JwtPrincipal.ROLE_ADMIN)
     @PatchMapping("/{orderId}/status")
     public ResponseEntity<?> updateOrderStatus(@PathVariable Long orderId,
                                                @RequestParam OrderStatus status) {
@@ -103,9 +268,14 @@ public class OrderController {
     }
 
     @DeleteMapping("/{orderId}")
-    public ResponseEntity<?> cancelOrder(@PathVariable Long orderId) {
+    public ResponseEntity<?> cancelOrder(@PathVariable Long orderId, HttpServletRequest httpRequest) {
         try {
             log.info("Cancel order - Order: {}", orderId);
+            JwtPrincipal principal = JwtPrincipal.from(httpRequest);
+            if (principal == null
+                    || !principal.isAdmin() && !principal.canActFor(orderQueryService.getOrderById(orderId).getUserId())) {
+                return forbidden();
+            }
             orderService.cancelOrder(orderId);
             Map<String, String> response = new HashMap<>();
             response.put("message", "Order cancelled successfully");
@@ -125,4 +295,16 @@ public class OrderController {
         response.put("service", "order-service");
         return ResponseEntity.ok(response);
     }
-}
\ No newline at end of file
+
+    // Orders belong to the token's user; admins may act on any order
+    private boolean canActFor(HttpServletRequest httpRequest, Long userId) {
+        JwtPrincipal principal = JwtPrincipal.from(httpRequest);
+        return principal != null && principal.canActFor(userId);
+    }
+
+    private ResponseEntity<Map<String, String>> forbidden() {
+        Map<String, String> error = new HashMap<>();
+        error.put("error", "Access denied");
+        return ResponseEntity.status(HttpStatus.FORBIDDEN).body(error);
+    }
+}
@@ -0,0 +1,58 @@
+package com.ecommerce.orderservice.controller;
+
+import com.ecommerce.orderservice.service.CartSweeper;
+import com.ecommerce.orderservice.service.CoPurchaseService;
+import com.ecommerce.orderservice.service.OrderIntakePipeline;
+import com.ecommerce.orderservice.service.ProductClientService;
+import com.ecommerce.orderservice.service.SalesRollupService;
+import com.ecommerce.security.JwtPrincipal;
+import com.ecommerce.security.RequiresRole;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/stats")
+@RequiredArgsConstructor
+@CrossOrigin(origins = "*")
+@RequiresRole(JwtPrincipal.ROLE_ADMIN)
+public class StatsController {
+
+    private final ProductClientService productClientService;
+    private final OrderIntakePipeline orderIntakePipeline;
+    private final SalesRollupService salesRollupService;
+    private final CoPurchaseService coPurchaseService;
+    private final CartSweeper cartSweeper;
+
+    @GetMapping("/product-client")
+    public ResponseEntity<Map<String, Object>> productClientStats() {
+        return ResponseEntity.ok(productClientService.getStats());
+    }
+
+    @GetMapping("/product-cache")
+    public ResponseEntity<Map<String, Object>> productCacheStats() {
+        return ResponseEntity.ok(productClientService.getCacheStats());
+    }
+
+    @GetMapping("/order-intake")
+    public ResponseEntity<Map<String, Object>> orderIntakeStats() {
+        return ResponseEntity.ok(orderIntakePipeline.getStats());
+    }
+
+    @GetMapping("/sales-rollups")
+    public ResponseEntity<Map<String, Object>> salesRollupStats() {
+        return ResponseEntity.ok(salesRollupService.getStats());
+    }
+
+    @GetMapping("/co-purchase")
+    public ResponseEntity<Map<String, Object>> coPurchaseStats() {
+        return ResponseEntity.ok(coPurchaseService.getStats());
+    }
+
+    @GetMapping("/cart-sweeper")
+    public ResponseEntity<Map<String, Object>> cartSweeperStats() {
+        return ResponseEntity.ok(cartSweeper.getStats());
+    }
+}
@@ -0,0 +1,27 @@
+package com.ecommerce.orderservice.dto;
+
+import com.ecommerce.orderservice.entity.OrderStatus;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkStatusUpdateRequest {
+
+    @NotEmpty(message = "Order IDs are required")
+    private List<Long> orderIds;
+
+    @NotNull(message = "Status is required")
+    private OrderStatus status;
+
+    // Optional orderId -> version the caller last saw; those orders only change if it still matches
+    private Map<Long, Long> expectedVersions = new HashMap<>();
+}
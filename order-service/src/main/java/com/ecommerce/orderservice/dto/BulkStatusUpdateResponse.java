@@ -0,0 +1,24 @@
+package com.ecommerce.orderservice.dto;
+
+import com.ecommerce.orderservice.entity.OrderStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BulkStatusUpdateResponse {
+
+    private OrderStatus status;
+    private int updated;
+    private int rejected;
+
+    @Builder.Default
+    private List<OrderStatusOutcome> outcomes = new ArrayList<>();
+}
@@ -0,0 +1,30 @@
+package com.ecommerce.orderservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CheckoutIssueResponse {
+
+    public enum IssueType {
+        PRICE_CHANGED,
+        UNAVAILABLE,
+        INACTIVE,
+        INSUFFICIENT_STOCK
+    }
+
+    private Long productId;
+    private String productName;
+    private IssueType issue;
+    private BigDecimal previousPrice;
+    private BigDecimal currentPrice;
+    private Integer requestedQuantity;
+    private Integer availableStock;
+}
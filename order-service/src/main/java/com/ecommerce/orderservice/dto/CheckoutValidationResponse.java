@@ -0,0 +1,25 @@
+package com.ecommerce.orderservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CheckoutValidationResponse {
+
+    private Long userId;
+    private boolean valid;
+
+    @Builder.Default
+    private List<CheckoutIssueResponse> issues = new ArrayList<>();
+
+    private BigDecimal totalAmount;
+}
@@ -0,0 +1,27 @@
+package com.ecommerce.orderservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class OrderIntakeStatusResponse {
+
+    public enum IntakeStatus {
+        ACCEPTED,
+        PERSISTED,
+        FAILED
+    }
+
+    private Long orderId;
+    private Long userId;
+    private IntakeStatus status;
+    private String error;
+    private LocalDateTime updatedAt;
+}
@@ -23,6 +23,7 @@ public class OrderResponse {
     private OrderStatus status;
     private String shippingAddress;
     private String notes;
+    private Long version;
 
     @Builder.Default
     private List<OrderItemResponse> orderItems = new ArrayList<>();
@@ -0,0 +1,29 @@
+package com.ecommerce.orderservice.dto;
+
+import com.ecommerce.orderservice.entity.OrderStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class OrderStatusOutcome {
+
+    public enum Result {
+        UPDATED,
+        UNCHANGED,
+        NOT_FOUND,
+        INVALID_TRANSITION,
+        VERSION_CONFLICT
+    }
+
+    private Long orderId;
+    private Result result;
+
+    // Status and version after the update, or as found when it was rejected
+    private OrderStatus status;
+    private Long version;
+}
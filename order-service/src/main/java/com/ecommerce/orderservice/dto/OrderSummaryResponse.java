@@ -0,0 +1,27 @@
+package com.ecommerce.orderservice.dto;
+
+import com.ecommerce.orderservice.entity.OrderStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+// Order list row without its items
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class OrderSummaryResponse {
+
+    private Long id;
+    private Long userId;
+    private BigDecimal totalAmount;
+    private OrderStatus status;
+    private Integer itemCount;
+    private String firstProductName;
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,17 @@
+package com.ecommerce.orderservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class RelatedProductResponse {
+
+    private Long productId;
+    // Number of orders that contained both products (may overestimate for rare pairs)
+    private Long orderCount;
+}
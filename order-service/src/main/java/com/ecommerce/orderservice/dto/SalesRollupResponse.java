@@ -0,0 +1,30 @@
+package com.ecommerce.orderservice.dto;
+
+import com.ecommerce.orderservice.entity.SalesRollup.Dimension;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+// One bucket of a sales series, or a total over a range when bucketStart is null
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class SalesRollupResponse {
+
+    private Dimension dimension;
+    private Long dimensionId;
+    private LocalDateTime bucketStart;
+    private BigDecimal revenue;
+    private Long units;
+    private Long orderCount;
+
+    // Range total, used by the top-N query
+    public SalesRollupResponse(Dimension dimension, Long dimensionId, BigDecimal revenue, Long units, Long orderCount) {
+        this(dimension, dimensionId, null, revenue, units, orderCount);
+    }
+}
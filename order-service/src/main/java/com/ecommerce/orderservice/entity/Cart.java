@@ -4,16 +4,25 @@ import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
+import org.hibernate.annotations.ColumnDefault;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
 
+import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 @Entity
-@Table(name = "carts")
+// updatedAt drives CartSweeper's search for empty and idle carts
+@Table(name = "carts", indexes = {
+        @Index(name = "idx_carts_updated_at", columnList = "updatedAt")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -21,7 +30,8 @@ import java.util.List;
 public class Cart {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "carts_seq")
+    @SequenceGenerator(name = "carts_seq", sequenceName = "carts_seq", initialValue = 50, allocationSize = 50)
     private Long id;
 
     @Column(nullable = false, unique = true)
@@ -31,6 +41,34 @@ public class Cart {
     @Builder.Default
     private List<CartItem> cartItems = new ArrayList<>();
 
+    // Denormalized totals, maintained by the helper methods below
+    @Column(nullable = false, precision = 12, scale = 2)
+    @ColumnDefault("0")
+    @Builder.Default
+    private BigDecimal totalAmount = BigDecimal.ZERO;
+
+    @Column(nullable = false)
+    @ColumnDefault("0")
+    @Builder.Default
+    private Integer totalItems = 0;
+
+    // Safety net for writers outside the per-user mutation lock, e.g. other instances
+    @Version
+    @Column(nullable = false)
+    @ColumnDefault("0")
+    private Long version;
+
+    // productId -> item, built on first lookup after load
+    @Transient
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    private Map<Long, CartItem> itemsByProductId;
+
+    @Transient
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    private Map<Long, CartItem> itemsById;
+
     @CreationTimestamp
     @Column(updatable = false)
     private LocalDateTime createdAt;
@@ -38,20 +76,77 @@ public class Cart {
     @UpdateTimestamp
     private LocalDateTime updatedAt;
 
+    // Item lookups and mutations go through these helpers so totals and the index stay in sync
+
+    public CartItem findItemByProductId(Long productId) {
+        return itemIndex().get(productId);
+    }
+
+    // New items only get their id on flush, so a miss rebuilds the id index once
+    public CartItem findItemById(Long itemId) {
+        CartItem item = itemsById != null ? itemsById.get(itemId) : null;
+        if (item == null || item.getCart() != this) {
+            itemsById = new HashMap<>(Math.max(16, cartItems.size() * 2));
+            for (CartItem candidate : cartItems) {
+                if (candidate.getId() != null) {
+                    itemsById.put(candidate.getId(), candidate);
+                }
+            }
+            item = itemsById.get(itemId);
+        }
+        return item;
+    }
+
     // Helper method to add cart item
     public void addCartItem(CartItem item) {
         cartItems.add(item);
         item.setCart(this);
+        itemIndex().put(item.getProductId(), item);
+        applyDelta(item.getPrice(), item.getQuantity());
     }
 
     // Helper method to remove cart item
     public void removeCartItem(CartItem item) {
         cartItems.remove(item);
         item.setCart(null);
+        itemIndex().remove(item.getProductId());
+        if (itemsById != null && item.getId() != null) {
+            itemsById.remove(item.getId());
+        }
+        applyDelta(item.getPrice(), -item.getQuantity());
+    }
+
+    public void changeItemQuantity(CartItem item, int quantity) {
+        applyDelta(item.getPrice(), quantity - item.getQuantity());
+        item.setQuantity(quantity);
+    }
+
+    public void repriceItem(CartItem item, BigDecimal price) {
+        totalAmount = totalAmount.add(price.subtract(item.getPrice()).multiply(BigDecimal.valueOf(item.getQuantity())));
+        item.setPrice(price);
     }
 
     // Clear all items
     public void clearItems() {
         cartItems.clear();
+        itemIndex().clear();
+        itemsById = null;
+        totalAmount = BigDecimal.ZERO;
+        totalItems = 0;
+    }
+
+    private void applyDelta(BigDecimal price, int quantityDelta) {
+        totalAmount = totalAmount.add(price.multiply(BigDecimal.valueOf(quantityDelta)));
+        totalItems = totalItems + quantityDelta;
+    }
+
+    private Map<Long, CartItem> itemIndex() {
+        if (itemsByProductId == null) {
+            itemsByProductId = new HashMap<>(Math.max(16, cartItems.size() * 2));
+            for (CartItem item : cartItems) {
+                itemsByProductId.put(item.getProductId(), item);
+            }
+        }
+        return itemsByProductId;
     }
-}
\ No newline at end of file
+}
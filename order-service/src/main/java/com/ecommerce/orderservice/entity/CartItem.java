@@ -9,7 +9,10 @@ import lombok.NoArgsConstructor;
 import java.math.BigDecimal;
 
 @Entity
-@Table(name = "cart_items")
+// One line per product per cart, so concurrent adds merge instead of duplicating
+@Table(name = "cart_items", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_cart_items_cart_product", columnNames = {"cart_id", "product_id"})
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -17,14 +20,15 @@ import java.math.BigDecimal;
 public class CartItem {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "cart_items_seq")
+    @SequenceGenerator(name = "cart_items_seq", sequenceName = "cart_items_seq", initialValue = 50, allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "cart_id", nullable = false)
     private Cart cart;
 
-    @Column(nullable = false)
+    @Column(name = "product_id", nullable = false)
     private Long productId;
 
     @Column(nullable = false, length = 200)
@@ -35,4 +39,7 @@ public class CartItem {
 
     @Column(nullable = false)
     private Integer quantity;
+
+    // Carried onto the order line for per-category reporting; null for items added before it existed
+    private Long categoryId;
 }
\ No newline at end of file
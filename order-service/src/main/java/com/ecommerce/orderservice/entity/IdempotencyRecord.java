@@ -0,0 +1,60 @@
+package com.ecommerce.orderservice.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+import org.springframework.data.domain.Persistable;
+
+import java.time.LocalDateTime;
+
+// Durable record of an Idempotency-Key that produced an order, written in the order's transaction
+@Entity
+@Table(name = "order_idempotency_keys",
+        indexes = @Index(name = "idx_order_idempotency_keys_expires_at", columnList = "expiresAt"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class IdempotencyRecord implements Persistable<String> {
+
+    // "<userId>:<Idempotency-Key>"
+    @Id
+    @Column(length = 300)
+    private String recordKey;
+
+    @Column(nullable = false)
+    private String requestFingerprint;
+
+    @Column(nullable = false)
+    private Long orderId;
+
+    @Column(nullable = false)
+    private LocalDateTime expiresAt;
+
+    // The key is assigned, so a duplicate must fail the insert instead of merging over the row
+    @Transient
+    @Builder.Default
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    private boolean newRecord = true;
+
+    @Override
+    public String getId() {
+        return recordKey;
+    }
+
+    @Override
+    public boolean isNew() {
+        return newRecord;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markNotNew() {
+        this.newRecord = false;
+    }
+}
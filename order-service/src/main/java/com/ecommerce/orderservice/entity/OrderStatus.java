@@ -1,10 +1,39 @@
 package com.ecommerce.orderservice.entity;
 
+import java.util.EnumSet;
+import java.util.Set;
+
 public enum OrderStatus {
     PENDING,
     CONFIRMED,
     PROCESSING,
     SHIPPED,
     DELIVERED,
-    CANCELLED
-}
\ No newline at end of file
+    CANCELLED;
+
+    // Statuses an order may move to from this one; DELIVERED and CANCELLED are final
+    public Set<OrderStatus> nextStatuses() {
+        return switch (this) {
+            case PENDING -> EnumSet.of(CONFIRMED, CANCELLED);
+            case CONFIRMED -> EnumSet.of(PROCESSING, CANCELLED);
+            case PROCESSING -> EnumSet.of(SHIPPED, CANCELLED);
+            case SHIPPED -> EnumSet.of(DELIVERED, CANCELLED);
+            case DELIVERED, CANCELLED -> EnumSet.noneOf(OrderStatus.class);
+        };
+    }
+
+    public boolean canTransitionTo(OrderStatus target) {
+        return nextStatuses().contains(target);
+    }
+
+    // Statuses an order must be in to move to this one
+    public Set<OrderStatus> previousStatuses() {
+        Set<OrderStatus> sources = EnumSet.noneOf(OrderStatus.class);
+        for (OrderStatus status : values()) {
+            if (status.canTransitionTo(this)) {
+                sources.add(status);
+            }
+        }
+        return sources;
+    }
+}
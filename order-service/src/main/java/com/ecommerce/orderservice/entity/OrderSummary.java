@@ -0,0 +1,93 @@
+package com.ecommerce.orderservice.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+import org.springframework.data.domain.Persistable;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Denormalized read model of an order for list pages and dashboards, one row per order.
+ * Written in the same transaction as the order itself; orders and order_items stay the source of truth.
+ */
+@Entity
+@Table(name = "order_summaries", indexes = {
+        @Index(name = "idx_order_summaries_user_created", columnList = "userId, createdAt"),
+        @Index(name = "idx_order_summaries_status_created", columnList = "status, createdAt")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class OrderSummary implements Persistable<Long> {
+
+    @Id
+    private Long orderId;
+
+    @Column(nullable = false)
+    private Long userId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private OrderStatus status;
+
+    @Column(nullable = false, precision = 10, scale = 2)
+    private BigDecimal totalAmount;
+
+    @Column(nullable = false)
+    private Integer itemCount;
+
+    @Column(length = 200)
+    private String firstProductName;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(nullable = false)
+    private LocalDateTime updatedAt;
+
+    // Ids are the order's, so tell Spring Data when to insert instead of merging
+    @Transient
+    @Builder.Default
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    private boolean newSummary = true;
+
+    public static OrderSummary of(Order order) {
+        List<OrderItem> items = order.getOrderItems();
+        LocalDateTime createdAt = order.getCreatedAt() != null ? order.getCreatedAt() : LocalDateTime.now();
+        return OrderSummary.builder()
+                .orderId(order.getId())
+                .userId(order.getUserId())
+                .status(order.getStatus())
+                .totalAmount(order.getTotalAmount())
+                .itemCount(items.size())
+                .firstProductName(items.isEmpty() ? null : items.get(0).getProductName())
+                .createdAt(createdAt)
+                .updatedAt(order.getUpdatedAt() != null ? order.getUpdatedAt() : createdAt)
+                .build();
+    }
+
+    @Override
+    public Long getId() {
+        return orderId;
+    }
+
+    @Override
+    public boolean isNew() {
+        return newSummary;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markNotNew() {
+        this.newSummary = false;
+    }
+}
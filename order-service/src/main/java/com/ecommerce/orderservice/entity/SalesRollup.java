@@ -0,0 +1,73 @@
+package com.ecommerce.orderservice.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Pre-aggregated sales for one time bucket and one dimension value, e.g. revenue of
+ * product 42 during the hour starting at 10:00. Only updated through {@code SalesRollupWriter}
+ * upserts; read through {@code SalesRollupRepository}.
+ */
+@Entity
+@Table(name = "sales_rollups")
+@IdClass(SalesRollup.Key.class)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class SalesRollup {
+
+    public enum Granularity {
+        HOUR,
+        DAY
+    }
+
+    public enum Dimension {
+        TOTAL,
+        PRODUCT,
+        CATEGORY
+    }
+
+    @Id
+    @Enumerated(EnumType.STRING)
+    @Column(length = 8)
+    private Granularity granularity;
+
+    @Id
+    @Enumerated(EnumType.STRING)
+    @Column(length = 16)
+    private Dimension dimension;
+
+    // Product or category id; 0 for TOTAL and for lines without a category
+    @Id
+    private Long dimensionId;
+
+    @Id
+    private LocalDateTime bucketStart;
+
+    @Column(nullable = false, precision = 14, scale = 2)
+    private BigDecimal revenue;
+
+    @Column(nullable = false)
+    private Long units;
+
+    @Column(nullable = false)
+    private Long orderCount;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private Granularity granularity;
+        private Dimension dimension;
+        private Long dimensionId;
+        private LocalDateTime bucketStart;
+    }
+}
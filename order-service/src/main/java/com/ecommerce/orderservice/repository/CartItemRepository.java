@@ -0,0 +1,27 @@
+package com.ecommerce.orderservice.repository;
+
+import com.ecommerce.orderservice.entity.CartItem;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+
+/**
+ * Set-based deletes of cart lines. Pending changes are flushed first and the persistence
+ * context is cleared afterwards, so no managed cart still holds a deleted line; carts loaded
+ * before the call are detached.
+ */
+@Repository
+public interface CartItemRepository extends JpaRepository<CartItem, Long> {
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("DELETE FROM CartItem i WHERE i.cart.id = :cartId")
+    int deleteByCartId(@Param("cartId") Long cartId);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("DELETE FROM CartItem i WHERE i.cart.id = :cartId AND i.id IN :itemIds")
+    int deleteByCartIdAndIdIn(@Param("cartId") Long cartId, @Param("itemIds") Collection<Long> itemIds);
+}
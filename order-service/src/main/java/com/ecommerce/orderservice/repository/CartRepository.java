@@ -2,8 +2,13 @@ package com.ecommerce.orderservice.repository;
 
 import com.ecommerce.orderservice.entity.Cart;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.Optional;
 
 @Repository
@@ -11,5 +16,28 @@ public interface CartRepository extends JpaRepository<Cart, Long> {
 
     Optional<Cart> findByUserId(Long userId);
 
+    @Query("SELECT c FROM Cart c LEFT JOIN FETCH c.cartItems WHERE c.userId = :userId")
+    Optional<Cart> findWithItemsByUserId(@Param("userId") Long userId);
+
     Boolean existsByUserId(Long userId);
+
+    @Query("SELECT c.id FROM Cart c WHERE c.userId = :userId")
+    Optional<Long> findIdByUserId(@Param("userId") Long userId);
+
+    // Row lock held until commit; serializes the write-behind flush with checkout's clear
+    @Query(value = "SELECT id FROM carts WHERE user_id = :userId FOR UPDATE", nativeQuery = true)
+    Optional<Long> lockIdByUserId(@Param("userId") Long userId);
+
+    // Writes totals computed by the caller; 0 rows means the cart changed since it was read
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Cart c SET c.totalAmount = :totalAmount, c.totalItems = :totalItems, " +
+            "c.version = c.version + 1, c.updatedAt = :now WHERE c.id = :cartId AND c.version = :version")
+    int updateTotals(@Param("cartId") Long cartId, @Param("totalAmount") BigDecimal totalAmount,
+                     @Param("totalItems") int totalItems, @Param("version") Long version,
+                     @Param("now") LocalDateTime now);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Cart c SET c.totalAmount = 0, c.totalItems = 0, c.version = c.version + 1, " +
+            "c.updatedAt = :now WHERE c.id = :cartId")
+    int resetTotals(@Param("cartId") Long cartId, @Param("now") LocalDateTime now);
 }
\ No newline at end of file
@@ -0,0 +1,35 @@
+package com.ecommerce.orderservice.repository;
+
+import com.ecommerce.orderservice.dto.ProductDTO;
+import com.ecommerce.orderservice.entity.Cart;
+
+import java.util.Collection;
+import java.util.Optional;
+
+/**
+ * Storage of active carts. Selected with {@code cart.store}: {@code jpa} (default) keeps
+ * carts in Postgres, {@code redis} keeps them in Redis hashes with write-behind to Postgres.
+ */
+public interface CartStore {
+
+    // Cart for the user, or an unsaved empty cart; never writes
+    Cart getCart(Long userId);
+
+    // Cart with its items loaded, if the user has one
+    Optional<Cart> findCart(Long userId);
+
+    Cart addItem(Long userId, ProductDTO product, int quantity);
+
+    Cart updateItemQuantity(Long userId, Long itemId, int quantity);
+
+    Cart removeItem(Long userId, Long itemId);
+
+    // Removes the given lines in one operation; unknown ids are ignored
+    Cart removeItems(Long userId, Collection<Long> itemIds);
+
+    // Persist item changes (e.g. re-pricing) made to a cart obtained from this store
+    Cart save(Cart cart);
+
+    // Set-based: the cart row stays, its lines go
+    void clear(Long userId);
+}
@@ -0,0 +1,56 @@
+package com.ecommerce.orderservice.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Array;
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * JDBC side of {@link com.ecommerce.orderservice.service.CartSweeper}. Callers provide the
+ * transaction; the selected carts stay locked until it ends, so a concurrent add either
+ * waits for the sweep or finds the cart gone and creates a new one.
+ */
+@Repository
+@RequiredArgsConstructor
+public class CartSweepRepository {
+
+    // Carts without lines untouched since the first cutoff, and any cart untouched since the second
+    private static final String LOCK_SWEEPABLE =
+            "SELECT c.id FROM carts c WHERE c.updated_at < ? " +
+                    "AND (c.updated_at < ? OR NOT EXISTS (SELECT 1 FROM cart_items i WHERE i.cart_id = c.id)) " +
+                    "ORDER BY c.updated_at LIMIT ? FOR UPDATE SKIP LOCKED";
+
+    private static final String DELETE_ITEMS = "DELETE FROM cart_items WHERE cart_id = ANY (?)";
+
+    private static final String DELETE_CARTS = "DELETE FROM carts WHERE id = ANY (?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public record SweepResult(int carts, int items) {
+    }
+
+    public List<Long> lockSweepableIds(LocalDateTime emptyCutoff, LocalDateTime idleCutoff, int limit) {
+        return jdbcTemplate.queryForList(LOCK_SWEEPABLE, Long.class,
+                Timestamp.valueOf(emptyCutoff), Timestamp.valueOf(idleCutoff), limit);
+    }
+
+    public SweepResult delete(List<Long> cartIds) {
+        int items = deleteByIds(DELETE_ITEMS, cartIds);
+        int carts = deleteByIds(DELETE_CARTS, cartIds);
+        return new SweepResult(carts, items);
+    }
+
+    private int deleteByIds(String sql, List<Long> ids) {
+        return jdbcTemplate.update(connection -> {
+            PreparedStatement ps = connection.prepareStatement(sql);
+            Array array = connection.createArrayOf("bigint", ids.toArray(Long[]::new));
+            ps.setArray(1, array);
+            return ps;
+        });
+    }
+}
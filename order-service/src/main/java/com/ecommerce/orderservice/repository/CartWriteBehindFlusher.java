@@ -0,0 +1,132 @@
+package com.ecommerce.orderservice.repository;
+
+import com.ecommerce.orderservice.entity.Cart;
+import com.ecommerce.orderservice.entity.CartItem;
+import com.ecommerce.orderservice.service.CartMutationExecutor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Periodically copies Redis carts that changed since the last run into the
+ * {@code carts}/{@code cart_items} tables, so Postgres keeps a recent snapshot of every
+ * active cart without sitting on the add-to-cart path.
+ * <p>
+ * A flush must never write back a cart that checkout has just cleared. It runs under the
+ * same per-user lock as cart mutations and checkout on this instance, and reads Redis only
+ * after taking the cart row lock, which a clear on another instance holds until it has
+ * deleted the hash and committed.
+ */
+@Component
+@ConditionalOnProperty(name = "cart.store", havingValue = "redis")
+@Slf4j
+public class CartWriteBehindFlusher {
+
+    private final RedisCartStore redisCartStore;
+    private final CartRepository cartRepository;
+    private final StringRedisTemplate redisTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final CartMutationExecutor cartMutationExecutor;
+    private final int batchSize;
+
+    public CartWriteBehindFlusher(RedisCartStore redisCartStore,
+                                  CartRepository cartRepository,
+                                  StringRedisTemplate redisTemplate,
+                                  TransactionTemplate transactionTemplate,
+                                  CartMutationExecutor cartMutationExecutor,
+                                  @Value("${cart.redis.flush-batch-size:200}") int batchSize) {
+        this.redisCartStore = redisCartStore;
+        this.cartRepository = cartRepository;
+        this.redisTemplate = redisTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.cartMutationExecutor = cartMutationExecutor;
+        this.batchSize = batchSize;
+    }
+
+    @Scheduled(fixedDelayString = "${cart.redis.flush-interval:PT1M}")
+    public void flush() {
+        int flushed = 0;
+        List<String> userIds;
+        do {
+            userIds = redisTemplate.opsForSet().pop(RedisCartStore.DIRTY_SET_KEY, batchSize);
+            if (userIds == null) {
+                break;
+            }
+            for (String userId : userIds) {
+                if (flushCart(Long.valueOf(userId))) {
+                    flushed++;
+                }
+            }
+        } while (userIds.size() == batchSize);
+
+        if (flushed > 0) {
+            log.info("Flushed {} cart(s) from Redis to the database", flushed);
+        }
+    }
+
+    private boolean flushCart(Long userId) {
+        try {
+            cartMutationExecutor.run(userId, () -> transactionTemplate.executeWithoutResult(status -> {
+                boolean stored = cartRepository.lockIdByUserId(userId).isPresent();
+
+                // Gone means checked out, or lost with Redis; either way the Postgres copy stands.
+                // A cart emptied by the user is still there, without lines, and empties the copy
+                Optional<Cart> redisCart = redisCartStore.findCachedCart(userId);
+                if (redisCart.isEmpty() || (!stored && redisCart.get().getCartItems().isEmpty())) {
+                    return;
+                }
+
+                Cart cart = stored
+                        ? cartRepository.findWithItemsByUserId(userId).orElseThrow()
+                        : Cart.builder()
+                        .userId(userId)
+                        .build();
+
+                // Merge line by line, so unchanged rows are left alone
+                Map<Long, CartItem> source = new HashMap<>();
+                redisCart.get().getCartItems().forEach(item -> source.put(item.getProductId(), item));
+
+                for (CartItem existing : new ArrayList<>(cart.getCartItems())) {
+                    CartItem current = source.remove(existing.getProductId());
+                    if (current == null) {
+                        cart.removeCartItem(existing);
+                    } else {
+                        existing.setProductName(current.getProductName());
+                        existing.setCategoryId(current.getCategoryId());
+                        cart.repriceItem(existing, current.getPrice());
+                        cart.changeItemQuantity(existing, current.getQuantity());
+                    }
+                }
+                source.values().forEach(item -> cart.addCartItem(CartItem.builder()
+                        .productId(item.getProductId())
+                        .productName(item.getProductName())
+                        .price(item.getPrice())
+                        .quantity(item.getQuantity())
+                        .categoryId(item.getCategoryId())
+                        .build()));
+                cartRepository.save(cart);
+
+                // A first flush has no row to lock; drop it if checkout cleared the cart meanwhile
+                if (!stored && !redisCartStore.exists(userId)) {
+                    status.setRollbackOnly();
+                }
+            }));
+            return true;
+        } catch (Exception e) {
+            // Leave it for the next run
+            log.warn("Failed to flush cart for user {}: {}", userId, e.getMessage());
+            redisTemplate.opsForSet().add(RedisCartStore.DIRTY_SET_KEY, userId.toString());
+            return false;
+        }
+    }
+}
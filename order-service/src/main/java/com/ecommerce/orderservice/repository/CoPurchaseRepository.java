@@ -0,0 +1,36 @@
+package com.ecommerce.orderservice.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reads stored orders as product id sets, used to replay the orders a co-purchase
+ * checkpoint does not cover yet.
+ */
+@Repository
+@RequiredArgsConstructor
+public class CoPurchaseRepository {
+
+    // Keyset over order ids so a batch never splits an order's lines
+    private static final String SELECT_ORDER_PRODUCTS =
+            "SELECT order_id, product_id FROM order_items " +
+                    "WHERE order_id IN (SELECT id FROM orders WHERE id > ? ORDER BY id LIMIT ?) " +
+                    "ORDER BY order_id";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    // Product ids of the next orderLimit orders after afterOrderId, in order id order
+    public Map<Long, List<Long>> findOrderProducts(long afterOrderId, int orderLimit) {
+        Map<Long, List<Long>> products = new LinkedHashMap<>();
+        jdbcTemplate.query(SELECT_ORDER_PRODUCTS, rs -> {
+            products.computeIfAbsent(rs.getLong("order_id"), id -> new ArrayList<>()).add(rs.getLong("product_id"));
+        }, afterOrderId, orderLimit);
+        return products;
+    }
+}
@@ -0,0 +1,141 @@
+package com.ecommerce.orderservice.repository;
+
+import com.ecommerce.orderservice.dto.ProductDTO;
+import com.ecommerce.orderservice.entity.Cart;
+import com.ecommerce.orderservice.entity.CartItem;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+
+@Component
+@ConditionalOnProperty(name = "cart.store", havingValue = "jpa", matchIfMissing = true)
+@RequiredArgsConstructor
+public class JpaCartStore implements CartStore {
+
+    private final CartRepository cartRepository;
+    private final CartItemRepository cartItemRepository;
+
+    // Viewing a cart never writes; the row is created by the first add
+    @Override
+    @Transactional(readOnly = true)
+    public Cart getCart(Long userId) {
+        return cartRepository.findWithItemsByUserId(userId)
+                .orElseGet(() -> Cart.builder()
+                        .userId(userId)
+                        .build());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<Cart> findCart(Long userId) {
+        return cartRepository.findWithItemsByUserId(userId);
+    }
+
+    @Override
+    @Transactional
+    public Cart addItem(Long userId, ProductDTO product, int quantity) {
+        // Get or create cart
+        Cart cart = cartRepository.findWithItemsByUserId(userId)
+                .orElseGet(() -> cartRepository.save(Cart.builder()
+                        .userId(userId)
+                        .build()));
+
+        // Check if product already in cart
+        CartItem existingItem = cart.findItemByProductId(product.getId());
+
+        if (existingItem != null) {
+            cart.changeItemQuantity(existingItem, existingItem.getQuantity() + quantity);
+        } else {
+            CartItem newItem = CartItem.builder()
+                    .productId(product.getId())
+                    .productName(product.getName())
+                    .price(product.getPrice())
+                    .quantity(quantity)
+                    .categoryId(product.getCategoryId())
+                    .build();
+            cart.addCartItem(newItem);
+        }
+
+        return cartRepository.save(cart);
+    }
+
+    @Override
+    @Transactional
+    public Cart updateItemQuantity(Long userId, Long itemId, int quantity) {
+        Cart cart = findExisting(userId);
+
+        CartItem item = cart.findItemById(itemId);
+        if (item == null) {
+            throw new RuntimeException("Cart item not found: " + itemId);
+        }
+
+        if (quantity <= 0) {
+            cart.removeCartItem(item);
+        } else {
+            cart.changeItemQuantity(item, quantity);
+        }
+
+        return cartRepository.save(cart);
+    }
+
+    @Override
+    @Transactional
+    public Cart removeItem(Long userId, Long itemId) {
+        return removeItems(userId, List.of(itemId));
+    }
+
+    /**
+     * One DELETE for all lines and one guarded UPDATE for the totals, instead of an orphan
+     * delete per line. The returned cart is detached and reflects the new state.
+     */
+    @Override
+    @Transactional
+    public Cart removeItems(Long userId, Collection<Long> itemIds) {
+        Cart cart = findExisting(userId);
+        List<CartItem> removed = itemIds.stream()
+                .map(cart::findItemById)
+                .filter(Objects::nonNull)
+                .distinct()
+                .toList();
+        if (removed.isEmpty()) {
+            return cart;
+        }
+
+        cartItemRepository.deleteByCartIdAndIdIn(cart.getId(), removed.stream().map(CartItem::getId).toList());
+        removed.forEach(cart::removeCartItem);
+        if (cartRepository.updateTotals(cart.getId(), cart.getTotalAmount(), cart.getTotalItems(),
+                cart.getVersion(), LocalDateTime.now()) == 0) {
+            throw new ObjectOptimisticLockingFailureException(Cart.class, cart.getId());
+        }
+        cart.setVersion(cart.getVersion() + 1);
+        return cart;
+    }
+
+    @Override
+    @Transactional
+    public Cart save(Cart cart) {
+        return cartRepository.save(cart);
+    }
+
+    @Override
+    @Transactional
+    public void clear(Long userId) {
+        Long cartId = cartRepository.findIdByUserId(userId)
+                .orElseThrow(() -> new RuntimeException("Cart not found for user: " + userId));
+        cartItemRepository.deleteByCartId(cartId);
+        cartRepository.resetTotals(cartId, LocalDateTime.now());
+    }
+
+    private Cart findExisting(Long userId) {
+        return cartRepository.findWithItemsByUserId(userId)
+                .orElseThrow(() -> new RuntimeException("Cart not found for user: " + userId));
+    }
+}
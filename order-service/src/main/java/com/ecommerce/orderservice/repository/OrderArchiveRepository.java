@@ -0,0 +1,263 @@
+package com.ecommerce.orderservice.repository;
+
+import com.ecommerce.orderservice.entity.Order;
+import com.ecommerce.orderservice.entity.OrderItem;
+import com.ecommerce.orderservice.entity.OrderStatus;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+
+import java.sql.DatabaseMetaData;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cold storage for finished orders, in {@code orders_archive}/{@code order_items_archive}
+ * (see {@code db/order-archive.sql}). Archived orders are read-only; they are reachable by id
+ * and through order lists that explicitly ask for them, which page over both tables at once.
+ * <p>
+ * Lookups work whenever the archive tables exist, whether or not this instance runs the
+ * archiving job; until they are created, lookups find nothing.
+ */
+@Repository
+@RequiredArgsConstructor
+public class OrderArchiveRepository {
+
+    private static final String SELECT_ORDER =
+            "SELECT id, user_id, total_amount, status, shipping_address, notes, created_at, updated_at " +
+                    "FROM orders_archive WHERE id = ?";
+
+    private static final String SELECT_ITEMS =
+            "SELECT id, product_id, product_name, price, quantity, subtotal, category_id " +
+                    "FROM order_items_archive WHERE order_id = ? ORDER BY id";
+
+    // Ids are locked so a concurrent run or a late status update cannot race the move
+    private static final String SELECT_ARCHIVABLE_IDS =
+            "SELECT id FROM orders WHERE status IN ('DELIVERED', 'CANCELLED') AND created_at < ? " +
+                    "ORDER BY created_at LIMIT ? FOR UPDATE SKIP LOCKED";
+
+    private static final String MOVE_ITEMS =
+            "WITH moved AS (DELETE FROM order_items WHERE order_id = ANY (?) " +
+                    "RETURNING id, order_id, product_id, product_name, price, quantity, subtotal, category_id) " +
+                    "INSERT INTO order_items_archive (id, order_id, product_id, product_name, price, quantity, subtotal, category_id) " +
+                    "SELECT id, order_id, product_id, product_name, price, quantity, subtotal, category_id FROM moved";
+
+    private static final String MOVE_ORDERS =
+            "WITH moved AS (DELETE FROM orders WHERE id = ANY (?) AND created_at < ? " +
+                    "RETURNING id, user_id, total_amount, status, shipping_address, notes, created_at, updated_at) " +
+                    "INSERT INTO orders_archive (id, user_id, total_amount, status, shipping_address, notes, " +
+                    "created_at, updated_at, archived_at) " +
+                    "SELECT id, user_id, total_amount, status, shipping_address, notes, created_at, updated_at, NOW() " +
+                    "FROM moved";
+
+    // Archived orders have no version; an order is in exactly one of the two tables at a time
+    private static final String SELECT_LIVE_AND_ARCHIVED =
+            "SELECT id, user_id, total_amount, status, shipping_address, notes, version, created_at, updated_at " +
+                    "FROM orders WHERE 1 = 1%1$s UNION ALL " +
+                    "SELECT id, user_id, total_amount, status, shipping_address, notes, NULL AS version, created_at, updated_at " +
+                    "FROM orders_archive WHERE 1 = 1%1$s";
+
+    private static final String COUNT_LIVE_AND_ARCHIVED =
+            "SELECT (SELECT COUNT(*) FROM orders WHERE 1 = 1%1$s) + (SELECT COUNT(*) FROM orders_archive WHERE 1 = 1%1$s)";
+
+    private static final String SELECT_LIVE_AND_ARCHIVED_ITEMS =
+            "SELECT order_id, id, product_id, product_name, price, quantity, subtotal, category_id " +
+                    "FROM order_items WHERE order_id IN (%1$s) UNION ALL " +
+                    "SELECT order_id, id, product_id, product_name, price, quantity, subtotal, category_id " +
+                    "FROM order_items_archive WHERE order_id IN (%1$s) ORDER BY id";
+
+    // Sortable order properties and their columns; anything else would end up in the SQL
+    private static final Map<String, String> SORT_COLUMNS = Map.of(
+            "id", "id",
+            "userId", "user_id",
+            "totalAmount", "total_amount",
+            "status", "status",
+            "createdAt", "created_at",
+            "updatedAt", "updated_at");
+
+    private static final long TABLE_RECHECK_NANOS = TimeUnit.MINUTES.toNanos(1);
+
+    private final JdbcTemplate jdbcTemplate;
+
+    // Once found the tables stay; a miss is rechecked after a while so running the script needs no restart
+    private volatile boolean tablesExist;
+    private volatile long tablesCheckedAt = System.nanoTime() - TABLE_RECHECK_NANOS;
+
+    public Optional<Order> findWithItemsById(Long orderId) {
+        if (!tablesExist()) {
+            return Optional.empty();
+        }
+
+        List<Order> orders = jdbcTemplate.query(SELECT_ORDER, (rs, rowNum) -> Order.builder()
+                .id(rs.getLong("id"))
+                .userId(rs.getLong("user_id"))
+                .totalAmount(rs.getBigDecimal("total_amount"))
+                .status(OrderStatus.valueOf(rs.getString("status")))
+                .shippingAddress(rs.getString("shipping_address"))
+                .notes(rs.getString("notes"))
+                .createdAt(toLocalDateTime(rs.getTimestamp("created_at")))
+                .updatedAt(toLocalDateTime(rs.getTimestamp("updated_at")))
+                .build(), orderId);
+        if (orders.isEmpty()) {
+            return Optional.empty();
+        }
+
+        Order order = orders.get(0);
+        jdbcTemplate.query(SELECT_ITEMS, (rs, rowNum) -> OrderItem.builder()
+                .id(rs.getLong("id"))
+                .productId(rs.getLong("product_id"))
+                .productName(rs.getString("product_name"))
+                .price(rs.getBigDecimal("price"))
+                .quantity(rs.getInt("quantity"))
+                .subtotal(rs.getBigDecimal("subtotal"))
+                .categoryId(rs.getObject("category_id", Long.class))
+                .build(), orderId).forEach(order::addOrderItem);
+        return Optional.of(order);
+    }
+
+    /**
+     * A page of live and archived orders together, with their items, matching the optional
+     * filters. Slower than reading the live table alone; callers check {@link #tablesExist()}.
+     */
+    public Page<Order> findLiveAndArchived(Long userId, OrderStatus status, LocalDateTime from, LocalDateTime to,
+                                           Pageable pageable) {
+        StringBuilder filters = new StringBuilder();
+        List<Object> filterArgs = new ArrayList<>();
+        if (userId != null) {
+            filters.append(" AND user_id = ?");
+            filterArgs.add(userId);
+        }
+        if (status != null) {
+            filters.append(" AND status = ?");
+            filterArgs.add(status.name());
+        }
+        if (from != null) {
+            filters.append(" AND created_at >= ?");
+            filterArgs.add(Timestamp.valueOf(from));
+        }
+        if (to != null) {
+            filters.append(" AND created_at < ?");
+            filterArgs.add(Timestamp.valueOf(to));
+        }
+        List<Object> args = new ArrayList<>(filterArgs);
+        args.addAll(filterArgs);
+
+        Long total = jdbcTemplate.queryForObject(COUNT_LIVE_AND_ARCHIVED.formatted(filters), Long.class, args.toArray());
+        if (total == null || total == 0) {
+            return Page.empty(pageable);
+        }
+
+        String sql = "SELECT * FROM (" + SELECT_LIVE_AND_ARCHIVED.formatted(filters) + ") listed ORDER BY "
+                + orderBy(pageable.getSort());
+        if (pageable.isPaged()) {
+            sql += " LIMIT ? OFFSET ?";
+            args.add(pageable.getPageSize());
+            args.add(pageable.getOffset());
+        }
+        List<Order> orders = jdbcTemplate.query(sql, (rs, rowNum) -> Order.builder()
+                .id(rs.getLong("id"))
+                .userId(rs.getLong("user_id"))
+                .totalAmount(rs.getBigDecimal("total_amount"))
+                .status(OrderStatus.valueOf(rs.getString("status")))
+                .shippingAddress(rs.getString("shipping_address"))
+                .notes(rs.getString("notes"))
+                .version(rs.getObject("version", Long.class))
+                .createdAt(toLocalDateTime(rs.getTimestamp("created_at")))
+                .updatedAt(toLocalDateTime(rs.getTimestamp("updated_at")))
+                .build(), args.toArray());
+
+        if (!orders.isEmpty()) {
+            Map<Long, Order> byId = new HashMap<>();
+            orders.forEach(order -> byId.put(order.getId(), order));
+            String placeholders = String.join(", ", Collections.nCopies(orders.size(), "?"));
+            List<Object> ids = new ArrayList<>(byId.keySet());
+            ids.addAll(byId.keySet());
+            jdbcTemplate.query(SELECT_LIVE_AND_ARCHIVED_ITEMS.formatted(placeholders), (RowCallbackHandler) rs ->
+                    byId.get(rs.getLong("order_id")).addOrderItem(OrderItem.builder()
+                            .id(rs.getLong("id"))
+                            .productId(rs.getLong("product_id"))
+                            .productName(rs.getString("product_name"))
+                            .price(rs.getBigDecimal("price"))
+                            .quantity(rs.getInt("quantity"))
+                            .subtotal(rs.getBigDecimal("subtotal"))
+                            .categoryId(rs.getObject("category_id", Long.class))
+                            .build()), ids.toArray());
+        }
+        return new PageImpl<>(orders, pageable, total);
+    }
+
+    // Caller provides the transaction that holds the row locks until the move commits
+    public List<Long> lockArchivableIds(LocalDateTime createdBefore, int limit) {
+        return jdbcTemplate.queryForList(SELECT_ARCHIVABLE_IDS, Long.class, Timestamp.valueOf(createdBefore), limit);
+    }
+
+    // Returns the number of orders moved
+    public int move(Collection<Long> orderIds, LocalDateTime createdBefore) {
+        Long[] ids = orderIds.toArray(Long[]::new);
+        jdbcTemplate.update(connection -> {
+            PreparedStatement ps = connection.prepareStatement(MOVE_ITEMS);
+            ps.setArray(1, connection.createArrayOf("bigint", ids));
+            return ps;
+        });
+        // created_at lets Postgres prune to the partitions that can hold these orders
+        return jdbcTemplate.update(connection -> {
+            PreparedStatement ps = connection.prepareStatement(MOVE_ORDERS);
+            ps.setArray(1, connection.createArrayOf("bigint", ids));
+            ps.setTimestamp(2, Timestamp.valueOf(createdBefore));
+            return ps;
+        });
+    }
+
+    public boolean tablesExist() {
+        if (tablesExist || System.nanoTime() - tablesCheckedAt < TABLE_RECHECK_NANOS) {
+            return tablesExist;
+        }
+        tablesExist = Boolean.TRUE.equals(jdbcTemplate.execute((ConnectionCallback<Boolean>) connection -> {
+            DatabaseMetaData metaData = connection.getMetaData();
+            // Unquoted names are stored lower case by Postgres, upper case by most others
+            for (String name : List.of("orders_archive", "ORDERS_ARCHIVE")) {
+                try (ResultSet tables = metaData.getTables(connection.getCatalog(), null, name, null)) {
+                    if (tables.next()) {
+                        return true;
+                    }
+                }
+            }
+            return false;
+        }));
+        tablesCheckedAt = System.nanoTime();
+        return tablesExist;
+    }
+
+    // Id breaks ties, so pages stay stable between requests
+    private String orderBy(Sort sort) {
+        StringBuilder orderBy = new StringBuilder();
+        for (Sort.Order order : sort) {
+            String column = SORT_COLUMNS.get(order.getProperty());
+            if (column == null) {
+                throw new RuntimeException("Cannot sort orders by: " + order.getProperty());
+            }
+            orderBy.append(column).append(order.isAscending() ? " ASC, " : " DESC, ");
+        }
+        return orderBy.append("id").toString();
+    }
+
+    private LocalDateTime toLocalDateTime(Timestamp timestamp) {
+        return timestamp != null ? timestamp.toLocalDateTime() : null;
+    }
+}
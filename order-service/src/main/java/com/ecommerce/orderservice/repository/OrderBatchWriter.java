@@ -0,0 +1,140 @@
+package com.ecommerce.orderservice.repository;
+
+import com.ecommerce.orderservice.entity.IdempotencyRecord;
+import com.ecommerce.orderservice.entity.Order;
+import com.ecommerce.orderservice.entity.OrderItem;
+import com.ecommerce.orderservice.entity.OrderSummary;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Plain JDBC batch inserts for orders whose ids were allocated up front.
+ * <p>
+ * The intake writer stores many orders per transaction without a persistence context, so it
+ * uses this instead of Hibernate. Ids come from the same pooled sequences as the entities:
+ * each {@code nextval} reserves the block {@code [value - 49, value]}. The sequences start at
+ * 50, so the first block is {@code [1, 50]}; ids below 1 are never handed out.
+ */
+@Repository
+@RequiredArgsConstructor
+public class OrderBatchWriter {
+
+    private static final String INSERT_ORDER =
+            "INSERT INTO orders (id, user_id, total_amount, status, shipping_address, notes, created_at, updated_at) " +
+                    "VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String INSERT_ORDER_ITEM =
+            "INSERT INTO order_items (id, order_id, product_id, product_name, price, quantity, subtotal, category_id) " +
+                    "VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String INSERT_ORDER_SUMMARY =
+            "INSERT INTO order_summaries (order_id, user_id, status, total_amount, item_count, first_product_name, " +
+                    "created_at, updated_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String INSERT_IDEMPOTENCY_RECORD =
+            "INSERT INTO order_idempotency_keys (record_key, request_fingerprint, order_id, expires_at) " +
+                    "VALUES (?, ?, ?, ?)";
+
+    private static final String DELETE_EXPIRED_IDEMPOTENCY_RECORD =
+            "DELETE FROM order_idempotency_keys WHERE record_key = ? AND expires_at < ?";
+
+    // Must match the allocationSize of the entity sequence generators
+    private static final int ID_BLOCK_SIZE = 50;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    // Reserves at least count order ids, in whole blocks, in one round trip
+    public List<Long> allocateOrderIds(int count) {
+        return allocateIds("orders_seq", count);
+    }
+
+    // Caller provides the transaction
+    public void insert(List<Order> orders, List<IdempotencyRecord> idempotencyRecords) {
+        jdbcTemplate.batchUpdate(INSERT_ORDER, orders, orders.size(), (ps, order) -> {
+            ps.setLong(1, order.getId());
+            ps.setLong(2, order.getUserId());
+            ps.setBigDecimal(3, order.getTotalAmount());
+            ps.setString(4, order.getStatus().name());
+            ps.setString(5, order.getShippingAddress());
+            ps.setString(6, order.getNotes());
+            ps.setTimestamp(7, Timestamp.valueOf(order.getCreatedAt()));
+            ps.setTimestamp(8, Timestamp.valueOf(order.getUpdatedAt()));
+        });
+
+        List<OrderItem> items = new ArrayList<>();
+        for (Order order : orders) {
+            items.addAll(order.getOrderItems());
+        }
+        // Ids are kept from an earlier failed attempt so a retry does not burn new blocks
+        List<OrderItem> withoutId = items.stream().filter(item -> item.getId() == null).toList();
+        if (!withoutId.isEmpty()) {
+            List<Long> itemIds = allocateIds("order_items_seq", withoutId.size());
+            for (int i = 0; i < withoutId.size(); i++) {
+                withoutId.get(i).setId(itemIds.get(i));
+            }
+        }
+        jdbcTemplate.batchUpdate(INSERT_ORDER_ITEM, items, items.size(), (ps, item) -> {
+            ps.setLong(1, item.getId());
+            ps.setLong(2, item.getOrder().getId());
+            ps.setLong(3, item.getProductId());
+            ps.setString(4, item.getProductName());
+            ps.setBigDecimal(5, item.getPrice());
+            ps.setInt(6, item.getQuantity());
+            ps.setBigDecimal(7, item.getSubtotal());
+            ps.setObject(8, item.getCategoryId(), Types.BIGINT);
+        });
+
+        List<OrderSummary> summaries = orders.stream().map(OrderSummary::of).toList();
+        jdbcTemplate.batchUpdate(INSERT_ORDER_SUMMARY, summaries, summaries.size(), (ps, summary) -> {
+            ps.setLong(1, summary.getOrderId());
+            ps.setLong(2, summary.getUserId());
+            ps.setString(3, summary.getStatus().name());
+            ps.setBigDecimal(4, summary.getTotalAmount());
+            ps.setInt(5, summary.getItemCount());
+            ps.setString(6, summary.getFirstProductName());
+            ps.setTimestamp(7, Timestamp.valueOf(summary.getCreatedAt()));
+            ps.setTimestamp(8, Timestamp.valueOf(summary.getUpdatedAt()));
+        });
+
+        List<IdempotencyRecord> records = idempotencyRecords.stream().filter(Objects::nonNull).toList();
+        if (!records.isEmpty()) {
+            // Expired keys the purge has not removed yet are reused, not reported as duplicates
+            Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+            jdbcTemplate.batchUpdate(DELETE_EXPIRED_IDEMPOTENCY_RECORD, records, records.size(), (ps, record) -> {
+                ps.setString(1, record.getRecordKey());
+                ps.setTimestamp(2, now);
+            });
+            jdbcTemplate.batchUpdate(INSERT_IDEMPOTENCY_RECORD, records, records.size(), (ps, record) -> {
+                ps.setString(1, record.getRecordKey());
+                ps.setString(2, record.getRequestFingerprint());
+                ps.setLong(3, record.getOrderId());
+                ps.setTimestamp(4, Timestamp.valueOf(record.getExpiresAt()));
+            });
+        }
+    }
+
+    private List<Long> allocateIds(String sequence, int count) {
+        int blocks = (count + ID_BLOCK_SIZE - 1) / ID_BLOCK_SIZE;
+        List<Long> ids = new ArrayList<>(blocks * ID_BLOCK_SIZE);
+        List<Long> blockEnds = jdbcTemplate.queryForList(
+                "SELECT nextval('" + sequence + "') FROM generate_series(1, ?)", Long.class, blocks);
+        for (Long blockEnd : blockEnds) {
+            for (long id = Math.max(blockEnd - ID_BLOCK_SIZE + 1, 1); id <= blockEnd; id++) {
+                ids.add(id);
+            }
+        }
+        if (ids.size() < count) {
+            // Only the initial value of a sequence created at 1 falls short
+            ids.addAll(allocateIds(sequence, count - ids.size()));
+        }
+        return ids;
+    }
+}
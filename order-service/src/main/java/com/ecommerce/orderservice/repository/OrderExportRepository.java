@@ -0,0 +1,139 @@
+package com.ecommerce.orderservice.repository;
+
+import com.ecommerce.orderservice.dto.OrderItemResponse;
+import com.ecommerce.orderservice.dto.OrderResponse;
+import com.ecommerce.orderservice.entity.OrderStatus;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import javax.sql.DataSource;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Reads orders with their items in one ordered query over a server-side cursor.
+ * <p>
+ * The PostgreSQL driver only uses a cursor when the fetch size is set and the connection is
+ * not in auto-commit mode, so callers must run {@link #stream} inside a transaction. Only the
+ * order being assembled is held in memory.
+ */
+@Repository
+public class OrderExportRepository {
+
+    private static final String SELECT_ORDERS =
+            "SELECT o.id, o.user_id, o.total_amount, o.status, o.shipping_address, o.notes, o.version, " +
+                    "o.created_at, o.updated_at, i.id AS item_id, i.product_id, i.product_name, i.price, " +
+                    "i.quantity, i.subtotal " +
+                    "FROM orders o LEFT JOIN order_items i ON i.order_id = o.id WHERE o.id > ?";
+
+    // Archived orders have no version; an order is in exactly one of the two tables at a time
+    private static final String SELECT_ARCHIVED_ORDERS =
+            "SELECT o.id, o.user_id, o.total_amount, o.status, o.shipping_address, o.notes, NULL AS version, " +
+                    "o.created_at, o.updated_at, i.id AS item_id, i.product_id, i.product_name, i.price, " +
+                    "i.quantity, i.subtotal " +
+                    "FROM orders_archive o LEFT JOIN order_items_archive i ON i.order_id = o.id WHERE o.id > ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final OrderArchiveRepository orderArchiveRepository;
+
+    public OrderExportRepository(DataSource dataSource,
+                                 OrderArchiveRepository orderArchiveRepository,
+                                 @Value("${orders.export.fetch-size:500}") int fetchSize) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setFetchSize(fetchSize);
+        this.orderArchiveRepository = orderArchiveRepository;
+    }
+
+    // Passes every order after afterOrderId matching the filters to the consumer, in id order,
+    // live and archived alike
+    public void stream(long afterOrderId, OrderStatus status, LocalDateTime from, LocalDateTime to,
+                       Consumer<OrderResponse> consumer) {
+        StringBuilder filters = new StringBuilder();
+        List<Object> filterArgs = new ArrayList<>();
+        filterArgs.add(afterOrderId);
+        if (status != null) {
+            filters.append(" AND o.status = ?");
+            filterArgs.add(status.name());
+        }
+        if (from != null) {
+            filters.append(" AND o.created_at >= ?");
+            filterArgs.add(Timestamp.valueOf(from));
+        }
+        if (to != null) {
+            filters.append(" AND o.created_at < ?");
+            filterArgs.add(Timestamp.valueOf(to));
+        }
+
+        String sql;
+        List<Object> args = new ArrayList<>(filterArgs);
+        if (orderArchiveRepository.tablesExist()) {
+            sql = "SELECT * FROM (" + SELECT_ORDERS + filters + " UNION ALL " + SELECT_ARCHIVED_ORDERS + filters +
+                    ") exported ORDER BY id, item_id";
+            args.addAll(filterArgs);
+        } else {
+            sql = SELECT_ORDERS + filters + " ORDER BY o.id, i.id";
+        }
+
+        OrderAssembler assembler = new OrderAssembler(consumer);
+        jdbcTemplate.query(sql, assembler::row, args.toArray());
+        assembler.finish();
+    }
+
+    // Rows arrive grouped by order; an order is emitted when the next one starts
+    private static final class OrderAssembler {
+
+        private final Consumer<OrderResponse> consumer;
+        private OrderResponse current;
+
+        OrderAssembler(Consumer<OrderResponse> consumer) {
+            this.consumer = consumer;
+        }
+
+        void row(ResultSet rs) throws SQLException {
+            long orderId = rs.getLong("id");
+            if (current == null || current.getId() != orderId) {
+                finish();
+                current = OrderResponse.builder()
+                        .id(orderId)
+                        .userId(rs.getLong("user_id"))
+                        .totalAmount(rs.getBigDecimal("total_amount"))
+                        .status(OrderStatus.valueOf(rs.getString("status")))
+                        .shippingAddress(rs.getString("shipping_address"))
+                        .notes(rs.getString("notes"))
+                        .version(rs.getObject("version", Long.class))
+                        .createdAt(toLocalDateTime(rs.getTimestamp("created_at")))
+                        .updatedAt(toLocalDateTime(rs.getTimestamp("updated_at")))
+                        .build();
+            }
+
+            Long itemId = rs.getObject("item_id", Long.class);
+            if (itemId != null) {
+                current.getOrderItems().add(OrderItemResponse.builder()
+                        .id(itemId)
+                        .productId(rs.getLong("product_id"))
+                        .productName(rs.getString("product_name"))
+                        .price(rs.getBigDecimal("price"))
+                        .quantity(rs.getInt("quantity"))
+                        .subtotal(rs.getBigDecimal("subtotal"))
+                        .build());
+            }
+        }
+
+        void finish() {
+            if (current != null) {
+                consumer.accept(current);
+                current = null;
+            }
+        }
+
+        private static LocalDateTime toLocalDateTime(Timestamp timestamp) {
+            return timestamp != null ? timestamp.toLocalDateTime() : null;
+        }
+    }
+}
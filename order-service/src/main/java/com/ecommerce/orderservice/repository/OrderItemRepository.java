@@ -0,0 +1,18 @@
+package com.ecommerce.orderservice.repository;
+
+import com.ecommerce.orderservice.entity.OrderItem;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface OrderItemRepository extends JpaRepository<OrderItem, Long> {
+
+    // Items of a whole page of orders in one query
+    @Query("SELECT i FROM OrderItem i WHERE i.order.id IN :orderIds ORDER BY i.order.id, i.id")
+    List<OrderItem> findByOrderIdIn(@Param("orderIds") Collection<Long> orderIds);
+}
@@ -5,9 +5,13 @@ import com.ecommerce.orderservice.entity.OrderStatus;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface OrderRepository extends JpaRepository<Order, Long> {
@@ -19,4 +23,22 @@ public interface OrderRepository extends JpaRepository<Order, Long> {
     Page<Order> findByStatus(OrderStatus status, Pageable pageable);
 
     Long countByUserId(Long userId);
+
+    // Bounded by created_at so a partitioned orders table only scans the months in range
+    @Query("SELECT o FROM Order o WHERE o.createdAt >= :from AND o.createdAt < :to")
+    Page<Order> findCreatedBetween(@Param("from") LocalDateTime from,
+                                   @Param("to") LocalDateTime to,
+                                   Pageable pageable);
+
+    @Query("SELECT o FROM Order o WHERE o.status = :status AND o.createdAt >= :from AND o.createdAt < :to")
+    Page<Order> findByStatusCreatedBetween(@Param("status") OrderStatus status,
+                                           @Param("from") LocalDateTime from,
+                                           @Param("to") LocalDateTime to,
+                                           Pageable pageable);
+
+    @Query("SELECT o FROM Order o LEFT JOIN FETCH o.orderItems WHERE o.id = :id")
+    Optional<Order> findWithItemsById(@Param("id") Long id);
+
+    @Query("SELECT o.userId FROM Order o WHERE o.id = :id")
+    Optional<Long> findUserIdById(@Param("id") Long id);
 }
\ No newline at end of file
@@ -0,0 +1,107 @@
+package com.ecommerce.orderservice.repository;
+
+import com.ecommerce.orderservice.entity.OrderStatus;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Set-based status updates on {@code orders}. The status guard in each WHERE clause makes
+ * an illegal or concurrent transition a no-op for that row instead of an error, and every
+ * update bumps the JPA {@code version} column. Callers provide the transaction.
+ */
+@Repository
+@RequiredArgsConstructor
+public class OrderStatusRepository {
+
+    private static final String UPDATE_ALL =
+            "UPDATE orders SET status = ?, version = version + 1, updated_at = ? " +
+                    "WHERE id = ANY (?) AND status = ANY (?) RETURNING id";
+
+    private static final String UPDATE_VERSIONED =
+            "UPDATE orders SET status = ?, version = version + 1, updated_at = ? " +
+                    "WHERE id = ? AND version = ? AND status = ANY (?)";
+
+    private static final String SELECT_CURRENT =
+            "SELECT id, status, version FROM orders WHERE id = ANY (?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public record CurrentStatus(OrderStatus status, Long version) {
+    }
+
+    // One statement for the whole set; returns the ids that changed
+    public Set<Long> updateStatus(Collection<Long> orderIds, OrderStatus target, Set<OrderStatus> from,
+                                  LocalDateTime now) {
+        List<Long> updated = jdbcTemplate.query(connection -> {
+            PreparedStatement ps = connection.prepareStatement(UPDATE_ALL);
+            ps.setString(1, target.name());
+            ps.setTimestamp(2, Timestamp.valueOf(now));
+            ps.setArray(3, idArray(connection, orderIds));
+            ps.setArray(4, statusArray(connection, from));
+            return ps;
+        }, (rs, rowNum) -> rs.getLong(1));
+        return new HashSet<>(updated);
+    }
+
+    // One batched statement per order, each guarded by the version the caller expects
+    public Set<Long> updateStatus(Map<Long, Long> expectedVersions, OrderStatus target, Set<OrderStatus> from,
+                                  LocalDateTime now) {
+        List<Map.Entry<Long, Long>> entries = new ArrayList<>(expectedVersions.entrySet());
+        String[] sources = from.stream().map(Enum::name).toArray(String[]::new);
+        int[][] counts = jdbcTemplate.batchUpdate(UPDATE_VERSIONED, entries, entries.size(), (ps, entry) -> {
+            ps.setString(1, target.name());
+            ps.setTimestamp(2, Timestamp.valueOf(now));
+            ps.setLong(3, entry.getKey());
+            ps.setLong(4, entry.getValue());
+            ps.setArray(5, ps.getConnection().createArrayOf("varchar", sources));
+        });
+
+        Set<Long> updated = new HashSet<>();
+        int index = 0;
+        for (int[] batch : counts) {
+            for (int count : batch) {
+                if (count > 0) {
+                    updated.add(entries.get(index).getKey());
+                }
+                index++;
+            }
+        }
+        return updated;
+    }
+
+    public Map<Long, CurrentStatus> findCurrent(Collection<Long> orderIds) {
+        Map<Long, CurrentStatus> current = new HashMap<>();
+        jdbcTemplate.query(connection -> {
+            PreparedStatement ps = connection.prepareStatement(SELECT_CURRENT);
+            ps.setArray(1, idArray(connection, orderIds));
+            return ps;
+        }, rs -> {
+            current.put(rs.getLong("id"),
+                    new CurrentStatus(OrderStatus.valueOf(rs.getString("status")), rs.getLong("version")));
+        });
+        return current;
+    }
+
+    private Array idArray(Connection connection, Collection<Long> ids) throws SQLException {
+        return connection.createArrayOf("bigint", ids.toArray(Long[]::new));
+    }
+
+    private Array statusArray(Connection connection, Set<OrderStatus> statuses) throws SQLException {
+        return connection.createArrayOf("varchar", statuses.stream().map(Enum::name).toArray(String[]::new));
+    }
+}
@@ -0,0 +1,28 @@
+package com.ecommerce.orderservice.repository;
+
+import com.ecommerce.orderservice.entity.OrderStatus;
+import com.ecommerce.orderservice.entity.OrderSummary;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+
+@Repository
+public interface OrderSummaryRepository extends JpaRepository<OrderSummary, Long> {
+
+    Page<OrderSummary> findByUserId(Long userId, Pageable pageable);
+
+    Page<OrderSummary> findByStatus(OrderStatus status, Pageable pageable);
+
+    @Modifying
+    @Query("UPDATE OrderSummary s SET s.status = :status, s.updatedAt = :updatedAt WHERE s.orderId IN :orderIds")
+    int updateStatus(@Param("orderIds") Collection<Long> orderIds,
+                     @Param("status") OrderStatus status,
+                     @Param("updatedAt") LocalDateTime updatedAt);
+}
@@ -0,0 +1,314 @@
+package com.ecommerce.orderservice.repository;
+
+import com.ecommerce.orderservice.dto.ProductDTO;
+import com.ecommerce.orderservice.entity.Cart;
+import com.ecommerce.orderservice.entity.CartItem;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static com.ecommerce.orderservice.service.TransactionCallbacks.afterCommit;
+
+/**
+ * Active carts kept in one Redis hash per user ({@code cart:<userId>}).
+ * <p>
+ * Each product has a quantity field {@code <productId>} updated with HINCRBY and a details
+ * field {@code <productId>:item} holding name and price as JSON. Every write refreshes the
+ * hash TTL, so abandoned carts expire on their own, and marks the user dirty for
+ * {@link CartWriteBehindFlusher}. In this store the cart item id is the product id.
+ * <p>
+ * A missing hash is reloaded from the Postgres copy before it is read or changed, so a cart
+ * that expired or was lost with a Redis restart comes back as of its last flush. The hash
+ * also holds a {@code cart} marker field, so removing the last line leaves an empty cart
+ * behind instead of no hash, which would bring the flushed lines back.
+ */
+@Component
+@ConditionalOnProperty(name = "cart.store", havingValue = "redis")
+@Slf4j
+public class RedisCartStore implements CartStore {
+
+    static final String DIRTY_SET_KEY = "carts:dirty";
+    private static final String KEY_PREFIX = "cart:";
+    private static final String ITEM_SUFFIX = ":item";
+
+    // KEYS: cart hash, dirty set; ARGV: productId, item json, quantity delta, ttl millis, userId
+    private static final RedisScript<Long> ADD_ITEM = new DefaultRedisScript<>(
+            "local qty = redis.call('HINCRBY', KEYS[1], ARGV[1], ARGV[3]) " +
+                    "redis.call('HSETNX', KEYS[1], ARGV[1] .. ':item', ARGV[2]) " +
+                    "redis.call('HSET', KEYS[1], 'cart', 1) " +
+                    "redis.call('PEXPIRE', KEYS[1], ARGV[4]) " +
+                    "redis.call('SADD', KEYS[2], ARGV[5]) " +
+                    "return qty",
+            Long.class);
+
+    // KEYS: cart hash, dirty set; ARGV: productId, quantity, ttl millis, userId
+    private static final RedisScript<Long> SET_QUANTITY = new DefaultRedisScript<>(
+            "if redis.call('HEXISTS', KEYS[1], ARGV[1]) == 0 then return -1 end " +
+                    "if tonumber(ARGV[2]) <= 0 then " +
+                    "redis.call('HDEL', KEYS[1], ARGV[1], ARGV[1] .. ':item') " +
+                    "else redis.call('HSET', KEYS[1], ARGV[1], ARGV[2]) end " +
+                    "redis.call('HSET', KEYS[1], 'cart', 1) " +
+                    "redis.call('PEXPIRE', KEYS[1], ARGV[3]) " +
+                    "redis.call('SADD', KEYS[2], ARGV[4]) " +
+                    "return 1",
+            Long.class);
+
+    // KEYS: cart hash, dirty set; ARGV: ttl millis, userId, then the fields to delete.
+    // A missing cart stays missing; an existing one keeps its marker when the last line goes
+    private static final RedisScript<Long> REMOVE_ITEMS = new DefaultRedisScript<>(
+            "if redis.call('EXISTS', KEYS[1]) == 0 then return 0 end " +
+                    "redis.call('HSET', KEYS[1], 'cart', 1) " +
+                    "for i = 3, #ARGV do redis.call('HDEL', KEYS[1], ARGV[i]) end " +
+                    "redis.call('PEXPIRE', KEYS[1], ARGV[1]) " +
+                    "redis.call('SADD', KEYS[2], ARGV[2]) " +
+                    "return 1",
+            Long.class);
+
+    // KEYS: cart hash; ARGV: ttl millis, then field/value pairs. Never overwrites a live cart
+    private static final RedisScript<Long> REHYDRATE = new DefaultRedisScript<>(
+            "if redis.call('EXISTS', KEYS[1]) == 1 then return 0 end " +
+                    "redis.call('HSET', KEYS[1], 'cart', 1) " +
+                    "for i = 2, #ARGV, 2 do redis.call('HSET', KEYS[1], ARGV[i], ARGV[i + 1]) end " +
+                    "redis.call('PEXPIRE', KEYS[1], ARGV[1]) " +
+                    "return 1",
+            Long.class);
+
+    private final StringRedisTemplate redisTemplate;
+    private final CartRepository cartRepository;
+    private final CartItemRepository cartItemRepository;
+    private final ObjectMapper objectMapper;
+    private final Duration ttl;
+
+    public RedisCartStore(StringRedisTemplate redisTemplate,
+                          CartRepository cartRepository,
+                          CartItemRepository cartItemRepository,
+                          ObjectMapper objectMapper,
+                          @Value("${cart.redis.ttl:P7D}") Duration ttl) {
+        this.redisTemplate = redisTemplate;
+        this.cartRepository = cartRepository;
+        this.cartItemRepository = cartItemRepository;
+        this.objectMapper = objectMapper;
+        this.ttl = ttl;
+    }
+
+    @Override
+    public Cart getCart(Long userId) {
+        return findCart(userId).orElseGet(() -> Cart.builder()
+                .userId(userId)
+                .build());
+    }
+
+    @Override
+    public Optional<Cart> findCart(Long userId) {
+        Optional<Cart> cached = findCachedCart(userId);
+        if (cached.isPresent() || !rehydrate(userId)) {
+            return cached;
+        }
+        return findCachedCart(userId);
+    }
+
+    // Redis only, without falling back to the Postgres copy; a cart the user emptied has no lines
+    Optional<Cart> findCachedCart(Long userId) {
+        Map<Object, Object> fields = redisTemplate.opsForHash().entries(key(userId));
+        if (fields.isEmpty()) {
+            return Optional.empty();
+        }
+        return Optional.of(toCart(userId, fields));
+    }
+
+    boolean exists(Long userId) {
+        return Boolean.TRUE.equals(redisTemplate.hasKey(key(userId)));
+    }
+
+    @Override
+    public Cart addItem(Long userId, ProductDTO product, int quantity) {
+        // Otherwise the new line would start a fresh hash and the next flush drop the old ones
+        loadIfMissing(userId);
+        String details = write(new StoredItem(product.getName(), product.getPrice(), product.getCategoryId(),
+                System.currentTimeMillis()));
+        redisTemplate.execute(ADD_ITEM, List.of(key(userId), DIRTY_SET_KEY),
+                product.getId().toString(), details, Integer.toString(quantity),
+                Long.toString(ttl.toMillis()), userId.toString());
+        return getCart(userId);
+    }
+
+    @Override
+    public Cart updateItemQuantity(Long userId, Long itemId, int quantity) {
+        loadIfMissing(userId);
+        Long result = redisTemplate.execute(SET_QUANTITY, List.of(key(userId), DIRTY_SET_KEY),
+                itemId.toString(), Integer.toString(quantity),
+                Long.toString(ttl.toMillis()), userId.toString());
+        if (result == null || result < 0) {
+            throw new RuntimeException("Cart item not found: " + itemId);
+        }
+        return getCart(userId);
+    }
+
+    @Override
+    public Cart removeItem(Long userId, Long itemId) {
+        return removeItems(userId, List.of(itemId));
+    }
+
+    @Override
+    public Cart removeItems(Long userId, Collection<Long> itemIds) {
+        if (!itemIds.isEmpty()) {
+            loadIfMissing(userId);
+            List<String> args = new ArrayList<>();
+            args.add(Long.toString(ttl.toMillis()));
+            args.add(userId.toString());
+            itemIds.forEach(itemId -> {
+                args.add(itemId.toString());
+                args.add(itemId + ITEM_SUFFIX);
+            });
+            redisTemplate.execute(REMOVE_ITEMS, List.of(key(userId), DIRTY_SET_KEY), args.toArray());
+        }
+        return getCart(userId);
+    }
+
+    @Override
+    public Cart save(Cart cart) {
+        loadIfMissing(cart.getUserId());
+        List<Object> itemFields = cart.getCartItems().stream()
+                .map(item -> (Object) (item.getProductId() + ITEM_SUFFIX))
+                .toList();
+        List<Object> current = redisTemplate.opsForHash().multiGet(key(cart.getUserId()), itemFields);
+
+        // Rewrite name and price, keeping the original position of each line
+        Map<String, String> fields = new HashMap<>();
+        for (int i = 0; i < cart.getCartItems().size(); i++) {
+            CartItem item = cart.getCartItems().get(i);
+            Object existing = current.get(i);
+            if (existing == null) {
+                continue;
+            }
+            long addedAt = read(existing.toString()).addedAt();
+            fields.put(item.getProductId() + ITEM_SUFFIX,
+                    write(new StoredItem(item.getProductName(), item.getPrice(), item.getCategoryId(), addedAt)));
+        }
+        if (!fields.isEmpty()) {
+            redisTemplate.opsForHash().putAll(key(cart.getUserId()), fields);
+            redisTemplate.opsForSet().add(DIRTY_SET_KEY, cart.getUserId().toString());
+        }
+        return cart;
+    }
+
+    /**
+     * Checkout is the synchronous persistence point: the Postgres copy is removed in the
+     * caller's transaction. The Redis hash is deleted while that transaction still holds the
+     * cart row, so a flush waiting on the row finds nothing to write back, and once more after
+     * commit in case a read reloaded the not yet cleared copy in between. Should the
+     * transaction roll back, the cart is reloaded from its last flush.
+     */
+    @Override
+    @Transactional
+    public void clear(Long userId) {
+        cartRepository.findIdByUserId(userId).ifPresent(cartId -> {
+            cartItemRepository.deleteByCartId(cartId);
+            cartRepository.resetTotals(cartId, LocalDateTime.now());
+        });
+        redisTemplate.delete(key(userId));
+
+        afterCommit(() -> redisTemplate.delete(key(userId)));
+    }
+
+    private void loadIfMissing(Long userId) {
+        if (!exists(userId)) {
+            rehydrate(userId);
+        }
+    }
+
+    // Copies the Postgres lines into a missing hash, keeping their order; false if there are none
+    private boolean rehydrate(Long userId) {
+        Cart stored = cartRepository.findWithItemsByUserId(userId).orElse(null);
+        if (stored == null || stored.getCartItems().isEmpty()) {
+            return false;
+        }
+
+        List<String> args = new ArrayList<>();
+        args.add(Long.toString(ttl.toMillis()));
+        long addedAt = System.currentTimeMillis() - stored.getCartItems().size();
+        for (CartItem item : stored.getCartItems()) {
+            args.add(item.getProductId().toString());
+            args.add(item.getQuantity().toString());
+            args.add(item.getProductId() + ITEM_SUFFIX);
+            args.add(write(new StoredItem(item.getProductName(), item.getPrice(), item.getCategoryId(), addedAt++)));
+        }
+        redisTemplate.execute(REHYDRATE, List.of(key(userId)), args.toArray());
+        log.debug("Reloaded cart of user {} from the database", userId);
+        return true;
+    }
+
+    private Cart toCart(Long userId, Map<Object, Object> fields) {
+        List<Map.Entry<Long, StoredItem>> stored = new ArrayList<>();
+        for (Map.Entry<Object, Object> field : fields.entrySet()) {
+            String name = field.getKey().toString();
+            if (name.endsWith(ITEM_SUFFIX)) {
+                stored.add(Map.entry(Long.valueOf(name.substring(0, name.length() - ITEM_SUFFIX.length())),
+                        read(field.getValue().toString())));
+            }
+        }
+        stored.sort(Comparator.comparingLong(entry -> entry.getValue().addedAt()));
+
+        Cart cart = Cart.builder()
+                .userId(userId)
+                .build();
+
+        for (Map.Entry<Long, StoredItem> entry : stored) {
+            Object quantity = fields.get(entry.getKey().toString());
+            if (quantity == null) {
+                continue;
+            }
+
+            cart.addCartItem(CartItem.builder()
+                    .id(entry.getKey())
+                    .productId(entry.getKey())
+                    .productName(entry.getValue().productName())
+                    .price(entry.getValue().price())
+                    .categoryId(entry.getValue().categoryId())
+                    .quantity(Integer.valueOf(quantity.toString()))
+                    .build());
+        }
+        return cart;
+    }
+
+    private String write(StoredItem item) {
+        try {
+            return objectMapper.writeValueAsString(item);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Failed to serialize cart item", e);
+        }
+    }
+
+    private StoredItem read(String json) {
+        try {
+            return objectMapper.readValue(json, StoredItem.class);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Failed to read cart item", e);
+        }
+    }
+
+    static String key(Long userId) {
+        return KEY_PREFIX + userId;
+    }
+
+    record StoredItem(String productName, BigDecimal price, Long categoryId, long addedAt) {
+    }
+}
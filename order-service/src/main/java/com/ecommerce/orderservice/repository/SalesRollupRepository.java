@@ -0,0 +1,39 @@
+package com.ecommerce.orderservice.repository;
+
+import com.ecommerce.orderservice.dto.SalesRollupResponse;
+import com.ecommerce.orderservice.entity.SalesRollup;
+import com.ecommerce.orderservice.entity.SalesRollup.Dimension;
+import com.ecommerce.orderservice.entity.SalesRollup.Granularity;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface SalesRollupRepository extends JpaRepository<SalesRollup, SalesRollup.Key> {
+
+    @Query("SELECT r FROM SalesRollup r WHERE r.granularity = :granularity AND r.dimension = :dimension " +
+            "AND r.dimensionId = :dimensionId AND r.bucketStart >= :from AND r.bucketStart < :to " +
+            "ORDER BY r.bucketStart")
+    List<SalesRollup> findSeries(@Param("granularity") Granularity granularity,
+                                 @Param("dimension") Dimension dimension,
+                                 @Param("dimensionId") Long dimensionId,
+                                 @Param("from") LocalDateTime from,
+                                 @Param("to") LocalDateTime to);
+
+    // Best sellers over a range, summed from daily rows
+    @Query("SELECT new com.ecommerce.orderservice.dto.SalesRollupResponse(" +
+            "r.dimension, r.dimensionId, SUM(r.revenue), SUM(r.units), SUM(r.orderCount)) " +
+            "FROM SalesRollup r " +
+            "WHERE r.granularity = com.ecommerce.orderservice.entity.SalesRollup.Granularity.DAY " +
+            "AND r.dimension = :dimension AND r.bucketStart >= :from AND r.bucketStart < :to " +
+            "GROUP BY r.dimension, r.dimensionId ORDER BY SUM(r.revenue) DESC")
+    List<SalesRollupResponse> findTop(@Param("dimension") Dimension dimension,
+                                      @Param("from") LocalDateTime from,
+                                      @Param("to") LocalDateTime to,
+                                      Pageable pageable);
+}
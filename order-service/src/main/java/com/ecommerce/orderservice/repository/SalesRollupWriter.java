@@ -0,0 +1,112 @@
+package com.ecommerce.orderservice.repository;
+
+import com.ecommerce.orderservice.entity.SalesRollup;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * JDBC side of the sales rollups: additive upserts into {@code sales_rollups} and the
+ * order line reads the deltas are computed from. Rebuilds read archived orders as well.
+ */
+@Repository
+@RequiredArgsConstructor
+public class SalesRollupWriter {
+
+    private static final String UPSERT =
+            "INSERT INTO sales_rollups (granularity, dimension, dimension_id, bucket_start, revenue, units, order_count) " +
+                    "VALUES (?, ?, ?, ?, ?, ?, ?) " +
+                    "ON CONFLICT (granularity, dimension, dimension_id, bucket_start) DO UPDATE SET " +
+                    "revenue = sales_rollups.revenue + EXCLUDED.revenue, " +
+                    "units = sales_rollups.units + EXCLUDED.units, " +
+                    "order_count = sales_rollups.order_count + EXCLUDED.order_count";
+
+    private static final String DELETE_RANGE =
+            "DELETE FROM sales_rollups WHERE bucket_start >= ? AND bucket_start < ?";
+
+    private static final String SELECT_LINES =
+            "SELECT o.id, o.created_at, i.product_id, i.category_id, i.subtotal, i.quantity " +
+                    "FROM orders o JOIN order_items i ON i.order_id = o.id WHERE o.id = ANY (?)";
+
+    // Keyset over order ids so a batch never splits an order's lines
+    private static final String SELECT_LINE_BATCH =
+            "SELECT o.id, o.created_at, i.product_id, i.category_id, i.subtotal, i.quantity " +
+                    "FROM orders o JOIN order_items i ON i.order_id = o.id " +
+                    "WHERE o.id IN (SELECT id FROM orders WHERE created_at >= ? AND created_at < ? " +
+                    "AND status <> 'CANCELLED' AND id > ? ORDER BY id LIMIT ?) " +
+                    "ORDER BY o.id";
+
+    // Same over live and archived orders: the batch's ids are picked from both tables first,
+    // so keyset paging cannot skip past ids of the other table
+    private static final String SELECT_LINE_BATCH_WITH_ARCHIVE =
+            "WITH batch AS (SELECT id FROM (" +
+                    "SELECT id FROM orders WHERE created_at >= ? AND created_at < ? AND status <> 'CANCELLED' AND id > ? " +
+                    "UNION ALL " +
+                    "SELECT id FROM orders_archive WHERE created_at >= ? AND created_at < ? AND status <> 'CANCELLED' AND id > ?" +
+                    ") ids ORDER BY id LIMIT ?) " +
+                    "SELECT o.id, o.created_at, i.product_id, i.category_id, i.subtotal, i.quantity " +
+                    "FROM orders o JOIN order_items i ON i.order_id = o.id WHERE o.id IN (SELECT id FROM batch) " +
+                    "UNION ALL " +
+                    "SELECT o.id, o.created_at, i.product_id, i.category_id, i.subtotal, i.quantity " +
+                    "FROM orders_archive o JOIN order_items_archive i ON i.order_id = o.id WHERE o.id IN (SELECT id FROM batch) " +
+                    "ORDER BY id";
+
+    private static final RowMapper<SaleLine> LINE_MAPPER = (rs, rowNum) -> new SaleLine(
+            rs.getLong("id"),
+            rs.getTimestamp("created_at").toLocalDateTime(),
+            rs.getLong("product_id"),
+            rs.getObject("category_id", Long.class),
+            rs.getBigDecimal("subtotal"),
+            rs.getInt("quantity"));
+
+    private final JdbcTemplate jdbcTemplate;
+    private final OrderArchiveRepository orderArchiveRepository;
+
+    public record SaleLine(Long orderId, LocalDateTime createdAt, Long productId, Long categoryId,
+                           BigDecimal revenue, int units) {
+    }
+
+    public void upsert(Collection<SalesRollup> deltas) {
+        jdbcTemplate.batchUpdate(UPSERT, deltas, deltas.size(), (ps, delta) -> {
+            ps.setString(1, delta.getGranularity().name());
+            ps.setString(2, delta.getDimension().name());
+            ps.setLong(3, delta.getDimensionId());
+            ps.setTimestamp(4, Timestamp.valueOf(delta.getBucketStart()));
+            ps.setBigDecimal(5, delta.getRevenue());
+            ps.setLong(6, delta.getUnits());
+            ps.setLong(7, delta.getOrderCount());
+        });
+    }
+
+    public int deleteRange(LocalDateTime from, LocalDateTime to) {
+        return jdbcTemplate.update(DELETE_RANGE, Timestamp.valueOf(from), Timestamp.valueOf(to));
+    }
+
+    public List<SaleLine> findLines(Collection<Long> orderIds) {
+        return jdbcTemplate.query(connection -> {
+            PreparedStatement ps = connection.prepareStatement(SELECT_LINES);
+            ps.setArray(1, connection.createArrayOf("bigint", orderIds.toArray(Long[]::new)));
+            return ps;
+        }, LINE_MAPPER);
+    }
+
+    // Lines of the next orderLimit non-cancelled orders created in [from, to) after afterOrderId,
+    // archived ones included so a rebuild keeps the revenue of orders moved out of the live tables
+    public List<SaleLine> findLineBatch(LocalDateTime from, LocalDateTime to, long afterOrderId, int orderLimit) {
+        if (orderArchiveRepository.tablesExist()) {
+            return jdbcTemplate.query(SELECT_LINE_BATCH_WITH_ARCHIVE, LINE_MAPPER,
+                    Timestamp.valueOf(from), Timestamp.valueOf(to), afterOrderId,
+                    Timestamp.valueOf(from), Timestamp.valueOf(to), afterOrderId, orderLimit);
+        }
+        return jdbcTemplate.query(SELECT_LINE_BATCH, LINE_MAPPER,
+                Timestamp.valueOf(from), Timestamp.valueOf(to), afterOrderId, orderLimit);
+    }
+}
@@ -0,0 +1,68 @@
+package com.ecommerce.orderservice.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Serializes cart mutations per user with a fixed set of striped locks.
+ * <p>
+ * Mutations for the same user run one after another, while different users almost always
+ * land on different stripes and run in parallel. The lock must wrap the whole transaction,
+ * so callers pass in work that opens and commits its own. Optimistic lock failures, which
+ * can still happen across instances, are retried a few times under the lock.
+ */
+@Component
+@Slf4j
+public class CartMutationExecutor {
+
+    private final ReentrantLock[] stripes;
+    private final int mask;
+    private final int maxRetries;
+
+    public CartMutationExecutor(@Value("${cart.mutation.stripes:1024}") int stripeCount,
+                                @Value("${cart.mutation.optimistic-retries:3}") int maxRetries) {
+        int size = Integer.highestOneBit(Math.max(1, stripeCount - 1)) << 1;
+        this.stripes = new ReentrantLock[size];
+        for (int i = 0; i < size; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+        this.mask = size - 1;
+        this.maxRetries = maxRetries;
+    }
+
+    public <T> T execute(Long userId, Supplier<T> mutation) {
+        ReentrantLock lock = stripeFor(userId);
+        lock.lock();
+        try {
+            for (int attempt = 0; ; attempt++) {
+                try {
+                    return mutation.get();
+                } catch (OptimisticLockingFailureException e) {
+                    if (attempt >= maxRetries) {
+                        throw e;
+                    }
+                    log.debug("Optimistic lock conflict on cart of user {}, retrying", userId);
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void run(Long userId, Runnable mutation) {
+        execute(userId, () -> {
+            mutation.run();
+            return null;
+        });
+    }
+
+    private ReentrantLock stripeFor(Long userId) {
+        long hash = userId * 0x9E3779B97F4A7C15L;
+        return stripes[(int) (hash ^ (hash >>> 32)) & mask];
+    }
+}
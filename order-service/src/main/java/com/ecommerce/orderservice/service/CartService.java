@@ -3,15 +3,18 @@ package com.ecommerce.orderservice.service;
 import com.ecommerce.orderservice.dto.CartItemRequest;
 import com.ecommerce.orderservice.dto.CartItemResponse;
 import com.ecommerce.orderservice.dto.CartResponse;
+import com.ecommerce.orderservice.dto.CheckoutValidationResponse;
+import com.ecommerce.orderservice.dto.ProductDTO;
 import com.ecommerce.orderservice.entity.Cart;
 import com.ecommerce.orderservice.entity.CartItem;
-import com.ecommerce.orderservice.repository.CartRepository;
+import com.ecommerce.orderservice.repository.CartStore;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.util.List;
 import java.util.stream.Collectors;
 
 @Service
@@ -19,86 +22,57 @@ import java.util.stream.Collectors;
 @Slf4j
 public class CartService {
 
-    private final CartRepository cartRepository;
+    private final CartStore cartStore;
     private final ProductClientService productClientService;
+    private final CheckoutValidationService checkoutValidationService;
+    private final CartMutationExecutor cartMutationExecutor;
 
-    @Transactional
     public CartResponse addItemToCart(Long userId, CartItemRequest request) {
         log.info("Adding item to cart - User: {}, Product: {}", userId, request.getProductId());
 
         // Get product details from Product Service
-        var productResponse = productClientService.getProduct(request.getProductId());
-
-        // Get or create cart
-        Cart cart = cartRepository.findByUserId(userId)
-                .orElseGet(() -> {
-                    Cart newCart = Cart.builder()
-                            .userId(userId)
-                            .build();
-                    return cartRepository.save(newCart);
-                });
-
-        // Check if product already in cart
-        CartItem existingItem = cart.getCartItems().stream()
-                .filter(item -> item.getProductId().equals(request.getProductId()))
-                .findFirst()
-                .orElse(null);
-
-        if (existingItem != null) {
-            // Update quantity
-            existingItem.setQuantity(existingItem.getQuantity() + request.getQuantity());
-        } else {
-            // Add new item
-            CartItem newItem = CartItem.builder()
-                    .productId(productResponse.getId())
-                    .productName(productResponse.getName())
-                    .price(productResponse.getPrice())
-                    .quantity(request.getQuantity())
-                    .build();
-            cart.addCartItem(newItem);
-        }
-
-        Cart savedCart = cartRepository.save(cart);
+        ProductDTO product = productClientService.getProduct(request.getProductId());
+
+        Cart savedCart = cartMutationExecutor.execute(userId, () -> {
+            try {
+                return cartStore.addItem(userId, product, request.getQuantity());
+            } catch (DataIntegrityViolationException e) {
+                // Another instance created the same cart or line first, merge into it
+                log.info("Concurrent add detected for user {}, retrying", userId);
+                return cartStore.addItem(userId, product, request.getQuantity());
+            }
+        });
         log.info("Item added to cart successfully");
 
         return mapToCartResponse(savedCart);
     }
 
-    @Transactional
     public CartResponse updateCartItem(Long userId, Long itemId, Integer quantity) {
         log.info("Updating cart item - User: {}, Item: {}, Quantity: {}", userId, itemId, quantity);
 
-        Cart cart = cartRepository.findByUserId(userId)
-                .orElseThrow(() -> new RuntimeException("Cart not found for user: " + userId));
-
-        CartItem item = cart.getCartItems().stream()
-                .filter(ci -> ci.getId().equals(itemId))
-                .findFirst()
-                .orElseThrow(() -> new RuntimeException("Cart item not found: " + itemId));
-
-        if (quantity <= 0) {
-            cart.removeCartItem(item);
-        } else {
-            item.setQuantity(quantity);
-        }
-
-        Cart savedCart = cartRepository.save(cart);
+        Cart savedCart = cartMutationExecutor.execute(userId,
+                () -> cartStore.updateItemQuantity(userId, itemId, quantity));
         log.info("Cart item updated successfully");
 
         return mapToCartResponse(savedCart);
     }
 
-    @Transactional
     public CartResponse removeItemFromCart(Long userId, Long itemId) {
         log.info("Removing item from cart - User: {}, Item: {}", userId, itemId);
 
-        Cart cart = cartRepository.findByUserId(userId)
-                .orElseThrow(() -> new RuntimeException("Cart not found for user: " + userId));
+        Cart savedCart = cartMutationExecutor.execute(userId,
+                () -> cartStore.removeItem(userId, itemId));
+        log.info("Item removed from cart successfully");
+
+        return mapToCartResponse(savedCart);
+    }
 
-        cart.getCartItems().removeIf(item -> item.getId().equals(itemId));
+    public CartResponse removeItemsFromCart(Long userId, List<Long> itemIds) {
+        log.info("Removing {} items from cart - User: {}", itemIds.size(), userId);
 
-        Cart savedCart = cartRepository.save(cart);
-        log.info("Item removed from cart successfully");
+        Cart savedCart = cartMutationExecutor.execute(userId,
+                () -> cartStore.removeItems(userId, itemIds));
+        log.info("Cart items removed successfully");
 
         return mapToCartResponse(savedCart);
     }
@@ -106,47 +80,44 @@ public class CartService {
     public CartResponse getCart(Long userId) {
         log.info("Fetching cart for user: {}", userId);
 
-        Cart cart = cartRepository.findByUserId(userId)
-                .orElseGet(() -> {
-                    Cart newCart = Cart.builder()
-                            .userId(userId)
-                            .build();
-                    return cartRepository.save(newCart);
-                });
+        Cart cart = cartStore.getCart(userId);
 
         return mapToCartResponse(cart);
     }
 
-    @Transactional
+    public CheckoutValidationResponse validateCart(Long userId) {
+        log.info("Validating cart for user: {}", userId);
+
+        return checkoutValidationService.withCurrentCatalog(userId, catalog ->
+                cartMutationExecutor.execute(userId, () -> {
+                    Cart cart = cartStore.findCart(userId)
+                            .orElseThrow(() -> new RuntimeException("Cart not found for user: " + userId));
+
+                    CheckoutValidationResponse validation = checkoutValidationService.validateAndReprice(cart, catalog);
+                    cartStore.save(cart);
+
+                    return validation;
+                }));
+    }
+
     public void clearCart(Long userId) {
         log.info("Clearing cart for user: {}", userId);
 
-        Cart cart = cartRepository.findByUserId(userId)
-                .orElseThrow(() -> new RuntimeException("Cart not found for user: " + userId));
-
-        cart.clearItems();
-        cartRepository.save(cart);
+        cartMutationExecutor.run(userId, () -> cartStore.clear(userId));
 
         log.info("Cart cleared successfully");
     }
 
+    // Totals are maintained incrementally by the cart itself
     private CartResponse mapToCartResponse(Cart cart) {
-        BigDecimal totalAmount = cart.getCartItems().stream()
-                .map(item -> item.getPrice().multiply(BigDecimal.valueOf(item.getQuantity())))
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-
-        int totalItems = cart.getCartItems().stream()
-                .mapToInt(CartItem::getQuantity)
-                .sum();
-
         return CartResponse.builder()
                 .id(cart.getId())
                 .userId(cart.getUserId())
                 .items(cart.getCartItems().stream()
                         .map(this::mapToCartItemResponse)
                         .collect(Collectors.toList()))
-                .totalAmount(totalAmount)
-                .totalItems(totalItems)
+                .totalAmount(cart.getTotalAmount())
+                .totalItems(cart.getTotalItems())
                 .build();
     }
 
@@ -0,0 +1,122 @@
+package com.ecommerce.orderservice.service;
+
+import com.ecommerce.orderservice.repository.CartSweepRepository;
+import com.ecommerce.orderservice.repository.CartSweepRepository.SweepResult;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Deletes carts that are empty and untouched for {@code cart.sweeper.empty-retention}, and
+ * carts of any size untouched for {@code cart.sweeper.idle-retention}.
+ * <p>
+ * Work is done in chunks of {@code cart.sweeper.batch-size} carts, one short transaction each,
+ * with a pause between chunks so the sweep never competes with checkout for long.
+ */
+@Component
+@Slf4j
+public class CartSweeper {
+
+    private final CartSweepRepository cartSweepRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final Duration emptyRetention;
+    private final Duration idleRetention;
+    private final int batchSize;
+    private final int maxBatchesPerRun;
+    private final Duration pause;
+
+    private final LongAdder runs = new LongAdder();
+    private final LongAdder cartsDeleted = new LongAdder();
+    private final LongAdder itemsDeleted = new LongAdder();
+    private final AtomicLong lastRunMillis = new AtomicLong();
+    private final AtomicLong longestRunMillis = new AtomicLong();
+    private volatile LocalDateTime lastRunAt;
+
+    public CartSweeper(CartSweepRepository cartSweepRepository,
+                       TransactionTemplate transactionTemplate,
+                       @Value("${cart.sweeper.enabled:true}") boolean enabled,
+                       @Value("${cart.sweeper.empty-retention:P1D}") Duration emptyRetention,
+                       @Value("${cart.sweeper.idle-retention:P30D}") Duration idleRetention,
+                       @Value("${cart.sweeper.batch-size:500}") int batchSize,
+                       @Value("${cart.sweeper.max-batches-per-run:200}") int maxBatchesPerRun,
+                       @Value("${cart.sweeper.pause:PT0.2S}") Duration pause) {
+        this.cartSweepRepository = cartSweepRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.enabled = enabled;
+        this.emptyRetention = emptyRetention;
+        this.idleRetention = idleRetention;
+        this.batchSize = batchSize;
+        this.maxBatchesPerRun = maxBatchesPerRun;
+        this.pause = pause;
+    }
+
+    @Scheduled(cron = "${cart.sweeper.cron:0 15 * * * *}")
+    public void sweep() {
+        if (!enabled) {
+            return;
+        }
+
+        long started = System.nanoTime();
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime emptyCutoff = now.minus(emptyRetention);
+        LocalDateTime idleCutoff = now.minus(idleRetention);
+        int carts = 0;
+        int items = 0;
+        try {
+            for (int batch = 0; batch < maxBatchesPerRun; batch++) {
+                SweepResult result = transactionTemplate.execute(status -> {
+                    List<Long> ids = cartSweepRepository.lockSweepableIds(emptyCutoff, idleCutoff, batchSize);
+                    return ids.isEmpty() ? new SweepResult(0, 0) : cartSweepRepository.delete(ids);
+                });
+                if (result == null || result.carts() == 0) {
+                    break;
+                }
+                carts += result.carts();
+                items += result.items();
+                cartsDeleted.add(result.carts());
+                itemsDeleted.add(result.items());
+                if (result.carts() < batchSize) {
+                    break;
+                }
+                Thread.sleep(pause.toMillis());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (RuntimeException e) {
+            // Chunks already committed stay deleted; the next run picks up the rest
+            log.warn("Cart sweep stopped after {} carts: {}", carts, e.getMessage());
+        }
+
+        long elapsed = Duration.ofNanos(System.nanoTime() - started).toMillis();
+        runs.increment();
+        lastRunMillis.set(elapsed);
+        longestRunMillis.accumulateAndGet(elapsed, Math::max);
+        lastRunAt = now;
+        if (carts > 0) {
+            log.info("Swept {} carts and {} cart items in {} ms", carts, items, elapsed);
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("runs", runs.sum());
+        stats.put("cartsDeleted", cartsDeleted.sum());
+        stats.put("itemsDeleted", itemsDeleted.sum());
+        stats.put("lastRunAt", lastRunAt);
+        stats.put("lastRunMillis", lastRunMillis.get());
+        stats.put("longestRunMillis", longestRunMillis.get());
+        return stats;
+    }
+}
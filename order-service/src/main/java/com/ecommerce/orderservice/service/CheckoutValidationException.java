@@ -0,0 +1,21 @@
+package com.ecommerce.orderservice.service;
+
+import com.ecommerce.orderservice.dto.CheckoutValidationResponse;
+
+/**
+ * Checkout was refused because the cart no longer matches the catalog.
+ * Carries the full validation so the client can show what changed.
+ */
+public class CheckoutValidationException extends RuntimeException {
+
+    private final CheckoutValidationResponse validation;
+
+    public CheckoutValidationException(CheckoutValidationResponse validation) {
+        super("Cart changed since items were added: " + validation.getIssues().size() + " item(s) need review");
+        this.validation = validation;
+    }
+
+    public CheckoutValidationResponse getValidation() {
+        return validation;
+    }
+}
@@ -0,0 +1,134 @@
+package com.ecommerce.orderservice.service;
+
+import com.ecommerce.orderservice.dto.CheckoutIssueResponse;
+import com.ecommerce.orderservice.dto.CheckoutIssueResponse.IssueType;
+import com.ecommerce.orderservice.dto.CheckoutValidationResponse;
+import com.ecommerce.orderservice.dto.ProductDTO;
+import com.ecommerce.orderservice.entity.Cart;
+import com.ecommerce.orderservice.entity.CartItem;
+import com.ecommerce.orderservice.repository.CartStore;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class CheckoutValidationService {
+
+    private static final int MAX_LOOKUPS = 3;
+
+    private final ProductClientService productClientService;
+    private final CartStore cartStore;
+
+    /**
+     * Runs {@code work} with the current catalog state of the products in the user's cart.
+     * <p>
+     * The lookup is a remote call, so it is made first, outside the cart lock and any
+     * transaction; {@code work} then locks, reloads the cart and validates it against the
+     * fetched state. Should the cart have gained products in between, validation rolls the
+     * work back and the lookup is repeated.
+     */
+    public <T> T withCurrentCatalog(Long userId, Function<Catalog, T> work) {
+        for (int attempt = 1; ; attempt++) {
+            Set<Long> productIds = Set.copyOf(cartStore.getCart(userId).getCartItems().stream()
+                    .map(CartItem::getProductId)
+                    .toList());
+            Catalog catalog = new Catalog(productIds, productClientService.getProducts(productIds));
+            try {
+                return work.apply(catalog);
+            } catch (CatalogOutdatedException e) {
+                if (attempt >= MAX_LOOKUPS) {
+                    throw new RuntimeException("Cart keeps changing during checkout, please retry");
+                }
+                log.debug("Cart of user {} changed during product lookup, looking up again", userId);
+            }
+        }
+    }
+
+    /**
+     * Checks every cart line against the catalog state fetched by {@link #withCurrentCatalog}.
+     * Lines whose price changed are re-priced in place, so the caller must persist the cart
+     * for the new prices to stick; unavailable, inactive and short-stock lines are only reported.
+     */
+    public CheckoutValidationResponse validateAndReprice(Cart cart, Catalog catalog) {
+        List<Long> productIds = cart.getCartItems().stream()
+                .map(CartItem::getProductId)
+                .toList();
+        if (!catalog.productIds().containsAll(productIds)) {
+            throw new CatalogOutdatedException();
+        }
+
+        Map<Long, ProductDTO> products = catalog.products();
+        log.info("Validating cart {} - {} item(s), {} product(s) found",
+                cart.getId(), productIds.size(), products.size());
+
+        List<CheckoutIssueResponse> issues = new ArrayList<>();
+
+        for (CartItem item : cart.getCartItems()) {
+            ProductDTO product = products.get(item.getProductId());
+
+            if (product == null) {
+                issues.add(issue(item, IssueType.UNAVAILABLE).build());
+                continue;
+            }
+
+            if (!Boolean.TRUE.equals(product.getActive())) {
+                issues.add(issue(item, IssueType.INACTIVE).build());
+                continue;
+            }
+
+            if (product.getStock() != null && product.getStock() < item.getQuantity()) {
+                issues.add(issue(item, IssueType.INSUFFICIENT_STOCK)
+                        .availableStock(product.getStock())
+                        .build());
+            }
+
+            // Lines added before categories were tracked pick theirs up here
+            if (item.getCategoryId() == null) {
+                item.setCategoryId(product.getCategoryId());
+            }
+
+            if (item.getPrice().compareTo(product.getPrice()) != 0) {
+                issues.add(issue(item, IssueType.PRICE_CHANGED)
+                        .currentPrice(product.getPrice())
+                        .build());
+                cart.repriceItem(item, product.getPrice());
+            }
+        }
+
+        return CheckoutValidationResponse.builder()
+                .userId(cart.getUserId())
+                .valid(issues.isEmpty())
+                .issues(issues)
+                .totalAmount(cart.getTotalAmount())
+                .build();
+    }
+
+    private CheckoutIssueResponse.CheckoutIssueResponseBuilder issue(CartItem item, IssueType type) {
+        return CheckoutIssueResponse.builder()
+                .productId(item.getProductId())
+                .productName(item.getProductName())
+                .issue(type)
+                .previousPrice(item.getPrice())
+                .requestedQuantity(item.getQuantity());
+    }
+
+    // Products looked up for a cart; ids missing from products are unknown to the catalog
+    public record Catalog(Set<Long> productIds, Map<Long, ProductDTO> products) {
+    }
+
+    // The cart holds products that were not looked up; thrown before anything is written
+    private static class CatalogOutdatedException extends RuntimeException {
+
+        CatalogOutdatedException() {
+            super("Cart changed during product lookup");
+        }
+    }
+}
@@ -0,0 +1,245 @@
+package com.ecommerce.orderservice.service;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Sparse co-purchase counts over product pairs, held in primitive arrays.
+ * <p>
+ * Products live in an open-addressing table keyed by the raw product id. Each product keeps
+ * at most {@code neighbours} related products using the space-saving scheme: once its slots
+ * are full, an unseen product replaces the least counted one and starts from that count plus
+ * one. Frequent pairs therefore survive and memory is bounded by
+ * {@code maxProducts * neighbours}, whatever the number of orders. Not thread safe; the owner
+ * serialises writes.
+ */
+final class CoPurchaseIndex {
+
+    private static final int FORMAT_MAGIC = 0x43504958;
+    private static final int FORMAT_VERSION = 1;
+
+    private final int neighbours;
+    private final int maxProducts;
+
+    // Product ids are positive, so 0 marks a free slot
+    private long[] keys;
+    private Neighbours[] values;
+    private int size;
+    private long productsRejected;
+
+    record Neighbour(long productId, long count) {
+    }
+
+    CoPurchaseIndex(int neighbours, int maxProducts) {
+        this.neighbours = neighbours;
+        this.maxProducts = maxProducts;
+        this.keys = new long[64];
+        this.values = new Neighbours[64];
+    }
+
+    int size() {
+        return size;
+    }
+
+    long productsRejected() {
+        return productsRejected;
+    }
+
+    /** Counts every pair of the given distinct product ids in both directions. */
+    void addOrder(long[] products) {
+        for (int i = 0; i < products.length; i++) {
+            Neighbours row = getOrCreate(products[i]);
+            if (row == null) {
+                continue;
+            }
+            for (int j = 0; j < products.length; j++) {
+                if (i != j) {
+                    row.increment(products[j]);
+                }
+            }
+        }
+    }
+
+    List<Neighbour> top(long productId, int limit) {
+        Neighbours row = get(productId);
+        return row != null ? row.top(limit) : List.of();
+    }
+
+    void writeTo(DataOutputStream out, long lastOrderId) throws IOException {
+        out.writeInt(FORMAT_MAGIC);
+        out.writeInt(FORMAT_VERSION);
+        out.writeLong(lastOrderId);
+        out.writeInt(size);
+        for (int slot = 0; slot < keys.length; slot++) {
+            if (keys[slot] != 0) {
+                out.writeLong(keys[slot]);
+                values[slot].writeTo(out);
+            }
+        }
+    }
+
+    /** Loads a checkpoint into this (empty) index and returns the last order id it covers. */
+    long readFrom(DataInputStream in) throws IOException {
+        if (in.readInt() != FORMAT_MAGIC || in.readInt() != FORMAT_VERSION) {
+            throw new IOException("Not a co-purchase checkpoint");
+        }
+        long lastOrderId = in.readLong();
+        int products = in.readInt();
+        for (int p = 0; p < products; p++) {
+            long productId = in.readLong();
+            Neighbours row = getOrCreate(productId);
+            int count = in.readInt();
+            for (int n = 0; n < count; n++) {
+                long neighbour = in.readLong();
+                long hits = in.readLong();
+                if (row != null) {
+                    row.restore(neighbour, hits);
+                }
+            }
+        }
+        return lastOrderId;
+    }
+
+    private Neighbours get(long productId) {
+        int mask = keys.length - 1;
+        for (int slot = mix(productId) & mask; keys[slot] != 0; slot = (slot + 1) & mask) {
+            if (keys[slot] == productId) {
+                return values[slot];
+            }
+        }
+        return null;
+    }
+
+    private Neighbours getOrCreate(long productId) {
+        Neighbours existing = get(productId);
+        if (existing != null) {
+            return existing;
+        }
+        if (size >= maxProducts) {
+            productsRejected++;
+            return null;
+        }
+        if ((size + 1) * 2 > keys.length) {
+            resize();
+        }
+        Neighbours row = new Neighbours(neighbours);
+        insert(keys, values, productId, row);
+        size++;
+        return row;
+    }
+
+    private void resize() {
+        long[] newKeys = new long[keys.length * 2];
+        Neighbours[] newValues = new Neighbours[newKeys.length];
+        for (int slot = 0; slot < keys.length; slot++) {
+            if (keys[slot] != 0) {
+                insert(newKeys, newValues, keys[slot], values[slot]);
+            }
+        }
+        keys = newKeys;
+        values = newValues;
+    }
+
+    private static void insert(long[] keys, Neighbours[] values, long productId, Neighbours row) {
+        int mask = keys.length - 1;
+        int slot = mix(productId) & mask;
+        while (keys[slot] != 0) {
+            slot = (slot + 1) & mask;
+        }
+        keys[slot] = productId;
+        values[slot] = row;
+    }
+
+    private static int mix(long productId) {
+        long h = productId * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    // Fixed-size neighbour list of one product; a linear scan is cheap at this size
+    private static final class Neighbours {
+
+        private final long[] ids;
+        private final long[] counts;
+        private int used;
+
+        Neighbours(int capacity) {
+            this.ids = new long[capacity];
+            this.counts = new long[capacity];
+        }
+
+        void increment(long productId) {
+            int min = 0;
+            for (int i = 0; i < used; i++) {
+                if (ids[i] == productId) {
+                    counts[i]++;
+                    return;
+                }
+                if (counts[i] < counts[min]) {
+                    min = i;
+                }
+            }
+            if (used < ids.length) {
+                ids[used] = productId;
+                counts[used++] = 1;
+                return;
+            }
+            ids[min] = productId;
+            counts[min]++;
+        }
+
+        // Checkpoints written with more neighbours per product keep only the strongest ones
+        void restore(long productId, long count) {
+            if (used < ids.length) {
+                ids[used] = productId;
+                counts[used++] = count;
+                return;
+            }
+            int min = 0;
+            for (int i = 1; i < used; i++) {
+                if (counts[i] < counts[min]) {
+                    min = i;
+                }
+            }
+            if (count > counts[min]) {
+                ids[min] = productId;
+                counts[min] = count;
+            }
+        }
+
+        List<Neighbour> top(int limit) {
+            int[] order = new int[used];
+            for (int i = 0; i < used; i++) {
+                order[i] = i;
+            }
+            int take = Math.min(limit, used);
+            // Partial selection sort: limit is small and used is at most the neighbour capacity
+            for (int i = 0; i < take; i++) {
+                int best = i;
+                for (int j = i + 1; j < used; j++) {
+                    if (counts[order[j]] > counts[order[best]]) {
+                        best = j;
+                    }
+                }
+                int swap = order[i];
+                order[i] = order[best];
+                order[best] = swap;
+            }
+            List<Neighbour> top = new ArrayList<>(take);
+            for (int i = 0; i < take; i++) {
+                top.add(new Neighbour(ids[order[i]], counts[order[i]]));
+            }
+            return top;
+        }
+
+        void writeTo(DataOutputStream out) throws IOException {
+            out.writeInt(used);
+            for (int i = 0; i < used; i++) {
+                out.writeLong(ids[i]);
+                out.writeLong(counts[i]);
+            }
+        }
+    }
+}
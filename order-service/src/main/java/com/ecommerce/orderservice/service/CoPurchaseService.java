@@ -0,0 +1,300 @@
+package com.ecommerce.orderservice.service;
+
+import com.ecommerce.orderservice.dto.RelatedProductResponse;
+import com.ecommerce.orderservice.entity.Order;
+import com.ecommerce.orderservice.entity.OrderItem;
+import com.ecommerce.orderservice.repository.CoPurchaseRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import static com.ecommerce.orderservice.service.TransactionCallbacks.afterCommit;
+
+/**
+ * "Frequently bought together" from a {@link CoPurchaseIndex} kept up to date with every order.
+ * <p>
+ * Committed orders are queued and applied by a single writer thread, so checkout only pays
+ * for one queue offer. The index is checkpointed to {@code analytics.co-purchase.checkpoint-file}
+ * together with the highest order id it covers; on startup the checkpoint is loaded and only
+ * newer orders are replayed from {@code order_items}. Orders that commit out of id order
+ * around a checkpoint can be missed or counted twice, which is fine for a recommendation.
+ */
+@Service
+@Slf4j
+public class CoPurchaseService implements DisposableBean {
+
+    private static final long INITIAL_REPLAY_RETRY_MILLIS = 1_000;
+    private static final long MAX_REPLAY_RETRY_MILLIS = 60_000;
+
+    private final CoPurchaseRepository coPurchaseRepository;
+    private final boolean enabled;
+    private final int maxProductsPerOrder;
+    private final int replayBatchSize;
+    private final Path checkpointFile;
+
+    private final CoPurchaseIndex index;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final ArrayBlockingQueue<long[]> queue;
+    private final Thread writer;
+    private volatile boolean running = true;
+    private volatile boolean ready;
+    // Highest order id applied and the point the startup replay reached; both guarded by the lock
+    private long lastOrderId;
+    private long replayedUpTo;
+
+    private final LongAdder ordersApplied = new LongAdder();
+    private final LongAdder ordersDropped = new LongAdder();
+    private final LongAdder checkpoints = new LongAdder();
+    private volatile LocalDateTime lastCheckpoint;
+
+    public CoPurchaseService(CoPurchaseRepository coPurchaseRepository,
+                             @Value("${analytics.co-purchase.enabled:true}") boolean enabled,
+                             @Value("${analytics.co-purchase.neighbours:20}") int neighbours,
+                             @Value("${analytics.co-purchase.max-products:200000}") int maxProducts,
+                             @Value("${analytics.co-purchase.max-products-per-order:50}") int maxProductsPerOrder,
+                             @Value("${analytics.co-purchase.queue-capacity:10000}") int queueCapacity,
+                             @Value("${analytics.co-purchase.replay-batch-size:1000}") int replayBatchSize,
+                             @Value("${analytics.co-purchase.checkpoint-file:data/co-purchase.idx}") String checkpointFile) {
+        this.coPurchaseRepository = coPurchaseRepository;
+        this.enabled = enabled;
+        this.maxProductsPerOrder = maxProductsPerOrder;
+        this.replayBatchSize = replayBatchSize;
+        this.checkpointFile = Path.of(checkpointFile);
+        this.index = new CoPurchaseIndex(neighbours, maxProducts);
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.writer = new Thread(this::run, "co-purchase-writer");
+        this.writer.setDaemon(true);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (enabled) {
+            writer.start();
+        }
+    }
+
+    public void orderPlaced(Order order) {
+        if (!enabled) {
+            return;
+        }
+        List<Long> productIds = order.getOrderItems().stream().map(OrderItem::getProductId).toList();
+        long[] entry = toEntry(order.getId(), productIds);
+        if (entry == null) {
+            return;
+        }
+        afterCommit(() -> {
+            if (!queue.offer(entry)) {
+                ordersDropped.increment();
+            }
+        });
+    }
+
+    public List<RelatedProductResponse> getRelatedProducts(Long productId, int limit) {
+        lock.readLock().lock();
+        try {
+            return index.top(productId, limit).stream()
+                    .map(neighbour -> RelatedProductResponse.builder()
+                            .productId(neighbour.productId())
+                            .orderCount(neighbour.count())
+                            .build())
+                    .toList();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("ready", ready);
+        stats.put("queueDepth", queue.size());
+        stats.put("ordersApplied", ordersApplied.sum());
+        stats.put("ordersDropped", ordersDropped.sum());
+        lock.readLock().lock();
+        try {
+            stats.put("products", index.size());
+            stats.put("productsRejected", index.productsRejected());
+            stats.put("lastOrderId", lastOrderId);
+        } finally {
+            lock.readLock().unlock();
+        }
+        stats.put("checkpoints", checkpoints.sum());
+        stats.put("lastCheckpoint", lastCheckpoint);
+        return stats;
+    }
+
+    @Scheduled(fixedDelayString = "${analytics.co-purchase.checkpoint-interval:PT5M}")
+    public void checkpoint() {
+        if (!ready) {
+            return;
+        }
+        // Written next to the target and moved over it, so a crash never leaves half a file
+        Path temp = checkpointFile.resolveSibling(checkpointFile.getFileName() + ".tmp");
+        lock.readLock().lock();
+        try {
+            if (checkpointFile.getParent() != null) {
+                Files.createDirectories(checkpointFile.getParent());
+            }
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+                index.writeTo(out, lastOrderId);
+            }
+            Files.move(temp, checkpointFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            checkpoints.increment();
+            lastCheckpoint = LocalDateTime.now();
+        } catch (IOException e) {
+            log.warn("Failed to checkpoint the co-purchase index: {}", e.getMessage());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void destroy() throws InterruptedException {
+        running = false;
+        if (writer.isAlive()) {
+            writer.join(TimeUnit.SECONDS.toMillis(10));
+        }
+        checkpoint();
+    }
+
+    private void run() {
+        try {
+            loadCheckpoint();
+            replayWithRetry();
+            ready = true;
+            while (running || !queue.isEmpty()) {
+                long[] entry = queue.poll(200, TimeUnit.MILLISECONDS);
+                if (entry == null) {
+                    continue;
+                }
+                try {
+                    apply(entry);
+                } catch (RuntimeException e) {
+                    log.error("Failed to apply order {} to the co-purchase index: {}", entry[0], e.getMessage(), e);
+                    ordersDropped.increment();
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // The database may be down at startup; a failed replay resumes from the last applied order
+    private void replayWithRetry() throws InterruptedException {
+        long delay = INITIAL_REPLAY_RETRY_MILLIS;
+        while (true) {
+            try {
+                replay();
+                return;
+            } catch (RuntimeException e) {
+                if (!running) {
+                    return;
+                }
+                log.warn("Co-purchase replay failed, retrying in {} ms: {}", delay, e.getMessage());
+                Thread.sleep(delay);
+                delay = Math.min(delay * 2, MAX_REPLAY_RETRY_MILLIS);
+            }
+        }
+    }
+
+    private void loadCheckpoint() {
+        if (Files.exists(checkpointFile)) {
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(checkpointFile)))) {
+                lock.writeLock().lock();
+                try {
+                    lastOrderId = index.readFrom(in);
+                } finally {
+                    lock.writeLock().unlock();
+                }
+                log.info("Loaded co-purchase checkpoint covering orders up to {}", lastOrderId);
+            } catch (IOException e) {
+                log.warn("Ignoring unreadable co-purchase checkpoint {}: {}", checkpointFile, e.getMessage());
+            }
+        }
+    }
+
+    private void replay() {
+        long replayed = 0;
+        while (running) {
+            Map<Long, List<Long>> batch = coPurchaseRepository.findOrderProducts(lastOrderId, replayBatchSize);
+            if (batch.isEmpty()) {
+                break;
+            }
+            long batchEnd = lastOrderId;
+            for (Map.Entry<Long, List<Long>> order : batch.entrySet()) {
+                long[] entry = toEntry(order.getKey(), order.getValue());
+                if (entry != null) {
+                    apply(entry);
+                }
+                batchEnd = order.getKey();
+            }
+            // Orders with fewer than two products still move the replay position forward
+            lock.writeLock().lock();
+            try {
+                lastOrderId = Math.max(lastOrderId, batchEnd);
+            } finally {
+                lock.writeLock().unlock();
+            }
+            replayed += batch.size();
+        }
+        lock.writeLock().lock();
+        try {
+            replayedUpTo = lastOrderId;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Co-purchase index ready: replayed {} orders", replayed);
+    }
+
+    // entry[0] is the order id, the rest are the distinct product ids
+    private void apply(long[] entry) {
+        lock.writeLock().lock();
+        try {
+            // Queued during the replay and already covered by it
+            if (entry[0] <= replayedUpTo) {
+                return;
+            }
+            long[] products = new long[entry.length - 1];
+            System.arraycopy(entry, 1, products, 0, products.length);
+            index.addOrder(products);
+            lastOrderId = Math.max(lastOrderId, entry[0]);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        ordersApplied.increment();
+    }
+
+    private long[] toEntry(long orderId, List<Long> productIds) {
+        long[] distinct = productIds.stream().mapToLong(Long::longValue).distinct()
+                .limit(maxProductsPerOrder).toArray();
+        if (distinct.length < 2) {
+            return null;
+        }
+        long[] entry = new long[distinct.length + 1];
+        entry[0] = orderId;
+        System.arraycopy(distinct, 0, entry, 1, distinct.length);
+        return entry;
+    }
+}
@@ -0,0 +1,9 @@
+package com.ecommerce.orderservice.service;
+
+// Idempotency-Key reused for a different request, or its first request is still running
+public class IdempotencyConflictException extends RuntimeException {
+
+    public IdempotencyConflictException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,177 @@
+package com.ecommerce.orderservice.service;
+
+import com.ecommerce.orderservice.dto.OrderResponse;
+import com.ecommerce.orderservice.entity.IdempotencyRecord;
+import com.ecommerce.orderservice.repository.IdempotencyRecordRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Idempotency-Key bookkeeping for order creation.
+ * <p>
+ * Recent keys live in memory: the first request for a key claims it and later requests
+ * for the same key wait on its result instead of building a second order. Once an order
+ * exists the key is also recorded in {@code order_idempotency_keys} within the order's
+ * transaction, so retries that arrive after the in-memory window or on another instance
+ * still resolve to the original order.
+ */
+@Component
+@Slf4j
+public class IdempotencyKeyStore {
+
+    private static final int MAX_KEY_LENGTH = 255;
+
+    private final IdempotencyRecordRepository idempotencyRecordRepository;
+    private final Duration ttl;
+    private final Duration memoryTtl;
+    private final Duration inFlightWait;
+
+    private final Map<String, Claim> claims = new ConcurrentHashMap<>();
+
+    public IdempotencyKeyStore(IdempotencyRecordRepository idempotencyRecordRepository,
+                               @Value("${orders.idempotency.ttl:PT24H}") Duration ttl,
+                               @Value("${orders.idempotency.memory-ttl:PT10M}") Duration memoryTtl,
+                               @Value("${orders.idempotency.in-flight-wait:PT10S}") Duration inFlightWait) {
+        this.idempotencyRecordRepository = idempotencyRecordRepository;
+        this.ttl = ttl;
+        this.memoryTtl = memoryTtl;
+        this.inFlightWait = inFlightWait;
+    }
+
+    public Claim claim(Long userId, String idempotencyKey, String fingerprint) {
+        if (idempotencyKey.isBlank() || idempotencyKey.length() > MAX_KEY_LENGTH) {
+            throw new RuntimeException("Idempotency-Key must be 1 to " + MAX_KEY_LENGTH + " characters");
+        }
+
+        String recordKey = userId + ":" + idempotencyKey;
+        while (true) {
+            Claim candidate = new Claim(recordKey, fingerprint, System.nanoTime() + memoryTtl.toNanos());
+            Claim existing = claims.putIfAbsent(recordKey, candidate);
+            if (existing == null) {
+                return candidate;
+            }
+            if (!existing.isExpired() || !existing.result.isDone()) {
+                if (!existing.fingerprint.equals(fingerprint)) {
+                    throw new IdempotencyConflictException("Idempotency-Key was already used for a different request");
+                }
+                return existing.forWaiter();
+            }
+            claims.remove(recordKey, existing);
+        }
+    }
+
+    // Result of the request that owns the claim; failures are rethrown as they happened
+    public OrderResponse await(Claim claim) {
+        try {
+            return claim.result.get(inFlightWait.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            throw new IdempotencyConflictException("A request with this Idempotency-Key is still being processed");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while waiting for the original request");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new RuntimeException(e.getCause());
+        }
+    }
+
+    // Order previously created with this key, possibly by another instance
+    public Optional<Long> findRecordedOrderId(Claim claim) {
+        return idempotencyRecordRepository.findById(claim.recordKey)
+                .filter(record -> record.getExpiresAt().isAfter(LocalDateTime.now()))
+                .map(record -> {
+                    if (!record.getRequestFingerprint().equals(claim.fingerprint)) {
+                        throw new IdempotencyConflictException("Idempotency-Key was already used for a different request");
+                    }
+                    return record.getOrderId();
+                });
+    }
+
+    // Called inside the order transaction; a duplicate key fails the insert with a
+    // DataIntegrityViolationException, rolling the new order back so the caller replays the recorded one.
+    // An expired row the purge has not reached yet no longer counts and is replaced
+    public void record(Claim claim, Long orderId) {
+        idempotencyRecordRepository.deleteExpired(claim.recordKey, LocalDateTime.now());
+        idempotencyRecordRepository.saveAndFlush(newRecord(claim, orderId));
+    }
+
+    // Row for writers that insert orders themselves, e.g. the intake pipeline
+    public IdempotencyRecord newRecord(Claim claim, Long orderId) {
+        return IdempotencyRecord.builder()
+                .recordKey(claim.recordKey)
+                .requestFingerprint(claim.fingerprint)
+                .orderId(orderId)
+                .expiresAt(LocalDateTime.now().plus(ttl))
+                .build();
+    }
+
+    public void complete(Claim claim, OrderResponse response) {
+        claim.result.complete(response);
+    }
+
+    // A failed attempt does not consume the key, so the client can retry it
+    public void fail(Claim claim, RuntimeException error) {
+        claims.remove(claim.recordKey, claim);
+        claim.result.completeExceptionally(error);
+    }
+
+    @Scheduled(fixedDelayString = "${orders.idempotency.purge-interval:PT10M}")
+    @Transactional
+    public void purgeExpired() {
+        claims.values().removeIf(claim -> claim.isExpired() && claim.result.isDone());
+        int deleted = idempotencyRecordRepository.deleteExpired(LocalDateTime.now());
+        if (deleted > 0) {
+            log.info("Purged {} expired idempotency keys", deleted);
+        }
+    }
+
+    public static class Claim {
+
+        private final String recordKey;
+        private final String fingerprint;
+        private final long expiresAtNanos;
+        private final CompletableFuture<OrderResponse> result;
+        private boolean owner = true;
+
+        private Claim(String recordKey, String fingerprint, long expiresAtNanos) {
+            this(recordKey, fingerprint, expiresAtNanos, new CompletableFuture<>());
+        }
+
+        private Claim(String recordKey, String fingerprint, long expiresAtNanos,
+                      CompletableFuture<OrderResponse> result) {
+            this.recordKey = recordKey;
+            this.fingerprint = fingerprint;
+            this.expiresAtNanos = expiresAtNanos;
+            this.result = result;
+        }
+
+        public boolean isOwner() {
+            return owner;
+        }
+
+        private Claim forWaiter() {
+            Claim waiter = new Claim(recordKey, fingerprint, expiresAtNanos, result);
+            waiter.owner = false;
+            return waiter;
+        }
+
+        private boolean isExpired() {
+            return System.nanoTime() - expiresAtNanos > 0;
+        }
+    }
+}
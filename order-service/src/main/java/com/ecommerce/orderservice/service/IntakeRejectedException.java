@@ -0,0 +1,18 @@
+package com.ecommerce.orderservice.service;
+
+import java.time.Duration;
+
+// Intake queue is full; the client should retry after the given delay
+public class IntakeRejectedException extends RuntimeException {
+
+    private final Duration retryAfter;
+
+    public IntakeRejectedException(Duration retryAfter) {
+        super("Order intake is at capacity, retry later");
+        this.retryAfter = retryAfter;
+    }
+
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+}
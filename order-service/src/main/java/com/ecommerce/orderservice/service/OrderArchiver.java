@@ -0,0 +1,61 @@
+package com.ecommerce.orderservice.service;
+
+import com.ecommerce.orderservice.repository.OrderArchiveRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Moves delivered and cancelled orders older than {@code orders.archive.retention} from the
+ * live tables to the archive, a batch per transaction so locks stay short and a failed run
+ * only loses its current batch.
+ */
+@Component
+@ConditionalOnProperty(name = "orders.archive.enabled", havingValue = "true")
+@Slf4j
+public class OrderArchiver {
+
+    private final OrderArchiveRepository orderArchiveRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration retention;
+    private final int batchSize;
+    private final int maxBatchesPerRun;
+
+    public OrderArchiver(OrderArchiveRepository orderArchiveRepository,
+                         TransactionTemplate transactionTemplate,
+                         @Value("${orders.archive.retention:P180D}") Duration retention,
+                         @Value("${orders.archive.batch-size:500}") int batchSize,
+                         @Value("${orders.archive.max-batches-per-run:20}") int maxBatchesPerRun) {
+        this.orderArchiveRepository = orderArchiveRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.retention = retention;
+        this.batchSize = batchSize;
+        this.maxBatchesPerRun = maxBatchesPerRun;
+    }
+
+    @Scheduled(cron = "${orders.archive.cron:0 30 3 * * *}")
+    public void archive() {
+        LocalDateTime cutoff = LocalDateTime.now().minus(retention);
+        int archived = 0;
+        for (int batch = 0; batch < maxBatchesPerRun; batch++) {
+            Integer moved = transactionTemplate.execute(status -> {
+                List<Long> ids = orderArchiveRepository.lockArchivableIds(cutoff, batchSize);
+                return ids.isEmpty() ? 0 : orderArchiveRepository.move(ids, cutoff);
+            });
+            if (moved == null || moved == 0) {
+                break;
+            }
+            archived += moved;
+        }
+        if (archived > 0) {
+            log.info("Archived {} orders created before {}", archived, cutoff);
+        }
+    }
+}
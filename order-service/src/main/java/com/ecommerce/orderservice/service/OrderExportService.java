@@ -0,0 +1,223 @@
+package com.ecommerce.orderservice.service;
+
+import com.ecommerce.orderservice.dto.OrderItemResponse;
+import com.ecommerce.orderservice.dto.OrderResponse;
+import com.ecommerce.orderservice.entity.OrderStatus;
+import com.ecommerce.orderservice.repository.OrderExportRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Streams orders with their items as NDJSON or CSV for reconciliation.
+ * <p>
+ * Orders are written in id order while the cursor is read, so memory does not grow with
+ * the size of the export. Every {@code orders.export.checkpoint-every} orders, and once at
+ * the end, a checkpoint record carries a token; passing it back as {@code checkpoint}
+ * continues after the last order written before it, with the original filters.
+ * Archived orders are included, so an export covers every order whatever its age.
+ */
+@Service
+@Slf4j
+public class OrderExportService {
+
+    private static final String CSV_HEADER = "order_id,user_id,status,total_amount,shipping_address,notes," +
+            "created_at,updated_at,item_id,product_id,product_name,price,quantity,subtotal\n";
+
+    private final OrderExportRepository orderExportRepository;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate readOnlyTransaction;
+    private final int checkpointEvery;
+
+    public enum Format {
+        NDJSON, CSV
+    }
+
+    /** Where an export starts and what it selects; encoded as the checkpoint token. */
+    public record ExportRequest(Format format, long afterOrderId, OrderStatus status,
+                                LocalDateTime from, LocalDateTime to) {
+    }
+
+    public OrderExportService(OrderExportRepository orderExportRepository,
+                              ObjectMapper objectMapper,
+                              PlatformTransactionManager transactionManager,
+                              @Value("${orders.export.checkpoint-every:1000}") int checkpointEvery) {
+        this.orderExportRepository = orderExportRepository;
+        this.objectMapper = objectMapper;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.checkpointEvery = checkpointEvery;
+    }
+
+    /** Builds the request from the filters, or from a checkpoint token when one is given. */
+    public ExportRequest prepare(Format format, OrderStatus status, LocalDateTime from, LocalDateTime to,
+                                 String checkpoint) {
+        if (checkpoint == null || checkpoint.isBlank()) {
+            if (from != null && to != null && !from.isBefore(to)) {
+                throw new RuntimeException("Export range must end after it starts");
+            }
+            return new ExportRequest(format, 0, status, from, to);
+        }
+        try {
+            String[] parts = new String(Base64.getUrlDecoder().decode(checkpoint), StandardCharsets.UTF_8)
+                    .split("\\|", -1);
+            if (parts.length != 5 || !parts[0].equals("v1")) {
+                throw new IllegalArgumentException("unknown token version");
+            }
+            return new ExportRequest(format,
+                    Long.parseLong(parts[1]),
+                    parts[2].isEmpty() ? null : OrderStatus.valueOf(parts[2]),
+                    parts[3].isEmpty() ? null : LocalDateTime.parse(parts[3]),
+                    parts[4].isEmpty() ? null : LocalDateTime.parse(parts[4]));
+        } catch (RuntimeException e) {
+            throw new RuntimeException("Invalid export checkpoint token");
+        }
+    }
+
+    public void export(ExportRequest request, OutputStream target) throws IOException {
+        BufferedOutputStream out = new BufferedOutputStream(target, 64 * 1024);
+        ExportProgress progress = new ExportProgress(request.afterOrderId());
+        if (request.format() == Format.CSV) {
+            write(out, CSV_HEADER);
+        }
+
+        try {
+            readOnlyTransaction.executeWithoutResult(status -> orderExportRepository.stream(
+                    request.afterOrderId(), request.status(), request.from(), request.to(), order -> {
+                        writeOrder(out, request.format(), order);
+                        progress.lastOrderId = order.getId();
+                        if (++progress.exported % checkpointEvery == 0) {
+                            writeCheckpoint(out, request, progress, false);
+                        }
+                    }));
+        } catch (UncheckedIOException e) {
+            // Usually the client went away; the transaction is rolled back and the cursor closed
+            log.info("Order export stopped after {} orders: {}", progress.exported, e.getCause().getMessage());
+            throw e.getCause();
+        }
+
+        writeCheckpoint(out, request, progress, true);
+        out.flush();
+        log.info("Exported {} orders as {}", progress.exported, request.format());
+    }
+
+    private void writeOrder(OutputStream out, Format format, OrderResponse order) {
+        if (format == Format.NDJSON) {
+            writeJsonLine(out, order);
+            return;
+        }
+        if (order.getOrderItems().isEmpty()) {
+            write(out, csvRow(order, null));
+        }
+        for (OrderItemResponse item : order.getOrderItems()) {
+            write(out, csvRow(order, item));
+        }
+    }
+
+    // NDJSON: {"checkpoint": ...} line; CSV: a "#checkpoint" line that CSV readers can skip as a comment
+    private void writeCheckpoint(OutputStream out, ExportRequest request, ExportProgress progress, boolean complete) {
+        String token = encode(request, progress.lastOrderId);
+        if (request.format() == Format.NDJSON) {
+            Map<String, Object> checkpoint = new LinkedHashMap<>();
+            checkpoint.put("checkpoint", token);
+            checkpoint.put("exported", progress.exported);
+            checkpoint.put("complete", complete);
+            writeJsonLine(out, checkpoint);
+        } else {
+            write(out, "#checkpoint," + token + "," + progress.exported + "," + (complete ? "complete" : "partial") + "\n");
+        }
+        try {
+            out.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private String encode(ExportRequest request, long lastOrderId) {
+        String token = String.join("|", "v1",
+                String.valueOf(lastOrderId),
+                request.status() != null ? request.status().name() : "",
+                request.from() != null ? request.from().toString() : "",
+                request.to() != null ? request.to().toString() : "");
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(token.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private void writeJsonLine(OutputStream out, Object value) {
+        try {
+            out.write(objectMapper.writeValueAsBytes(value));
+            out.write('\n');
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Failed to serialise export record", e);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void write(OutputStream out, String text) {
+        try {
+            out.write(text.getBytes(StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private String csvRow(OrderResponse order, OrderItemResponse item) {
+        StringBuilder row = new StringBuilder(256);
+        appendCsv(row, order.getId()).append(',');
+        appendCsv(row, order.getUserId()).append(',');
+        appendCsv(row, order.getStatus()).append(',');
+        appendCsv(row, order.getTotalAmount()).append(',');
+        appendCsv(row, order.getShippingAddress()).append(',');
+        appendCsv(row, order.getNotes()).append(',');
+        appendCsv(row, order.getCreatedAt()).append(',');
+        appendCsv(row, order.getUpdatedAt()).append(',');
+        appendCsv(row, item != null ? item.getId() : null).append(',');
+        appendCsv(row, item != null ? item.getProductId() : null).append(',');
+        appendCsv(row, item != null ? item.getProductName() : null).append(',');
+        appendCsv(row, item != null ? item.getPrice() : null).append(',');
+        appendCsv(row, item != null ? item.getQuantity() : null).append(',');
+        appendCsv(row, item != null ? item.getSubtotal() : null);
+        return row.append('\n').toString();
+    }
+
+    private StringBuilder appendCsv(StringBuilder row, Object value) {
+        if (value == null) {
+            return row;
+        }
+        String text = Objects.toString(value);
+        // Free text that a spreadsheet would run as a formula is kept as text
+        if (value instanceof CharSequence && !text.isEmpty() && "=+-@\t\r".indexOf(text.charAt(0)) >= 0) {
+            text = "'" + text;
+        }
+        if (text.indexOf(',') < 0 && text.indexOf('"') < 0 && text.indexOf('\n') < 0 && text.indexOf('\r') < 0
+                && !text.startsWith("#")) {
+            return row.append(text);
+        }
+        return row.append('"').append(text.replace("\"", "\"\"")).append('"');
+    }
+
+    private static final class ExportProgress {
+
+        private long lastOrderId;
+        private long exported;
+
+        ExportProgress(long lastOrderId) {
+            this.lastOrderId = lastOrderId;
+        }
+    }
+}
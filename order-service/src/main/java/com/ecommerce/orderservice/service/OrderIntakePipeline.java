@@ -0,0 +1,279 @@
+package com.ecommerce.orderservice.service;
+
+import com.ecommerce.orderservice.dto.OrderIntakeStatusResponse;
+import com.ecommerce.orderservice.dto.OrderIntakeStatusResponse.IntakeStatus;
+import com.ecommerce.orderservice.entity.IdempotencyRecord;
+import com.ecommerce.orderservice.entity.Order;
+import com.ecommerce.orderservice.repository.OrderBatchWriter;
+import com.ecommerce.orderservice.repository.OrderRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Accept-then-persist order intake, enabled with {@code orders.intake.async.enabled}.
+ * <p>
+ * Checkout validates the cart, gets an order id from a pre-allocated block and puts the
+ * order on a bounded queue; the client receives 202 with that id straight away. A single
+ * writer thread drains the queue and stores up to {@code orders.intake.batch-size} orders
+ * per transaction with JDBC batch inserts. When the queue is full new orders are rejected
+ * instead of piling up, and clients poll {@code /api/orders/intake/{orderId}} for the outcome.
+ */
+@Component
+@Slf4j
+public class OrderIntakePipeline implements DisposableBean {
+
+    private final OrderBatchWriter orderBatchWriter;
+    private final OrderRepository orderRepository;
+    private final SalesRollupService salesRollupService;
+    private final CoPurchaseService coPurchaseService;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final int batchSize;
+    private final int idBlockSize;
+    private final int maxAttempts;
+    private final Duration retryAfter;
+    private final Duration statusRetention;
+
+    private final ArrayBlockingQueue<PendingOrder> queue;
+    // Queue places reserved by checkouts that have not committed yet
+    private final Semaphore slots;
+    private final ArrayDeque<Long> allocatedIds = new ArrayDeque<>();
+    private final Map<Long, OrderIntakeStatusResponse> statuses = new ConcurrentHashMap<>();
+    private final Thread writer;
+    private volatile boolean running = true;
+
+    private final LongAdder accepted = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder persisted = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder batches = new LongAdder();
+    private final LongAccumulator largestBatch = new LongAccumulator(Math::max, 0);
+
+    public OrderIntakePipeline(OrderBatchWriter orderBatchWriter,
+                               OrderRepository orderRepository,
+                               SalesRollupService salesRollupService,
+                               CoPurchaseService coPurchaseService,
+                               TransactionTemplate transactionTemplate,
+                               @Value("${orders.intake.async.enabled:false}") boolean enabled,
+                               @Value("${orders.intake.queue-capacity:2048}") int queueCapacity,
+                               @Value("${orders.intake.batch-size:100}") int batchSize,
+                               @Value("${orders.intake.id-block-size:50}") int idBlockSize,
+                               @Value("${orders.intake.max-attempts:3}") int maxAttempts,
+                               @Value("${orders.intake.retry-after:PT1S}") Duration retryAfter,
+                               @Value("${orders.intake.status-retention:PT1H}") Duration statusRetention) {
+        this.orderBatchWriter = orderBatchWriter;
+        this.orderRepository = orderRepository;
+        this.salesRollupService = salesRollupService;
+        this.coPurchaseService = coPurchaseService;
+        this.transactionTemplate = transactionTemplate;
+        this.enabled = enabled;
+        this.batchSize = batchSize;
+        this.idBlockSize = idBlockSize;
+        this.maxAttempts = maxAttempts;
+        this.retryAfter = retryAfter;
+        this.statusRetention = statusRetention;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.slots = new Semaphore(queueCapacity);
+
+        this.writer = new Thread(this::drain, "order-intake-writer");
+        if (enabled) {
+            writer.start();
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Assigns the order its id and timestamps and reserves it a place on the queue.
+     * Throws {@link IntakeRejectedException} when the queue is full; nothing is queued then.
+     * <p>
+     * Called inside the checkout transaction, the order is only queued once that transaction
+     * commits, so a checkout that rolls back never gets stored; the reserved place is
+     * released instead.
+     */
+    public void submit(Order order, IdempotencyRecord idempotencyRecord) {
+        if (!running || !slots.tryAcquire()) {
+            rejected.increment();
+            throw new IntakeRejectedException(retryAfter);
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        order.setId(nextOrderId());
+        order.setCreatedAt(now);
+        order.setUpdatedAt(now);
+        if (idempotencyRecord != null) {
+            idempotencyRecord.setOrderId(order.getId());
+        }
+
+        PendingOrder pending = new PendingOrder(order, idempotencyRecord);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            enqueue(pending);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_COMMITTED) {
+                    enqueue(pending);
+                } else {
+                    slots.release();
+                }
+            }
+        });
+    }
+
+    public Optional<OrderIntakeStatusResponse> getStatus(Long orderId) {
+        OrderIntakeStatusResponse status = statuses.get(orderId);
+        if (status != null) {
+            return Optional.of(status);
+        }
+        // Status entries are dropped after a while; a stored order is all that is left then
+        return orderRepository.findUserIdById(orderId)
+                .map(userId -> status(orderId, userId, IntakeStatus.PERSISTED, null));
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("queueDepth", queue.size());
+        stats.put("queueCapacity", queue.size() + queue.remainingCapacity());
+        stats.put("accepted", accepted.sum());
+        stats.put("rejected", rejected.sum());
+        stats.put("persisted", persisted.sum());
+        stats.put("failed", failed.sum());
+        stats.put("batches", batches.sum());
+        stats.put("largestBatch", largestBatch.get());
+        return stats;
+    }
+
+    @Scheduled(fixedDelayString = "${orders.intake.status-cleanup-interval:PT5M}")
+    public void dropOldStatuses() {
+        LocalDateTime cutoff = LocalDateTime.now().minus(statusRetention);
+        statuses.values().removeIf(status ->
+                status.getStatus() != IntakeStatus.ACCEPTED && status.getUpdatedAt().isBefore(cutoff));
+    }
+
+    // Stop accepting, then let the writer store what is already queued
+    @Override
+    public void destroy() throws InterruptedException {
+        running = false;
+        if (enabled) {
+            writer.join(TimeUnit.SECONDS.toMillis(30));
+        }
+    }
+
+    // The place was reserved by submit, so this never has to wait
+    private void enqueue(PendingOrder pending) {
+        Order order = pending.order();
+        statuses.put(order.getId(), status(order.getId(), order.getUserId(), IntakeStatus.ACCEPTED, null));
+        queue.add(pending);
+        accepted.increment();
+    }
+
+    private synchronized Long nextOrderId() {
+        if (allocatedIds.isEmpty()) {
+            allocatedIds.addAll(orderBatchWriter.allocateOrderIds(idBlockSize));
+        }
+        return allocatedIds.poll();
+    }
+
+    private void drain() {
+        List<PendingOrder> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                PendingOrder first = queue.poll(200, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                slots.release(batch.size());
+                persist(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                log.error("Order intake writer error: {}", e.getMessage(), e);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void persist(List<PendingOrder> batch) throws InterruptedException {
+        for (int attempt = 1; attempt <= maxAttempts; attempt++) {
+            try {
+                insert(batch);
+                return;
+            } catch (RuntimeException e) {
+                log.warn("Order batch of {} failed on attempt {}: {}", batch.size(), attempt, e.getMessage());
+                if (attempt < maxAttempts) {
+                    Thread.sleep(200L * attempt);
+                }
+            }
+        }
+
+        // Isolate the orders that keep failing so the rest of the batch is still stored
+        for (PendingOrder pending : batch) {
+            try {
+                insert(List.of(pending));
+            } catch (RuntimeException e) {
+                Long orderId = pending.order().getId();
+                log.error("Order {} could not be stored: {}", orderId, e.getMessage());
+                statuses.put(orderId, status(orderId, pending.order().getUserId(), IntakeStatus.FAILED, e.getMessage()));
+                failed.increment();
+            }
+        }
+    }
+
+    private void insert(List<PendingOrder> batch) {
+        List<Order> orders = batch.stream().map(PendingOrder::order).toList();
+        List<IdempotencyRecord> records = batch.stream().map(PendingOrder::idempotencyRecord).toList();
+        transactionTemplate.executeWithoutResult(status -> orderBatchWriter.insert(orders, records));
+
+        for (Order order : orders) {
+            statuses.put(order.getId(), status(order.getId(), order.getUserId(), IntakeStatus.PERSISTED, null));
+            salesRollupService.orderPlaced(order);
+            coPurchaseService.orderPlaced(order);
+        }
+        persisted.add(orders.size());
+        batches.increment();
+        largestBatch.accumulate(orders.size());
+    }
+
+    private OrderIntakeStatusResponse status(Long orderId, Long userId, IntakeStatus status, String error) {
+        return OrderIntakeStatusResponse.builder()
+                .orderId(orderId)
+                .userId(userId)
+                .status(status)
+                .error(error)
+                .updatedAt(LocalDateTime.now())
+                .build();
+    }
+
+    private record PendingOrder(Order order, IdempotencyRecord idempotencyRecord) {
+    }
+}
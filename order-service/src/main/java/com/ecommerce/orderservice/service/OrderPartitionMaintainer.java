@@ -0,0 +1,48 @@
+package com.ecommerce.orderservice.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Creates the monthly partitions of {@code orders} ahead of time once the table has been
+ * converted with {@code db/order-partitioning.sql}. Rows only land in the default partition
+ * if this job has not run for {@code orders.partitioning.months-ahead} months.
+ */
+@Component
+@ConditionalOnProperty(name = "orders.partitioning.enabled", havingValue = "true")
+@Slf4j
+public class OrderPartitionMaintainer {
+
+    private static final DateTimeFormatter SUFFIX = DateTimeFormatter.ofPattern("yyyyMM");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int monthsAhead;
+
+    public OrderPartitionMaintainer(JdbcTemplate jdbcTemplate,
+                                    @Value("${orders.partitioning.months-ahead:3}") int monthsAhead) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.monthsAhead = monthsAhead;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "${orders.partitioning.cron:0 0 2 * * *}")
+    public void createUpcomingPartitions() {
+        YearMonth current = YearMonth.now();
+        for (int i = 0; i <= monthsAhead; i++) {
+            YearMonth month = current.plusMonths(i);
+            jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS orders_p" + month.format(SUFFIX) +
+                    " PARTITION OF orders FOR VALUES FROM ('" + month.atDay(1) + "') TO ('" +
+                    month.plusMonths(1).atDay(1) + "')");
+        }
+        log.info("Order partitions present through {}", current.plusMonths(monthsAhead));
+    }
+}
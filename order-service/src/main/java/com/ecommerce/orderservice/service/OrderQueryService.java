@@ -0,0 +1,159 @@
+package com.ecommerce.orderservice.service;
+
+import com.ecommerce.orderservice.dto.OrderItemResponse;
+import com.ecommerce.orderservice.dto.OrderResponse;
+import com.ecommerce.orderservice.dto.OrderSummaryResponse;
+import com.ecommerce.orderservice.entity.Order;
+import com.ecommerce.orderservice.entity.OrderItem;
+import com.ecommerce.orderservice.entity.OrderStatus;
+import com.ecommerce.orderservice.entity.OrderSummary;
+import com.ecommerce.orderservice.repository.OrderArchiveRepository;
+import com.ecommerce.orderservice.repository.OrderItemRepository;
+import com.ecommerce.orderservice.repository.OrderRepository;
+import com.ecommerce.orderservice.repository.OrderSummaryRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+// Order read paths, kept apart from checkout and status changes
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class OrderQueryService {
+
+    private final OrderRepository orderRepository;
+    private final OrderItemRepository orderItemRepository;
+    private final OrderSummaryRepository orderSummaryRepository;
+    private final OrderArchiveRepository orderArchiveRepository;
+
+    public OrderResponse getOrderById(Long orderId) {
+        log.info("Fetching order: {}", orderId);
+
+        // Archived orders are only looked up after a miss on the live table
+        Order order = orderRepository.findWithItemsById(orderId)
+                .or(() -> orderArchiveRepository.findWithItemsById(orderId))
+                .orElseThrow(() -> new RuntimeException("Order not found: " + orderId));
+
+        return toResponse(order);
+    }
+
+    // Lists cover the live table unless includeArchived asks for the slower read over both
+
+    public Page<OrderResponse> getUserOrders(Long userId, boolean includeArchived, Pageable pageable) {
+        log.info("Fetching orders for user: {}, including archived: {}", userId, includeArchived);
+
+        if (includeArchived && orderArchiveRepository.tablesExist()) {
+            return orderArchiveRepository.findLiveAndArchived(userId, null, null, null, pageable)
+                    .map(this::toResponse);
+        }
+        return withItems(orderRepository.findByUserId(userId, pageable));
+    }
+
+    public Page<OrderResponse> getAllOrders(Pageable pageable) {
+        return getAllOrders(null, null, null, false, pageable);
+    }
+
+    public Page<OrderResponse> getAllOrders(OrderStatus status, LocalDateTime from, LocalDateTime to,
+                                            boolean includeArchived, Pageable pageable) {
+        log.info("Fetching all orders - Status: {}, From: {}, To: {}, Including archived: {}",
+                status, from, to, includeArchived);
+
+        if (includeArchived && orderArchiveRepository.tablesExist()) {
+            return orderArchiveRepository.findLiveAndArchived(null, status, from, to, pageable)
+                    .map(this::toResponse);
+        }
+
+        if (from == null) {
+            return withItems(status != null
+                    ? orderRepository.findByStatus(status, pageable)
+                    : orderRepository.findAll(pageable));
+        }
+
+        LocalDateTime until = to != null ? to : LocalDateTime.now();
+        return withItems(status != null
+                ? orderRepository.findByStatusCreatedBetween(status, from, until, pageable)
+                : orderRepository.findCreatedBetween(from, until, pageable));
+    }
+
+    // Summary lists are served from the order_summaries read model
+
+    public Page<OrderSummaryResponse> getUserOrderSummaries(Long userId, Pageable pageable) {
+        log.info("Fetching order summaries for user: {}", userId);
+
+        return orderSummaryRepository.findByUserId(userId, pageable)
+                .map(this::mapToOrderSummaryResponse);
+    }
+
+    public Page<OrderSummaryResponse> getAllOrderSummaries(OrderStatus status, Pageable pageable) {
+        log.info("Fetching all order summaries, status: {}", status);
+
+        Page<OrderSummary> summaries = status != null
+                ? orderSummaryRepository.findByStatus(status, pageable)
+                : orderSummaryRepository.findAll(pageable);
+        return summaries.map(this::mapToOrderSummaryResponse);
+    }
+
+    // Loads the items of every order on the page with one query instead of one per order
+    private Page<OrderResponse> withItems(Page<Order> orders) {
+        List<Long> orderIds = orders.map(Order::getId).getContent();
+        Map<Long, List<OrderItem>> itemsByOrderId = orderIds.isEmpty()
+                ? Map.of()
+                : orderItemRepository.findByOrderIdIn(orderIds).stream()
+                        .collect(Collectors.groupingBy(item -> item.getOrder().getId()));
+
+        return orders.map(order -> mapToOrderResponse(order, itemsByOrderId.getOrDefault(order.getId(), List.of())));
+    }
+
+    // Also used for orders just placed, whose items are already loaded
+    OrderResponse toResponse(Order order) {
+        return mapToOrderResponse(order, order.getOrderItems());
+    }
+
+    private OrderResponse mapToOrderResponse(Order order, List<OrderItem> items) {
+        return OrderResponse.builder()
+                .id(order.getId())
+                .userId(order.getUserId())
+                .totalAmount(order.getTotalAmount())
+                .status(order.getStatus())
+                .shippingAddress(order.getShippingAddress())
+                .notes(order.getNotes())
+                .version(order.getVersion())
+                .orderItems(items.stream()
+                        .map(this::mapToOrderItemResponse)
+                        .collect(Collectors.toList()))
+                .createdAt(order.getCreatedAt())
+                .updatedAt(order.getUpdatedAt())
+                .build();
+    }
+
+    private OrderSummaryResponse mapToOrderSummaryResponse(OrderSummary summary) {
+        return OrderSummaryResponse.builder()
+                .id(summary.getOrderId())
+                .userId(summary.getUserId())
+                .totalAmount(summary.getTotalAmount())
+                .status(summary.getStatus())
+                .itemCount(summary.getItemCount())
+                .firstProductName(summary.getFirstProductName())
+                .createdAt(summary.getCreatedAt())
+                .updatedAt(summary.getUpdatedAt())
+                .build();
+    }
+
+    private OrderItemResponse mapToOrderItemResponse(OrderItem item) {
+        return OrderItemResponse.builder()
+                .id(item.getId())
+                .productId(item.getProductId())
+                .productName(item.getProductName())
+                .price(item.getPrice())
+                .quantity(item.getQuantity())
+                .subtotal(item.getSubtotal())
+                .build();
+    }
+}
@@ -1,19 +1,27 @@
 package com.ecommerce.orderservice.service;
 
-import com.ecommerce.orderservice.dto.OrderItemResponse;
+import com.ecommerce.orderservice.dto.BulkStatusUpdateRequest;
+import com.ecommerce.orderservice.dto.BulkStatusUpdateResponse;
+import com.ecommerce.orderservice.dto.CheckoutValidationResponse;
+import com.ecommerce.orderservice.dto.OrderIntakeStatusResponse;
 import com.ecommerce.orderservice.dto.OrderRequest;
 import com.ecommerce.orderservice.dto.OrderResponse;
+import com.ecommerce.orderservice.dto.OrderStatusOutcome;
 import com.ecommerce.orderservice.entity.*;
-import com.ecommerce.orderservice.repository.CartRepository;
+import com.ecommerce.orderservice.repository.CartStore;
 import com.ecommerce.orderservice.repository.OrderRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.Pageable;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
-import java.util.stream.Collectors;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Optional;
 
 @Service
 @RequiredArgsConstructor
@@ -21,20 +29,108 @@ import java.util.stream.Collectors;
 public class OrderService {
 
     private final OrderRepository orderRepository;
-    private final CartRepository cartRepository;
+    private final OrderQueryService orderQueryService;
+    private final OrderSummaryProjector orderSummaryProjector;
+    private final CartStore cartStore;
+    private final CheckoutValidationService checkoutValidationService;
+    private final CartMutationExecutor cartMutationExecutor;
+    private final TransactionTemplate transactionTemplate;
+    private final IdempotencyKeyStore idempotencyKeyStore;
+    private final OrderIntakePipeline orderIntakePipeline;
+    private final OrderStatusTransitionService orderStatusTransitionService;
+    private final SalesRollupService salesRollupService;
+    private final CoPurchaseService coPurchaseService;
 
-    @Transactional
     public OrderResponse createOrder(OrderRequest request) {
+        return createOrder(request, null);
+    }
+
+    // With an Idempotency-Key, retries of the same request get the order created by the first one
+    public OrderResponse createOrder(OrderRequest request, String idempotencyKey) {
+        if (idempotencyKey == null) {
+            return checkout(request, null);
+        }
+
+        IdempotencyKeyStore.Claim claim = idempotencyKeyStore.claim(
+                request.getUserId(), idempotencyKey, fingerprint(request));
+        if (!claim.isOwner()) {
+            log.info("Duplicate order request for user {}, returning the original result", request.getUserId());
+            return idempotencyKeyStore.await(claim);
+        }
+
+        try {
+            OrderResponse response = findRecordedOrder(claim).orElseGet(() -> {
+                try {
+                    return checkout(request, claim);
+                } catch (DataIntegrityViolationException e) {
+                    // Another instance recorded the same key first and our order was rolled back
+                    return findRecordedOrder(claim).orElseThrow(() -> e);
+                }
+            });
+            idempotencyKeyStore.complete(claim, response);
+            return response;
+        } catch (RuntimeException e) {
+            idempotencyKeyStore.fail(claim, e);
+            throw e;
+        }
+    }
+
+    private Optional<OrderResponse> findRecordedOrder(IdempotencyKeyStore.Claim claim) {
+        return idempotencyKeyStore.findRecordedOrderId(claim).map(orderQueryService::getOrderById);
+    }
+
+    // SHA-256 over the length-prefixed request fields, so different requests never share a fingerprint
+    private String fingerprint(OrderRequest request) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            for (Object field : new Object[]{request.getUserId(), request.getShippingAddress(), request.getNotes()}) {
+                if (field == null) {
+                    digest.update(ByteBuffer.allocate(Integer.BYTES).putInt(-1).array());
+                    continue;
+                }
+                byte[] bytes = field.toString().getBytes(StandardCharsets.UTF_8);
+                digest.update(ByteBuffer.allocate(Integer.BYTES).putInt(bytes.length).array());
+                digest.update(bytes);
+            }
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    // Checkout reads and clears the cart, so it is serialized with the user's cart mutations;
+    // products are looked up before the lock and the transaction are taken
+    private OrderResponse checkout(OrderRequest request, IdempotencyKeyStore.Claim claim) {
+        return checkoutValidationService.withCurrentCatalog(request.getUserId(), catalog ->
+                cartMutationExecutor.execute(request.getUserId(), () -> {
+                    CheckoutOutcome outcome = transactionTemplate.execute(status -> placeOrder(request, claim, catalog));
+                    if (outcome.refused() != null) {
+                        throw new CheckoutValidationException(outcome.refused());
+                    }
+                    return outcome.order();
+                }));
+    }
+
+    // Re-priced cart lines are committed even when checkout is refused
+    private CheckoutOutcome placeOrder(OrderRequest request, IdempotencyKeyStore.Claim claim,
+                                       CheckoutValidationService.Catalog catalog) {
         log.info("Creating order for user: {}", request.getUserId());
 
         // Get user's cart
-        Cart cart = cartRepository.findByUserId(request.getUserId())
+        Cart cart = cartStore.findCart(request.getUserId())
                 .orElseThrow(() -> new RuntimeException("Cart not found for user: " + request.getUserId()));
 
         if (cart.getCartItems().isEmpty()) {
             throw new RuntimeException("Cart is empty");
         }
 
+        // Validate and re-price the whole cart against the products looked up beforehand
+        CheckoutValidationResponse validation = checkoutValidationService.validateAndReprice(cart, catalog);
+        if (!validation.isValid()) {
+            cartStore.save(cart);
+            return new CheckoutOutcome(null, validation);
+        }
+
         // Create order
         Order order = Order.builder()
                 .userId(request.getUserId())
@@ -50,6 +146,7 @@ public class OrderService {
                     .productName(cartItem.getProductName())
                     .price(cartItem.getPrice())
                     .quantity(cartItem.getQuantity())
+                    .categoryId(cartItem.getCategoryId())
                     .build();
 
             orderItem.calculateAndSetSubtotal();
@@ -59,97 +156,79 @@ public class OrderService {
         // Calculate total
         order.calculateTotal();
 
+        if (orderIntakePipeline.isEnabled()) {
+            // Accept now; the order is queued once this transaction commits and stored in a later batch
+            orderIntakePipeline.submit(order, claim != null ? idempotencyKeyStore.newRecord(claim, null) : null);
+            cartStore.clear(request.getUserId());
+
+            log.info("Order accepted for asynchronous intake: {}", order.getId());
+
+            return new CheckoutOutcome(orderQueryService.toResponse(order), null);
+        }
+
         // Save order
         Order savedOrder = orderRepository.save(order);
+        orderSummaryProjector.orderCreated(savedOrder);
+        salesRollupService.orderPlaced(savedOrder);
+        coPurchaseService.orderPlaced(savedOrder);
+        if (claim != null) {
+            idempotencyKeyStore.record(claim, savedOrder.getId());
+        }
 
         // Clear cart
-        cart.clearItems();
-        cartRepository.save(cart);
+        cartStore.clear(request.getUserId());
 
         log.info("Order created successfully: {}", savedOrder.getId());
 
-        return mapToOrderResponse(savedOrder);
+        return new CheckoutOutcome(orderQueryService.toResponse(savedOrder), null);
     }
 
-    public OrderResponse getOrderById(Long orderId) {
-        log.info("Fetching order: {}", orderId);
-
-        Order order = orderRepository.findById(orderId)
-                .orElseThrow(() -> new RuntimeException("Order not found: " + orderId));
-
-        return mapToOrderResponse(order);
+    private record CheckoutOutcome(OrderResponse order, CheckoutValidationResponse refused) {
     }
 
-    public Page<OrderResponse> getUserOrders(Long userId, Pageable pageable) {
-        log.info("Fetching orders for user: {}", userId);
-
-        return orderRepository.findByUserId(userId, pageable)
-                .map(this::mapToOrderResponse);
+    // Orders are acknowledged before they are stored when asynchronous intake is on
+    public boolean isAsyncIntakeEnabled() {
+        return orderIntakePipeline.isEnabled();
     }
 
-    public Page<OrderResponse> getAllOrders(Pageable pageable) {
-        log.info("Fetching all orders");
-
-        return orderRepository.findAll(pageable)
-                .map(this::mapToOrderResponse);
+    public OrderIntakeStatusResponse getIntakeStatus(Long orderId) {
+        return orderIntakePipeline.getStatus(orderId)
+                .orElseThrow(() -> new RuntimeException("Order not found: " + orderId));
     }
 
-    @Transactional
     public OrderResponse updateOrderStatus(Long orderId, OrderStatus status) {
         log.info("Updating order status - Order: {}, Status: {}", orderId, status);
 
-        Order order = orderRepository.findById(orderId)
-                .orElseThrow(() -> new RuntimeException("Order not found: " + orderId));
+        OrderStatusOutcome outcome = orderStatusTransitionService.transition(orderId, status);
+        switch (outcome.getResult()) {
+            case NOT_FOUND -> throw new RuntimeException("Order not found: " + orderId);
+            case INVALID_TRANSITION -> throw new RuntimeException(
+                    "Cannot change order status from " + outcome.getStatus() + " to " + status);
+            case VERSION_CONFLICT -> throw new RuntimeException("Order was modified concurrently: " + orderId);
+            default -> log.info("Order status updated successfully");
+        }
 
-        order.setStatus(status);
-        Order updatedOrder = orderRepository.save(order);
+        return orderQueryService.getOrderById(orderId);
+    }
 
-        log.info("Order status updated successfully");
+    public BulkStatusUpdateResponse updateOrderStatuses(BulkStatusUpdateRequest request) {
+        log.info("Bulk updating order status - Orders: {}, Status: {}", request.getOrderIds().size(), request.getStatus());
 
-        return mapToOrderResponse(updatedOrder);
+        return orderStatusTransitionService.transition(
+                request.getOrderIds(), request.getStatus(), request.getExpectedVersions());
     }
 
-    @Transactional
     public void cancelOrder(Long orderId) {
         log.info("Cancelling order: {}", orderId);
 
-        Order order = orderRepository.findById(orderId)
-                .orElseThrow(() -> new RuntimeException("Order not found: " + orderId));
-
-        if (order.getStatus() == OrderStatus.DELIVERED || order.getStatus() == OrderStatus.CANCELLED) {
-            throw new RuntimeException("Cannot cancel order with status: " + order.getStatus());
+        OrderStatusOutcome outcome = orderStatusTransitionService.transition(orderId, OrderStatus.CANCELLED);
+        if (outcome.getResult() == OrderStatusOutcome.Result.NOT_FOUND) {
+            throw new RuntimeException("Order not found: " + orderId);
+        }
+        if (outcome.getResult() != OrderStatusOutcome.Result.UPDATED) {
+            throw new RuntimeException("Cannot cancel order with status: " + outcome.getStatus());
         }
-
-        order.setStatus(OrderStatus.CANCELLED);
-        orderRepository.save(order);
 
         log.info("Order cancelled successfully");
     }
-
-    private OrderResponse mapToOrderResponse(Order order) {
-        return OrderResponse.builder()
-                .id(order.getId())
-                .userId(order.getUserId())
-                .totalAmount(order.getTotalAmount())
-                .status(order.getStatus())
-                .shippingAddress(order.getShippingAddress())
-                .notes(order.getNotes())
-                .orderItems(order.getOrderItems().stream()
-                        .map(this::mapToOrderItemResponse)
-                        .collect(Collectors.toList()))
-                .createdAt(order.getCreatedAt())
-                .updatedAt(order.getUpdatedAt())
-                .build();
-    }
-
-    private OrderItemResponse mapToOrderItemResponse(OrderItem item) {
-        return OrderItemResponse.builder()
-                .id(item.getId())
-                .productId(item.getProductId())
-                .productName(item.getProductName())
-                .price(item.getPrice())
-                .quantity(item.getQuantity())
-                .subtotal(item.getSubtotal())
-                .build();
-    }
-}
\ No newline at end of file
+}
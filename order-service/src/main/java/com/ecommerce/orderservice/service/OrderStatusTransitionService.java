@@ -0,0 +1,146 @@
+package com.ecommerce.orderservice.service;
+
+import com.ecommerce.orderservice.dto.BulkStatusUpdateResponse;
+import com.ecommerce.orderservice.dto.OrderStatusOutcome;
+import com.ecommerce.orderservice.dto.OrderStatusOutcome.Result;
+import com.ecommerce.orderservice.entity.OrderStatus;
+import com.ecommerce.orderservice.repository.OrderStatusRepository;
+import com.ecommerce.orderservice.repository.OrderStatusRepository.CurrentStatus;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Applies the {@link OrderStatus} state machine to any number of orders.
+ * <p>
+ * Orders are processed in chunks of {@code orders.bulk-status.chunk-size}, one transaction
+ * each. A chunk costs one guarded UPDATE (or one JDBC batch when the caller sends expected
+ * versions), one status read to classify the outcome of every order, and one update of the
+ * summary read model.
+ */
+@Service
+@Slf4j
+public class OrderStatusTransitionService {
+
+    private final OrderStatusRepository orderStatusRepository;
+    private final OrderSummaryProjector orderSummaryProjector;
+    private final SalesRollupService salesRollupService;
+    private final TransactionTemplate transactionTemplate;
+    private final int chunkSize;
+    private final int maxOrders;
+
+    public OrderStatusTransitionService(OrderStatusRepository orderStatusRepository,
+                                        OrderSummaryProjector orderSummaryProjector,
+                                        SalesRollupService salesRollupService,
+                                        TransactionTemplate transactionTemplate,
+                                        @Value("${orders.bulk-status.chunk-size:500}") int chunkSize,
+                                        @Value("${orders.bulk-status.max-orders:10000}") int maxOrders) {
+        this.orderStatusRepository = orderStatusRepository;
+        this.orderSummaryProjector = orderSummaryProjector;
+        this.salesRollupService = salesRollupService;
+        this.transactionTemplate = transactionTemplate;
+        this.chunkSize = chunkSize;
+        this.maxOrders = maxOrders;
+    }
+
+    public BulkStatusUpdateResponse transition(Collection<Long> orderIds, OrderStatus target,
+                                               Map<Long, Long> expectedVersions) {
+        List<Long> ids = new ArrayList<>(new LinkedHashSet<>(orderIds));
+        if (ids.size() > maxOrders) {
+            throw new RuntimeException("At most " + maxOrders + " orders can be updated at once");
+        }
+        Map<Long, Long> versions = expectedVersions != null ? expectedVersions : Map.of();
+
+        List<OrderStatusOutcome> outcomes = new ArrayList<>(ids.size());
+        for (int start = 0; start < ids.size(); start += chunkSize) {
+            List<Long> chunk = ids.subList(start, Math.min(ids.size(), start + chunkSize));
+            outcomes.addAll(transactionTemplate.execute(status -> applyChunk(chunk, target, versions)));
+        }
+
+        int updated = (int) outcomes.stream().filter(outcome -> outcome.getResult() == Result.UPDATED).count();
+        int unchanged = (int) outcomes.stream().filter(outcome -> outcome.getResult() == Result.UNCHANGED).count();
+        log.info("Bulk status change to {}: {} updated, {} rejected", target, updated, ids.size() - updated - unchanged);
+
+        return BulkStatusUpdateResponse.builder()
+                .status(target)
+                .updated(updated)
+                .rejected(ids.size() - updated - unchanged)
+                .outcomes(outcomes)
+                .build();
+    }
+
+    // Single-order transition for the per-order endpoints
+    public OrderStatusOutcome transition(Long orderId, OrderStatus target) {
+        return transition(List.of(orderId), target, null).getOutcomes().get(0);
+    }
+
+    private List<OrderStatusOutcome> applyChunk(List<Long> chunk, OrderStatus target, Map<Long, Long> expectedVersions) {
+        Set<OrderStatus> sources = target.previousStatuses();
+        LocalDateTime now = LocalDateTime.now();
+
+        List<Long> unversioned = new ArrayList<>();
+        Map<Long, Long> versioned = new HashMap<>();
+        for (Long id : chunk) {
+            Long version = expectedVersions.get(id);
+            if (version != null) {
+                versioned.put(id, version);
+            } else {
+                unversioned.add(id);
+            }
+        }
+
+        Set<Long> updated = new LinkedHashSet<>();
+        if (!unversioned.isEmpty()) {
+            updated.addAll(orderStatusRepository.updateStatus(unversioned, target, sources, now));
+        }
+        if (!versioned.isEmpty()) {
+            updated.addAll(orderStatusRepository.updateStatus(versioned, target, sources, now));
+        }
+        if (!updated.isEmpty()) {
+            orderSummaryProjector.statusChanged(updated, target, now);
+            if (target == OrderStatus.CANCELLED) {
+                salesRollupService.ordersCancelled(updated);
+            }
+        }
+
+        Map<Long, CurrentStatus> current = orderStatusRepository.findCurrent(chunk);
+        List<OrderStatusOutcome> outcomes = new ArrayList<>(chunk.size());
+        for (Long id : chunk) {
+            CurrentStatus found = current.get(id);
+            outcomes.add(OrderStatusOutcome.builder()
+                    .orderId(id)
+                    .result(classify(found, updated.contains(id), target, sources))
+                    .status(found != null ? found.status() : null)
+                    .version(found != null ? found.version() : null)
+                    .build());
+        }
+        return outcomes;
+    }
+
+    private Result classify(CurrentStatus found, boolean updated, OrderStatus target, Set<OrderStatus> sources) {
+        if (updated) {
+            return Result.UPDATED;
+        }
+        if (found == null) {
+            return Result.NOT_FOUND;
+        }
+        if (found.status() == target) {
+            return Result.UNCHANGED;
+        }
+        if (!sources.contains(found.status())) {
+            return Result.INVALID_TRANSITION;
+        }
+        // Allowed status but the row did not match: the expected version is stale
+        return Result.VERSION_CONFLICT;
+    }
+}
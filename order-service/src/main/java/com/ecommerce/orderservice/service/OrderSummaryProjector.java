@@ -0,0 +1,30 @@
+package com.ecommerce.orderservice.service;
+
+import com.ecommerce.orderservice.entity.Order;
+import com.ecommerce.orderservice.entity.OrderStatus;
+import com.ecommerce.orderservice.entity.OrderSummary;
+import com.ecommerce.orderservice.repository.OrderSummaryRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+
+/**
+ * Keeps {@code order_summaries} in step with order writes. Callers invoke it inside the
+ * transaction that changes the order, so the read model never shows an uncommitted order.
+ */
+@Component
+@RequiredArgsConstructor
+public class OrderSummaryProjector {
+
+    private final OrderSummaryRepository orderSummaryRepository;
+
+    public void orderCreated(Order order) {
+        orderSummaryRepository.save(OrderSummary.of(order));
+    }
+
+    public void statusChanged(Collection<Long> orderIds, OrderStatus status, LocalDateTime changedAt) {
+        orderSummaryRepository.updateStatus(orderIds, status, changedAt);
+    }
+}
@@ -1,38 +1,365 @@
 package com.ecommerce.orderservice.service;
 
+import com.ecommerce.orderservice.client.CircuitBreaker;
+import com.ecommerce.orderservice.client.ClientMetrics;
+import com.ecommerce.orderservice.client.RemoteCallException;
+import com.ecommerce.orderservice.client.ServiceInstance;
 import com.ecommerce.orderservice.dto.ProductDTO;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestClientException;
 import org.springframework.web.client.RestTemplate;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
 @Service
 @Slf4j
-public class ProductClientService {
+public class ProductClientService implements DisposableBean {
+
+    private static final String PRODUCTS_PATH = "/api/products";
+    private static final Duration BATCH_REPROBE_INTERVAL = Duration.ofMinutes(5);
 
     private final RestTemplate restTemplate;
-    private static final String PRODUCT_SERVICE_URL = "http://localhost:8082/api/products";
+    private final ProductSnapshotCache productSnapshotCache;
+    private final List<ServiceInstance> instances = new ArrayList<>();
+    private final AtomicInteger nextInstance = new AtomicInteger();
+    private final ClientMetrics metrics = new ClientMetrics();
+
+    private final int maxAttempts;
+    private final Duration backoffBase;
+    private final Duration backoffMax;
+    private final Duration bulkheadMaxWait;
+    private final int batchSize;
+    private final ThreadPoolExecutor fanOutExecutor;
+    private volatile long batchUnsupportedUntil = Long.MIN_VALUE;
 
-    public ProductClientService() {
-        this.restTemplate = new RestTemplate();
+    public ProductClientService(
+            @Qualifier("productRestTemplate") RestTemplate restTemplate,
+            ProductSnapshotCache productSnapshotCache,
+            @Value("${product-service.urls:http://localhost:8082}") List<String> baseUrls,
+            @Value("${product-service.client.max-connections-per-route:50}") int maxConnectionsPerRoute,
+            @Value("${product-service.client.max-attempts:3}") int maxAttempts,
+            @Value("${product-service.client.backoff-base:PT0.05S}") Duration backoffBase,
+            @Value("${product-service.client.backoff-max:PT0.5S}") Duration backoffMax,
+            @Value("${product-service.client.bulkhead-max-wait:PT0.1S}") Duration bulkheadMaxWait,
+            @Value("${product-service.client.circuit-failure-threshold:5}") int circuitFailureThreshold,
+            @Value("${product-service.client.circuit-open-duration:PT10S}") Duration circuitOpenDuration,
+            @Value("${product-service.client.batch-size:100}") int batchSize,
+            @Value("${product-service.client.fan-out-threads:16}") int fanOutThreads) {
+        this.restTemplate = restTemplate;
+        this.productSnapshotCache = productSnapshotCache;
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.backoffBase = backoffBase;
+        this.backoffMax = backoffMax;
+        this.bulkheadMaxWait = bulkheadMaxWait;
+        this.batchSize = batchSize;
+
+        // Callers run the lookup themselves once the pool is saturated
+        this.fanOutExecutor = new ThreadPoolExecutor(fanOutThreads, fanOutThreads,
+                0L, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(1000),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "product-client-fan-out");
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.CallerRunsPolicy());
+
+        for (String baseUrl : baseUrls) {
+            instances.add(new ServiceInstance(baseUrl.trim(), maxConnectionsPerRoute,
+                    new CircuitBreaker(circuitFailureThreshold, circuitOpenDuration)));
+        }
     }
 
+    // Served from the local snapshot cache, falling back to product-service on a miss; stock is left null
     public ProductDTO getProduct(Long productId) {
+        return productSnapshotCache.get(productId, this::fetchProduct);
+    }
+
+    public Map<String, Object> getCacheStats() {
+        return productSnapshotCache.getStats();
+    }
+
+    /**
+     * Current state of many products, bypassing the snapshot cache.
+     * Uses the batch endpoint in chunks fetched concurrently; if product-service does not
+     * support it, falls back to concurrent single lookups. Unknown products are left out.
+     */
+    public Map<Long, ProductDTO> getProducts(Collection<Long> productIds) {
+        List<Long> ids = new ArrayList<>(new LinkedHashSet<>(productIds));
+        if (ids.isEmpty()) {
+            return Map.of();
+        }
+
+        List<ProductDTO> products = null;
+        if (System.nanoTime() >= batchUnsupportedUntil) {
+            try {
+                products = fetchInBatches(ids);
+            } catch (RemoteCallException e) {
+                // Only an endpoint that does not exist disables it; other rejections are about the request
+                if (!e.isUnsupported()) {
+                    throw e;
+                }
+                log.warn("Product batch endpoint unavailable ({}), falling back to single lookups",
+                        e.getStatusCode());
+                batchUnsupportedUntil = System.nanoTime() + BATCH_REPROBE_INTERVAL.toNanos();
+            }
+        }
+        if (products == null) {
+            products = fetchConcurrently(ids);
+        }
+
+        Map<Long, ProductDTO> result = new HashMap<>();
+        for (ProductDTO product : products) {
+            result.put(product.getId(), product);
+            productSnapshotCache.put(product.getId(), product);
+        }
+        return result;
+    }
+
+    private ProductDTO fetchProduct(Long productId) {
         log.info("Fetching product from Product Service: {}", productId);
 
+        ProductDTO product;
         try {
-            String url = PRODUCT_SERVICE_URL + "/" + productId;
-            ProductDTO product = restTemplate.getForObject(url, ProductDTO.class);
-
-            if (product == null) {
+            product = get(PRODUCTS_PATH + "/" + productId, ProductDTO.class);
+        } catch (RemoteCallException e) {
+            if (e.isNotFound()) {
                 throw new RuntimeException("Product not found: " + productId);
             }
+            throw e;
+        }
+        if (product == null) {
+            throw new RuntimeException("Product not found: " + productId);
+        }
+
+        log.info("Product fetched successfully: {}", product.getName());
+        return product;
+    }
+
+    private List<ProductDTO> fetchInBatches(List<Long> ids) {
+        List<List<Long>> chunks = new ArrayList<>();
+        for (int from = 0; from < ids.size(); from += batchSize) {
+            chunks.add(ids.subList(from, Math.min(from + batchSize, ids.size())));
+        }
+
+        if (chunks.size() == 1) {
+            return fetchBatch(chunks.get(0));
+        }
+
+        List<CompletableFuture<List<ProductDTO>>> futures = chunks.stream()
+                .map(chunk -> CompletableFuture.supplyAsync(() -> fetchBatch(chunk), fanOutExecutor))
+                .toList();
+
+        List<ProductDTO> products = new ArrayList<>();
+        for (CompletableFuture<List<ProductDTO>> future : futures) {
+            products.addAll(join(future));
+        }
+        return products;
+    }
+
+    private List<ProductDTO> fetchBatch(List<Long> ids) {
+        String idList = ids.stream().map(String::valueOf).collect(Collectors.joining(","));
+        ProductDTO[] products = get(PRODUCTS_PATH + "/batch?ids=" + idList, ProductDTO[].class);
+        return products == null ? List.of() : Arrays.asList(products);
+    }
 
-            log.info("Product fetched successfully: {}", product.getName());
-            return product;
+    private List<ProductDTO> fetchConcurrently(List<Long> ids) {
+        List<CompletableFuture<ProductDTO>> futures = ids.stream()
+                .map(id -> CompletableFuture.supplyAsync(() -> fetchIfExists(id), fanOutExecutor))
+                .toList();
+
+        List<ProductDTO> products = new ArrayList<>();
+        for (CompletableFuture<ProductDTO> future : futures) {
+            ProductDTO product = join(future);
+            if (product != null) {
+                products.add(product);
+            }
+        }
+        return products;
+    }
 
-        } catch (Exception e) {
-            log.error("Error fetching product: {}", e.getMessage());
-            throw new RuntimeException("Failed to fetch product: " + productId);
+    private ProductDTO fetchIfExists(Long productId) {
+        try {
+            return get(PRODUCTS_PATH + "/" + productId, ProductDTO.class);
+        } catch (RemoteCallException e) {
+            if (e.isNotFound()) {
+                return null;
+            }
+            throw e;
+        }
+    }
+
+    private static <T> T join(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>(metrics.snapshot());
+
+        List<Map<String, Object>> routes = new ArrayList<>();
+        for (ServiceInstance instance : instances) {
+            Map<String, Object> route = new LinkedHashMap<>();
+            route.put("baseUrl", instance.getBaseUrl());
+            route.put("circuitState", instance.getCircuitBreaker().getState());
+            route.put("inFlight", instance.getInFlight());
+            route.put("peakInFlight", instance.getPeakInFlight());
+            route.put("maxConnections", instance.getMaxConcurrent());
+            route.put("saturation", (double) instance.getInFlight() / instance.getMaxConcurrent());
+            routes.add(route);
+        }
+        stats.put("routes", routes);
+        return stats;
+    }
+
+    @Override
+    public void destroy() {
+        fanOutExecutor.shutdownNow();
+    }
+
+    // Idempotent GET with retries, jittered backoff, per-instance circuit breaker and bulkhead
+    private <T> T get(String path, Class<T> responseType) {
+        RuntimeException lastError = null;
+
+        for (int attempt = 1; attempt <= maxAttempts; attempt++) {
+            if (attempt > 1) {
+                metrics.recordRetry();
+                sleepBeforeRetry(attempt);
+            }
+
+            ServiceInstance instance = selectInstance();
+            if (instance == null) {
+                metrics.recordCircuitRejection();
+                lastError = new RuntimeException("Product service unavailable: all circuits open");
+                continue;
+            }
+
+            if (!acquire(instance)) {
+                metrics.recordBulkheadRejection();
+                lastError = new RuntimeException("Product service busy: " + instance.getBaseUrl());
+                continue;
+            }
+
+            long start = System.nanoTime();
+            // Set once the breaker let the call through, cleared when its outcome is recorded
+            boolean awaitingOutcome = false;
+            try {
+                if (!instance.getCircuitBreaker().tryAcquirePermission()) {
+                    metrics.recordCircuitRejection();
+                    lastError = new RuntimeException("Product service unavailable: circuit open");
+                    continue;
+                }
+                awaitingOutcome = true;
+
+                T result = restTemplate.getForObject(instance.getBaseUrl() + path, responseType);
+                awaitingOutcome = false;
+                instance.getCircuitBreaker().onSuccess();
+                metrics.recordCall(System.nanoTime() - start, true);
+                return result;
+
+            } catch (HttpClientErrorException e) {
+                // The instance answered, so it counts as healthy; client errors are not retried
+                awaitingOutcome = false;
+                instance.getCircuitBreaker().onSuccess();
+                metrics.recordCall(System.nanoTime() - start, true);
+                throw new RemoteCallException(e.getStatusCode().value(),
+                        "Product service rejected request: " + e.getStatusCode());
+
+            } catch (HttpServerErrorException.NotImplemented e) {
+                // Answered, but the endpoint is not there; not an instance failure and not worth a retry
+                awaitingOutcome = false;
+                instance.getCircuitBreaker().onSuccess();
+                metrics.recordCall(System.nanoTime() - start, true);
+                throw new RemoteCallException(e.getStatusCode().value(),
+                        "Product service does not implement request: " + e.getStatusCode());
+
+            } catch (ResourceAccessException | HttpServerErrorException e) {
+                awaitingOutcome = false;
+                instance.getCircuitBreaker().onFailure();
+                metrics.recordCall(System.nanoTime() - start, false);
+                log.warn("Product service call failed (attempt {}/{}) on {}: {}",
+                        attempt, maxAttempts, instance.getBaseUrl(), e.getMessage());
+                lastError = new RuntimeException("Failed to fetch from product service: " + path);
+
+            } catch (RestClientException e) {
+                // Unreadable response, retrying the same call would not help
+                awaitingOutcome = false;
+                instance.getCircuitBreaker().onFailure();
+                metrics.recordCall(System.nanoTime() - start, false);
+                throw new RuntimeException("Failed to fetch from product service: " + path);
+
+            } finally {
+                // Any other exit still has to settle the breaker, or a half-open probe would never end
+                if (awaitingOutcome) {
+                    instance.getCircuitBreaker().onFailure();
+                }
+                instance.release();
+            }
+        }
+
+        log.error("Error fetching {}: {}", path, lastError.getMessage());
+        throw lastError;
+    }
+
+    // Round robin over instances whose circuit currently accepts calls
+    private ServiceInstance selectInstance() {
+        int size = instances.size();
+        int start = Math.floorMod(nextInstance.getAndIncrement(), size);
+        for (int i = 0; i < size; i++) {
+            ServiceInstance candidate = instances.get((start + i) % size);
+            if (candidate.getCircuitBreaker().isCallPermitted()) {
+                return candidate;
+            }
+        }
+        return null;
+    }
+
+    private boolean acquire(ServiceInstance instance) {
+        try {
+            return instance.tryAcquire(bulkheadMaxWait);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while waiting for product service");
+        }
+    }
+
+    // Exponential backoff with full jitter
+    private void sleepBeforeRetry(int attempt) {
+        long ceiling = Math.min(backoffMax.toMillis(), backoffBase.toMillis() << Math.min(attempt - 2, 20));
+        long delay = ThreadLocalRandom.current().nextLong(ceiling + 1);
+        try {
+            Thread.sleep(delay);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while retrying product service call");
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,218 @@
+package com.ecommerce.orderservice.service;
+
+import com.ecommerce.orderservice.dto.ProductDTO;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+/**
+ * Bounded in-process cache of product snapshots with stale-while-revalidate.
+ * <p>
+ * Fresh entries are served directly; entries past their TTL but within the stale window
+ * are still served while a single background refresh reloads them. Least recently used
+ * entries are evicted once {@code maxEntries} is reached.
+ * <p>
+ * Stock is not kept: it changes with every purchase and product-service publishes no event
+ * for it, so a cached value could be minutes old. Snapshots carry a null stock, and callers
+ * that need it read it live with {@link ProductClientService#getProducts}.
+ */
+@Component
+@Slf4j
+public class ProductSnapshotCache implements DisposableBean {
+
+    private final int maxEntries;
+    private final long ttlNanos;
+    private final long staleNanos;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final LinkedHashMap<Long, Entry> entries;
+    private final ThreadPoolExecutor refreshExecutor;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder staleHits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder refreshes = new LongAdder();
+    private final LongAdder refreshFailures = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+
+    public ProductSnapshotCache(@Value("${product-cache.max-entries:10000}") int maxEntries,
+                                @Value("${product-cache.ttl:PT30S}") Duration ttl,
+                                @Value("${product-cache.stale-window:PT5M}") Duration staleWindow,
+                                @Value("${product-cache.refresh-threads:2}") int refreshThreads) {
+        this.maxEntries = maxEntries;
+        this.ttlNanos = ttl.toNanos();
+        this.staleNanos = staleWindow.toNanos();
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Entry> eldest) {
+                if (size() > ProductSnapshotCache.this.maxEntries) {
+                    evictions.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+
+        // Refreshes are best effort: when the queue is full the stale value keeps being served
+        this.refreshExecutor = new ThreadPoolExecutor(refreshThreads, refreshThreads,
+                0L, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(1024),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "product-cache-refresh");
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    public ProductDTO get(Long productId, Function<Long, ProductDTO> loader) {
+        Entry entry = lookup(productId);
+        long now = System.nanoTime();
+
+        if (entry != null && now < entry.freshUntil) {
+            hits.increment();
+            return entry.product;
+        }
+
+        if (entry != null && now < entry.staleUntil) {
+            staleHits.increment();
+            scheduleRefresh(productId, entry, loader);
+            return entry.product;
+        }
+
+        misses.increment();
+        return put(productId, loader.apply(productId));
+    }
+
+    // Stores the product without its stock and returns the stored snapshot
+    public ProductDTO put(Long productId, ProductDTO product) {
+        ProductDTO snapshot = withoutStock(product);
+        long now = System.nanoTime();
+        Entry entry = new Entry(snapshot, now + ttlNanos, now + ttlNanos + staleNanos);
+        lock.lock();
+        try {
+            entries.put(productId, entry);
+        } finally {
+            lock.unlock();
+        }
+        return snapshot;
+    }
+
+    public void invalidate(Long productId) {
+        lock.lock();
+        try {
+            if (entries.remove(productId) != null) {
+                invalidations.increment();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void invalidateAll() {
+        lock.lock();
+        try {
+            invalidations.add(entries.size());
+            entries.clear();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        long hitCount = hits.sum();
+        long staleHitCount = staleHits.sum();
+        long missCount = misses.sum();
+        long lookups = hitCount + staleHitCount + missCount;
+
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("size", size());
+        stats.put("maxEntries", maxEntries);
+        stats.put("hits", hitCount);
+        stats.put("staleHits", staleHitCount);
+        stats.put("misses", missCount);
+        stats.put("hitRatio", lookups == 0 ? 0.0 : (double) (hitCount + staleHitCount) / lookups);
+        stats.put("refreshes", refreshes.sum());
+        stats.put("refreshFailures", refreshFailures.sum());
+        stats.put("evictions", evictions.sum());
+        stats.put("invalidations", invalidations.sum());
+        stats.put("pendingRefreshes", refreshExecutor.getQueue().size());
+        return stats;
+    }
+
+    @Override
+    public void destroy() {
+        refreshExecutor.shutdownNow();
+    }
+
+    private static ProductDTO withoutStock(ProductDTO product) {
+        return new ProductDTO(product.getId(), product.getName(), product.getDescription(), product.getPrice(),
+                null, product.getImageUrl(), product.getCategoryId(), product.getCategoryName(), product.getActive());
+    }
+
+    private Entry lookup(Long productId) {
+        lock.lock();
+        try {
+            return entries.get(productId);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private int size() {
+        lock.lock();
+        try {
+            return entries.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Only one refresh per entry is in flight at a time
+    private void scheduleRefresh(Long productId, Entry entry, Function<Long, ProductDTO> loader) {
+        if (!entry.refreshing.compareAndSet(false, true)) {
+            return;
+        }
+
+        try {
+            refreshExecutor.execute(() -> {
+                try {
+                    put(productId, loader.apply(productId));
+                    refreshes.increment();
+                } catch (Exception e) {
+                    refreshFailures.increment();
+                    entry.refreshing.set(false);
+                    log.warn("Background refresh failed for product {}: {}", productId, e.getMessage());
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            entry.refreshing.set(false);
+        }
+    }
+
+    private static final class Entry {
+        private final ProductDTO product;
+        private final long freshUntil;
+        private final long staleUntil;
+        private final AtomicBoolean refreshing = new AtomicBoolean();
+
+        private Entry(ProductDTO product, long freshUntil, long staleUntil) {
+            this.product = product;
+            this.freshUntil = freshUntil;
+            this.staleUntil = staleUntil;
+        }
+    }
+}
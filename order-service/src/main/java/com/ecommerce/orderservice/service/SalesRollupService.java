@@ -0,0 +1,285 @@
+package com.ecommerce.orderservice.service;
+
+import com.ecommerce.orderservice.dto.SalesRollupResponse;
+import com.ecommerce.orderservice.entity.Order;
+import com.ecommerce.orderservice.entity.OrderItem;
+import com.ecommerce.orderservice.entity.SalesRollup;
+import com.ecommerce.orderservice.entity.SalesRollup.Dimension;
+import com.ecommerce.orderservice.entity.SalesRollup.Granularity;
+import com.ecommerce.orderservice.repository.SalesRollupRepository;
+import com.ecommerce.orderservice.repository.SalesRollupWriter;
+import com.ecommerce.orderservice.repository.SalesRollupWriter.SaleLine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+import static com.ecommerce.orderservice.service.TransactionCallbacks.afterCommit;
+
+/**
+ * Incremental sales rollups per hour and day, for all sales, each product and each category.
+ * <p>
+ * Committed order creations and cancellations are turned into additive deltas and merged in
+ * memory; a scheduled flush writes them as one batch of upserts, so checkout never waits on
+ * the shared hourly rows. Deltas of the last flush interval are lost on a crash, which
+ * {@link #rebuild} repairs from the order tables.
+ */
+@Service
+@Slf4j
+public class SalesRollupService implements DisposableBean {
+
+    private final SalesRollupWriter salesRollupWriter;
+    private final SalesRollupRepository salesRollupRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final int rebuildBatchSize;
+
+    private final Map<SalesRollup.Key, Delta> pending = new ConcurrentHashMap<>();
+    private final ExecutorService rebuildExecutor;
+    private final AtomicBoolean rebuilding = new AtomicBoolean();
+
+    private final LongAdder flushes = new LongAdder();
+    private final LongAdder flushFailures = new LongAdder();
+    private final LongAdder rowsWritten = new LongAdder();
+    private volatile String lastRebuild;
+
+    public SalesRollupService(SalesRollupWriter salesRollupWriter,
+                              SalesRollupRepository salesRollupRepository,
+                              TransactionTemplate transactionTemplate,
+                              @Value("${analytics.rollups.enabled:true}") boolean enabled,
+                              @Value("${analytics.rollups.rebuild-batch-size:1000}") int rebuildBatchSize) {
+        this.salesRollupWriter = salesRollupWriter;
+        this.salesRollupRepository = salesRollupRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.enabled = enabled;
+        this.rebuildBatchSize = rebuildBatchSize;
+        this.rebuildExecutor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "sales-rollup-rebuild");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public void orderPlaced(Order order) {
+        if (!enabled) {
+            return;
+        }
+        List<SaleLine> lines = new ArrayList<>();
+        for (OrderItem item : order.getOrderItems()) {
+            lines.add(new SaleLine(order.getId(), order.getCreatedAt(), item.getProductId(),
+                    item.getCategoryId(), item.getSubtotal(), item.getQuantity()));
+        }
+        afterCommit(() -> merge(pending, lines, 1));
+    }
+
+    // Called inside the transaction that cancels the orders
+    public void ordersCancelled(Collection<Long> orderIds) {
+        if (!enabled) {
+            return;
+        }
+        List<SaleLine> lines = salesRollupWriter.findLines(orderIds);
+        afterCommit(() -> merge(pending, lines, -1));
+    }
+
+    @Scheduled(fixedDelayString = "${analytics.rollups.flush-interval:PT5S}")
+    public void flush() {
+        if (pending.isEmpty()) {
+            return;
+        }
+
+        // remove() is atomic per key, deltas merged after it go to the next flush
+        Map<SalesRollup.Key, Delta> batch = new HashMap<>();
+        for (SalesRollup.Key key : new ArrayList<>(pending.keySet())) {
+            Delta delta = pending.remove(key);
+            if (delta != null) {
+                batch.put(key, delta);
+            }
+        }
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> salesRollupWriter.upsert(toRows(batch)));
+            flushes.increment();
+            rowsWritten.add(batch.size());
+        } catch (RuntimeException e) {
+            log.warn("Failed to flush {} sales rollup deltas, keeping them for the next run: {}",
+                    batch.size(), e.getMessage());
+            flushFailures.increment();
+            batch.forEach((key, delta) -> pending.merge(key, delta, Delta::plus));
+        }
+    }
+
+    /**
+     * Recomputes the rollups of whole days in [from, to] from the order tables in the
+     * background. Only closed days can be rebuilt, so live deltas never overlap a rebuild.
+     */
+    public void rebuild(LocalDate from, LocalDate to) {
+        if (to.isBefore(from)) {
+            throw new RuntimeException("Rebuild range ends before it starts");
+        }
+        if (!to.isBefore(LocalDate.now())) {
+            throw new RuntimeException("Only days before today can be rebuilt");
+        }
+        if (!rebuilding.compareAndSet(false, true)) {
+            throw new RuntimeException("A rollup rebuild is already running");
+        }
+
+        rebuildExecutor.execute(() -> {
+            try {
+                long orders = transactionTemplate.execute(status -> rebuildRange(from.atStartOfDay(),
+                        to.plusDays(1).atStartOfDay()));
+                lastRebuild = from + ".." + to + ": " + orders + " orders";
+                log.info("Rebuilt sales rollups for {}..{} from {} orders", from, to, orders);
+            } catch (RuntimeException e) {
+                lastRebuild = from + ".." + to + ": failed, " + e.getMessage();
+                log.error("Sales rollup rebuild for {}..{} failed: {}", from, to, e.getMessage(), e);
+            } finally {
+                rebuilding.set(false);
+            }
+        });
+    }
+
+    public List<SalesRollupResponse> getSeries(Granularity granularity, Dimension dimension, Long dimensionId,
+                                               LocalDateTime from, LocalDateTime to) {
+        return salesRollupRepository.findSeries(granularity, dimension,
+                        dimension == Dimension.TOTAL ? 0L : dimensionId, from, to).stream()
+                .map(row -> SalesRollupResponse.builder()
+                        .dimension(row.getDimension())
+                        .dimensionId(row.getDimensionId())
+                        .bucketStart(row.getBucketStart())
+                        .revenue(row.getRevenue())
+                        .units(row.getUnits())
+                        .orderCount(row.getOrderCount())
+                        .build())
+                .toList();
+    }
+
+    public List<SalesRollupResponse> getTop(Dimension dimension, LocalDate from, LocalDate to, int limit) {
+        return salesRollupRepository.findTop(dimension, from.atStartOfDay(), to.plusDays(1).atStartOfDay(),
+                PageRequest.of(0, limit));
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("pendingDeltas", pending.size());
+        stats.put("flushes", flushes.sum());
+        stats.put("flushFailures", flushFailures.sum());
+        stats.put("rowsWritten", rowsWritten.sum());
+        stats.put("rebuilding", rebuilding.get());
+        stats.put("lastRebuild", lastRebuild);
+        return stats;
+    }
+
+    @Override
+    public void destroy() {
+        rebuildExecutor.shutdownNow();
+        flush();
+    }
+
+    private long rebuildRange(LocalDateTime from, LocalDateTime to) {
+        salesRollupWriter.deleteRange(from, to);
+
+        long orders = 0;
+        long lastOrderId = 0;
+        while (true) {
+            List<SaleLine> lines = salesRollupWriter.findLineBatch(from, to, lastOrderId, rebuildBatchSize);
+            if (lines.isEmpty()) {
+                return orders;
+            }
+            Map<SalesRollup.Key, Delta> batch = new HashMap<>();
+            orders += merge(batch, lines, 1);
+            salesRollupWriter.upsert(toRows(batch));
+            lastOrderId = lines.get(lines.size() - 1).orderId();
+        }
+    }
+
+    // Adds the lines' contribution to the target map and returns the number of orders seen
+    private int merge(Map<SalesRollup.Key, Delta> target, List<SaleLine> lines, int sign) {
+        Map<Long, List<SaleLine>> byOrder = new LinkedHashMap<>();
+        for (SaleLine line : lines) {
+            byOrder.computeIfAbsent(line.orderId(), id -> new ArrayList<>()).add(line);
+        }
+
+        for (List<SaleLine> orderLines : byOrder.values()) {
+            LocalDateTime createdAt = orderLines.get(0).createdAt();
+            for (Granularity granularity : Granularity.values()) {
+                LocalDateTime bucket = createdAt.truncatedTo(
+                        granularity == Granularity.HOUR ? ChronoUnit.HOURS : ChronoUnit.DAYS);
+                Set<Long> products = new HashSet<>();
+                Set<Long> categories = new HashSet<>();
+                BigDecimal revenue = BigDecimal.ZERO;
+                long units = 0;
+
+                for (SaleLine line : orderLines) {
+                    Long categoryId = line.categoryId() != null ? line.categoryId() : 0L;
+                    add(target, granularity, Dimension.PRODUCT, line.productId(), bucket, line, sign,
+                            products.add(line.productId()));
+                    add(target, granularity, Dimension.CATEGORY, categoryId, bucket, line, sign,
+                            categories.add(categoryId));
+                    revenue = revenue.add(line.revenue());
+                    units += line.units();
+                }
+
+                target.merge(new SalesRollup.Key(granularity, Dimension.TOTAL, 0L, bucket),
+                        new Delta(revenue, units, 1).times(sign), Delta::plus);
+            }
+        }
+        return byOrder.size();
+    }
+
+    private void add(Map<SalesRollup.Key, Delta> target, Granularity granularity, Dimension dimension,
+                     Long dimensionId, LocalDateTime bucket, SaleLine line, int sign, boolean firstInOrder) {
+        Delta delta = new Delta(line.revenue(), line.units(), firstInOrder ? 1 : 0).times(sign);
+        target.merge(new SalesRollup.Key(granularity, dimension, dimensionId, bucket), delta, Delta::plus);
+    }
+
+    private List<SalesRollup> toRows(Map<SalesRollup.Key, Delta> deltas) {
+        List<SalesRollup> rows = new ArrayList<>(deltas.size());
+        deltas.forEach((key, delta) -> rows.add(SalesRollup.builder()
+                .granularity(key.getGranularity())
+                .dimension(key.getDimension())
+                .dimensionId(key.getDimensionId())
+                .bucketStart(key.getBucketStart())
+                .revenue(delta.revenue())
+                .units(delta.units())
+                .orderCount(delta.orders())
+                .build()));
+        return rows;
+    }
+
+
+    private record Delta(BigDecimal revenue, long units, long orders) {
+
+        Delta plus(Delta other) {
+            return new Delta(revenue.add(other.revenue), units + other.units, orders + other.orders);
+        }
+
+        Delta times(int sign) {
+            return sign == 1 ? this : new Delta(revenue.negate(), -units, -orders);
+        }
+    }
+}
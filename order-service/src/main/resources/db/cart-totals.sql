@@ -0,0 +1,33 @@
+-- Prepares existing carts for denormalized totals and one line per product.
+-- Run once before deploying; ddl-auto=update adds the columns with a default of 0
+-- but cannot merge duplicate lines or compute totals for carts that already exist.
+
+-- Merge duplicate (cart_id, product_id) lines into the oldest one
+UPDATE cart_items ci
+SET quantity = d.total_quantity
+FROM (SELECT MIN(id) AS keep_id, SUM(quantity) AS total_quantity
+      FROM cart_items
+      GROUP BY cart_id, product_id
+      HAVING COUNT(*) > 1) d
+WHERE ci.id = d.keep_id;
+
+DELETE FROM cart_items ci
+USING cart_items other
+WHERE ci.cart_id = other.cart_id
+  AND ci.product_id = other.product_id
+  AND ci.id > other.id;
+
+ALTER TABLE cart_items
+    ADD CONSTRAINT uk_cart_items_cart_product UNIQUE (cart_id, product_id);
+
+-- Backfill totals
+ALTER TABLE carts ADD COLUMN IF NOT EXISTS total_amount NUMERIC(12, 2) NOT NULL DEFAULT 0;
+ALTER TABLE carts ADD COLUMN IF NOT EXISTS total_items INTEGER NOT NULL DEFAULT 0;
+
+UPDATE carts c
+SET total_amount = t.amount,
+    total_items  = t.items
+FROM (SELECT cart_id, SUM(price * quantity) AS amount, SUM(quantity) AS items
+      FROM cart_items
+      GROUP BY cart_id) t
+WHERE c.id = t.cart_id;
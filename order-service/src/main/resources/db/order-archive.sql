@@ -0,0 +1,31 @@
+-- Archive tables for finished orders, filled by OrderArchiver (orders.archive.enabled=true).
+-- Run once before enabling the job. Order lookups by id, order lists with includeArchived=true
+-- and exports read these tables as soon as they exist, on every instance. No foreign keys:
+-- archived rows are never updated.
+
+CREATE TABLE IF NOT EXISTS orders_archive (
+    id               BIGINT PRIMARY KEY,
+    user_id          BIGINT         NOT NULL,
+    total_amount     NUMERIC(10, 2) NOT NULL,
+    status           VARCHAR(255)   NOT NULL,
+    shipping_address VARCHAR(500),
+    notes            VARCHAR(1000),
+    created_at       TIMESTAMP(6),
+    updated_at       TIMESTAMP(6),
+    archived_at      TIMESTAMP(6)   NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS idx_orders_archive_user_created ON orders_archive (user_id, created_at);
+
+CREATE TABLE IF NOT EXISTS order_items_archive (
+    id           BIGINT PRIMARY KEY,
+    order_id     BIGINT         NOT NULL,
+    product_id   BIGINT         NOT NULL,
+    product_name VARCHAR(200)   NOT NULL,
+    price        NUMERIC(10, 2) NOT NULL,
+    quantity     INTEGER        NOT NULL,
+    subtotal     NUMERIC(10, 2) NOT NULL,
+    category_id  BIGINT
+);
+
+CREATE INDEX IF NOT EXISTS idx_order_items_archive_order ON order_items_archive (order_id);
@@ -0,0 +1,75 @@
+-- Converts orders into a table range-partitioned by month on created_at.
+-- Run once during a maintenance window, then enable orders.partitioning.enabled so
+-- OrderPartitionMaintainer keeps creating the upcoming months.
+--
+-- Postgres requires the partition key in every unique constraint, so the primary key
+-- becomes (id, created_at) and the order_items -> orders foreign key is dropped; ids stay
+-- unique because they all come from one sequence. Hibernate keeps mapping id alone.
+-- Expects orders_seq from sequence-ids.sql; ids are allocated in pooled blocks of 50.
+-- With a partitioned orders table, run ddl-auto=validate or none, and apply later column
+-- changes by hand.
+
+BEGIN;
+
+ALTER TABLE orders RENAME TO orders_unpartitioned;
+
+CREATE SEQUENCE IF NOT EXISTS orders_seq INCREMENT BY 50;
+SELECT setval('orders_seq', GREATEST(COALESCE((SELECT MAX(id) FROM orders_unpartitioned), 0) + 50,
+                                     (SELECT last_value + 50 FROM orders_seq)), false);
+
+CREATE TABLE orders (
+    id               BIGINT         NOT NULL DEFAULT nextval('orders_seq'),
+    user_id          BIGINT         NOT NULL,
+    total_amount     NUMERIC(10, 2) NOT NULL,
+    status           VARCHAR(255)   NOT NULL,
+    shipping_address VARCHAR(500),
+    notes            VARCHAR(1000),
+    created_at       TIMESTAMP(6)   NOT NULL DEFAULT NOW(),
+    updated_at       TIMESTAMP(6),
+    version          BIGINT         NOT NULL DEFAULT 0,
+    PRIMARY KEY (id, created_at)
+) PARTITION BY RANGE (created_at);
+
+ALTER SEQUENCE orders_seq OWNED BY orders.id;
+
+-- Catches rows outside every monthly partition, should stay empty
+CREATE TABLE orders_default PARTITION OF orders DEFAULT;
+
+-- One partition per month from the oldest order through three months ahead
+DO $$
+DECLARE
+    month DATE := date_trunc('month', COALESCE((SELECT MIN(created_at) FROM orders_unpartitioned), NOW()));
+BEGIN
+    WHILE month <= date_trunc('month', NOW()) + INTERVAL '3 months' LOOP
+        EXECUTE format('CREATE TABLE IF NOT EXISTS %I PARTITION OF orders FOR VALUES FROM (%L) TO (%L)',
+                       'orders_p' || to_char(month, 'YYYYMM'), month, month + INTERVAL '1 month');
+        month := month + INTERVAL '1 month';
+    END LOOP;
+END $$;
+
+INSERT INTO orders (id, user_id, total_amount, status, shipping_address, notes, created_at, updated_at, version)
+SELECT id, user_id, total_amount, status, shipping_address, notes, COALESCE(created_at, NOW()), updated_at,
+       COALESCE(version, 0)
+FROM orders_unpartitioned;
+
+-- Lookups by id alone and the list/dashboard access paths
+CREATE INDEX idx_orders_id ON orders (id);
+CREATE INDEX idx_orders_user_created ON orders (user_id, created_at);
+CREATE INDEX idx_orders_status_created ON orders (status, created_at);
+
+DO $$
+DECLARE
+    fk TEXT;
+BEGIN
+    FOR fk IN SELECT conname FROM pg_constraint
+              WHERE conrelid = 'order_items'::regclass AND contype = 'f'
+                AND confrelid = 'orders_unpartitioned'::regclass LOOP
+        EXECUTE format('ALTER TABLE order_items DROP CONSTRAINT %I', fk);
+    END LOOP;
+END $$;
+
+CREATE INDEX IF NOT EXISTS idx_order_items_order ON order_items (order_id);
+
+DROP TABLE orders_unpartitioned;
+
+COMMIT;
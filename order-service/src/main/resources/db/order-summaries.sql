@@ -0,0 +1,16 @@
+-- Backfills the order_summaries read model for orders placed before it existed.
+-- ddl-auto=update creates the table and its indexes; run this once afterwards.
+-- Safe to re-run: orders that already have a summary are skipped.
+
+INSERT INTO order_summaries (order_id, user_id, status, total_amount, item_count, first_product_name,
+                             created_at, updated_at)
+SELECT o.id,
+       o.user_id,
+       o.status,
+       o.total_amount,
+       (SELECT COUNT(*) FROM order_items i WHERE i.order_id = o.id),
+       (SELECT i.product_name FROM order_items i WHERE i.order_id = o.id ORDER BY i.id LIMIT 1),
+       COALESCE(o.created_at, NOW()),
+       COALESCE(o.updated_at, o.created_at, NOW())
+FROM orders o
+ON CONFLICT (order_id) DO NOTHING;
@@ -0,0 +1,46 @@
+-- Moves the order-service tables from IDENTITY ids to the pooled sequences the entities now
+-- use (allocationSize 50). Run it once with order-service stopped and BEFORE deploying that
+-- version: otherwise ddl-auto=update creates the sequences starting at 1 and the first inserts
+-- collide with existing ids.
+--
+-- Hibernate's pooled optimizer reads every sequence value as the top of a block of 50 ids,
+-- so each sequence is set to start at MAX(id) + 50. New sequences start at 50 like the
+-- entities declare, so an empty table's first block is 1..50 rather than ending at 1. Column defaults point at the same
+-- sequences, so plain SQL inserts keep working and can never reuse a block Hibernate holds.
+-- Safe to re-run while the service is stopped.
+
+CREATE OR REPLACE FUNCTION pg_temp.use_pooled_sequence(tbl TEXT, seq TEXT, archive TEXT DEFAULT NULL)
+RETURNS VOID AS $$
+DECLARE
+    max_id     BIGINT;
+    archived   BIGINT := 0;
+    serial_seq TEXT := pg_get_serial_sequence(tbl, 'id');
+BEGIN
+    EXECUTE format('SELECT COALESCE(MAX(id), 0) FROM %I', tbl) INTO max_id;
+    IF archive IS NOT NULL AND to_regclass(archive) IS NOT NULL THEN
+        EXECUTE format('SELECT COALESCE(MAX(id), 0) FROM %I', archive) INTO archived;
+    END IF;
+
+    EXECUTE format('CREATE SEQUENCE IF NOT EXISTS %I START WITH 50 INCREMENT BY 50', seq);
+    EXECUTE format('ALTER SEQUENCE %I INCREMENT BY 50', seq);
+    PERFORM setval(seq, GREATEST(max_id, archived) + 50, false);
+
+    EXECUTE format('ALTER TABLE %I ALTER COLUMN id DROP IDENTITY IF EXISTS', tbl);
+    EXECUTE format('ALTER TABLE %I ALTER COLUMN id SET DEFAULT nextval(%L)', tbl, seq);
+    EXECUTE format('ALTER SEQUENCE %I OWNED BY %I.id', seq, tbl);
+
+    -- A serial column (or the partitioned orders table) still has its old sequence
+    IF serial_seq IS NOT NULL AND to_regclass(serial_seq) IS NOT NULL
+            AND to_regclass(serial_seq) <> to_regclass(seq) THEN
+        EXECUTE 'DROP SEQUENCE ' || serial_seq;
+    END IF;
+END $$ LANGUAGE plpgsql;
+
+BEGIN;
+
+SELECT pg_temp.use_pooled_sequence('orders', 'orders_seq', 'orders_archive');
+SELECT pg_temp.use_pooled_sequence('order_items', 'order_items_seq', 'order_items_archive');
+SELECT pg_temp.use_pooled_sequence('carts', 'carts_seq');
+SELECT pg_temp.use_pooled_sequence('cart_items', 'cart_items_seq');
+
+COMMIT;
@@ -0,0 +1,108 @@
+package com.ecommerce.orderservice.repository;
+
+import com.ecommerce.orderservice.entity.Cart;
+import com.ecommerce.orderservice.entity.CartItem;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Clearing a cart or removing several lines must not delete the lines one entity at a time.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+class CartClearStatementCountTest {
+
+    private static final long USER_ID = 7L;
+    private static final int LINES = 50;
+
+    @SpringBootConfiguration
+    @EnableAutoConfiguration
+    @EntityScan("com.ecommerce.orderservice.entity")
+    @EnableJpaRepositories("com.ecommerce.orderservice.repository")
+    @Import(JpaCartStore.class)
+    static class JpaTestConfig {
+    }
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private JpaCartStore cartStore;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        Cart cart = Cart.builder()
+                .userId(USER_ID)
+                .build();
+        for (int i = 0; i < LINES; i++) {
+            cart.addCartItem(CartItem.builder()
+                    .productId((long) i + 1)
+                    .productName("Product " + (i + 1))
+                    .price(new BigDecimal("2.50"))
+                    .quantity(2)
+                    .build());
+        }
+        entityManager.persist(cart);
+        entityManager.flush();
+        entityManager.clear();
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void clearDeletesAllLinesInOneStatement() {
+        cartStore.clear(USER_ID);
+
+        // cart id lookup, one DELETE, one totals UPDATE
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(3);
+        assertThat(statistics.getEntityDeleteCount()).isZero();
+
+        Cart cart = cartStore.findCart(USER_ID).orElseThrow();
+        assertThat(cart.getCartItems()).isEmpty();
+        assertThat(cart.getTotalItems()).isZero();
+        assertThat(cart.getTotalAmount()).isEqualByComparingTo(BigDecimal.ZERO);
+    }
+
+    @Test
+    void removeItemsKeepsTotalsInStep() {
+        List<Long> itemIds = cartStore.findCart(USER_ID).orElseThrow().getCartItems().stream()
+                .limit(10)
+                .map(CartItem::getId)
+                .toList();
+        entityManager.clear();
+        statistics.clear();
+
+        Cart returned = cartStore.removeItems(USER_ID, itemIds);
+
+        assertThat(statistics.getEntityDeleteCount()).isZero();
+        assertThat(returned.getCartItems()).hasSize(LINES - 10);
+        assertThat(returned.getTotalItems()).isEqualTo((LINES - 10) * 2);
+
+        Cart stored = cartStore.findCart(USER_ID).orElseThrow();
+        assertThat(stored.getCartItems()).hasSize(LINES - 10);
+        assertThat(stored.getTotalItems()).isEqualTo((LINES - 10) * 2);
+        assertThat(stored.getTotalAmount()).isEqualByComparingTo(new BigDecimal("200.00"));
+        assertThat(stored.getVersion()).isEqualTo(returned.getVersion());
+    }
+}
@@ -0,0 +1,103 @@
+package com.ecommerce.orderservice.repository;
+
+import com.ecommerce.orderservice.dto.CartItemRequest;
+import com.ecommerce.orderservice.dto.ProductDTO;
+import com.ecommerce.orderservice.entity.Cart;
+import com.ecommerce.orderservice.entity.CartItem;
+import com.ecommerce.orderservice.service.CartMutationExecutor;
+import com.ecommerce.orderservice.service.CartService;
+import com.ecommerce.orderservice.service.ProductClientService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Two instances adding to the same cart at once, each with its own mutation lock, so only
+ * the cart's {@code @Version} and the unique constraints stand between them and a lost add.
+ */
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class JpaCartStoreConcurrencyTest {
+
+    private static final int ROUNDS = 20;
+    private static final int ADDS_PER_INSTANCE = 10;
+
+    @SpringBootConfiguration
+    @EnableAutoConfiguration
+    @EntityScan("com.ecommerce.orderservice.entity")
+    @EnableJpaRepositories("com.ecommerce.orderservice.repository")
+    @Import(JpaCartStore.class)
+    static class JpaTestConfig {
+    }
+
+    @Autowired
+    private JpaCartStore cartStore;
+
+    @Test
+    void addsFromTwoInstancesAreNeverLost() throws Exception {
+        ProductClientService productClient = mock(ProductClientService.class);
+        when(productClient.getProduct(anyLong())).thenAnswer(invocation -> {
+            Long id = invocation.getArgument(0);
+            return new ProductDTO(id, "Product " + id, null, new BigDecimal("2.50"), 100, null, 1L, "Books", true);
+        });
+        List<CartService> instances = List.of(
+                new CartService(cartStore, productClient, null, new CartMutationExecutor(64, 10)),
+                new CartService(cartStore, productClient, null, new CartMutationExecutor(64, 10)));
+
+        ExecutorService pool = Executors.newFixedThreadPool(instances.size());
+        try {
+            for (long userId = 1; userId <= ROUNDS; userId++) {
+                long user = userId;
+                CyclicBarrier start = new CyclicBarrier(instances.size());
+                List<Future<?>> futures = instances.stream()
+                        .<Future<?>>map(cartService -> pool.submit(() -> {
+                            start.await();
+                            // Both create the cart, then the same two lines, then keep bumping them
+                            for (int i = 0; i < ADDS_PER_INSTANCE; i++) {
+                                cartService.addItemToCart(user, new CartItemRequest((long) i % 2 + 1, 1));
+                            }
+                            return null;
+                        }))
+                        .toList();
+                for (Future<?> future : futures) {
+                    future.get(30, TimeUnit.SECONDS);
+                }
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        int expectedPerLine = instances.size() * ADDS_PER_INSTANCE / 2;
+        for (long userId = 1; userId <= ROUNDS; userId++) {
+            Cart cart = cartStore.findCart(userId).orElseThrow();
+            assertThat(cart.getCartItems())
+                    .extracting(CartItem::getProductId)
+                    .containsExactlyInAnyOrder(1L, 2L);
+            assertThat(cart.getCartItems())
+                    .allMatch(item -> item.getQuantity() == expectedPerLine);
+            assertThat(cart.getTotalItems()).isEqualTo(expectedPerLine * 2);
+            assertThat(cart.getTotalAmount())
+                    .isEqualByComparingTo(new BigDecimal("2.50").multiply(BigDecimal.valueOf(expectedPerLine * 2L)));
+        }
+    }
+}
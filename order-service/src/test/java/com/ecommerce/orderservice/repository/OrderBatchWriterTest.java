@@ -0,0 +1,99 @@
+package com.ecommerce.orderservice.repository;
+
+import com.ecommerce.orderservice.entity.Order;
+import com.ecommerce.orderservice.entity.OrderItem;
+import com.ecommerce.orderservice.entity.OrderStatus;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The writer and Hibernate drawing ids from the same fresh sequences, each going first on one of them.
+ */
+@DataJpaTest
+class OrderBatchWriterTest {
+
+    private static final int ITEMS = 60;
+
+    @SpringBootConfiguration
+    @EnableAutoConfiguration
+    @EntityScan("com.ecommerce.orderservice.entity")
+    @EnableJpaRepositories("com.ecommerce.orderservice.repository")
+    @Import(OrderBatchWriter.class)
+    static class JpaTestConfig {
+    }
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private OrderBatchWriter orderBatchWriter;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void idsFromFreshSequencesArePositiveAndNeverShared() {
+        // The writer takes the first block of orders_seq, Hibernate the first of order_items_seq
+        Iterator<Long> orderIds = orderBatchWriter.allocateOrderIds(2).iterator();
+        entityManager.persist(order());
+        entityManager.flush();
+
+        List<Order> written = new ArrayList<>();
+        for (int i = 0; i < 2; i++) {
+            Order order = order();
+            order.setId(orderIds.next());
+            written.add(order);
+        }
+        orderBatchWriter.insert(written, List.of());
+
+        entityManager.persist(order());
+        entityManager.flush();
+
+        assertThat(written).extracting(Order::getId).containsExactly(1L, 2L);
+        assertIdsPositiveAndUnique("orders", 4);
+        assertIdsPositiveAndUnique("order_items", 4 * ITEMS);
+    }
+
+    private void assertIdsPositiveAndUnique(String table, int rows) {
+        List<Long> ids = jdbcTemplate.queryForList("SELECT id FROM " + table, Long.class);
+        assertThat(ids).hasSize(rows).doesNotHaveDuplicates().allMatch(id -> id > 0);
+    }
+
+    private Order order() {
+        LocalDateTime now = LocalDateTime.now();
+        Order order = Order.builder()
+                .userId(1L)
+                .status(OrderStatus.PENDING)
+                .createdAt(now)
+                .updatedAt(now)
+                .build();
+        for (int i = 0; i < ITEMS; i++) {
+            OrderItem item = OrderItem.builder()
+                    .productId((long) i + 1)
+                    .productName("Product " + (i + 1))
+                    .price(new BigDecimal("4.00"))
+                    .quantity(1)
+                    .build();
+            item.calculateAndSetSubtotal();
+            order.addOrderItem(item);
+        }
+        order.calculateTotal();
+        return order;
+    }
+}
@@ -0,0 +1,211 @@
+package com.ecommerce.orderservice.repository;
+
+import com.ecommerce.orderservice.config.HibernateBatchingConfig;
+import com.ecommerce.orderservice.entity.Order;
+import com.ecommerce.orderservice.entity.OrderItem;
+import com.ecommerce.orderservice.entity.OrderStatus;
+import jakarta.persistence.CascadeType;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.ManyToOne;
+import jakarta.persistence.OneToMany;
+import jakarta.persistence.Table;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Database round trips needed to store an order with {@value #ITEMS} items, with the pooled
+ * sequence ids the entities use now against the IDENTITY ids they used before.
+ */
+@DataJpaTest
+class OrderInsertRoundTripTest {
+
+    private static final int ORDERS = 10;
+    private static final int ITEMS = 30;
+
+    private static final AtomicInteger ROUND_TRIPS = new AtomicInteger();
+
+    @SpringBootConfiguration
+    @EnableAutoConfiguration
+    @EntityScan(basePackageClasses = {Order.class, OrderInsertRoundTripTest.class})
+    @EnableJpaRepositories("com.ecommerce.orderservice.repository")
+    @Import(HibernateBatchingConfig.class)
+    static class JpaTestConfig {
+
+        @Bean
+        static BeanPostProcessor roundTripCounter() {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    return bean instanceof DataSource dataSource ? counting(dataSource) : bean;
+                }
+            };
+        }
+    }
+
+    // The mapping every entity had before: one INSERT per row, no batching possible
+    @Entity
+    @Table(name = "identity_orders")
+    static class IdentityOrder {
+
+        @Id
+        @GeneratedValue(strategy = GenerationType.IDENTITY)
+        Long id;
+
+        Long userId;
+
+        @OneToMany(mappedBy = "order", cascade = CascadeType.ALL)
+        List<IdentityOrderItem> items = new ArrayList<>();
+    }
+
+    @Entity
+    @Table(name = "identity_order_items")
+    static class IdentityOrderItem {
+
+        @Id
+        @GeneratedValue(strategy = GenerationType.IDENTITY)
+        Long id;
+
+        @ManyToOne
+        IdentityOrder order;
+
+        Long productId;
+    }
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @BeforeEach
+    void setUp() {
+        // Warm up both mappings so schema and sequence setup are not counted
+        entityManager.persist(identityOrder());
+        entityManager.persist(sequenceOrder());
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void sequenceIdsBatchOrderInserts() {
+        int identity = roundTrips(this::identityOrder);
+        int sequence = roundTrips(this::sequenceOrder);
+
+        assertThat(identity).isEqualTo(ORDERS * (ITEMS + 1));
+        // one batch for orders, one for items, plus a sequence call per block of 50 ids
+        assertThat(sequence).isLessThanOrEqualTo(ORDERS * 2 + (ORDERS * (ITEMS + 1)) / 50 + 2);
+    }
+
+    private int roundTrips(Supplier<Object> orders) {
+        ROUND_TRIPS.set(0);
+        for (int i = 0; i < ORDERS; i++) {
+            entityManager.persist(orders.get());
+            entityManager.flush();
+            entityManager.clear();
+        }
+        return ROUND_TRIPS.get();
+    }
+
+    private Object identityOrder() {
+        IdentityOrder order = new IdentityOrder();
+        order.userId = 1L;
+        for (int i = 0; i < ITEMS; i++) {
+            IdentityOrderItem item = new IdentityOrderItem();
+            item.order = order;
+            item.productId = (long) i + 1;
+            order.items.add(item);
+        }
+        return order;
+    }
+
+    private Object sequenceOrder() {
+        Order order = Order.builder()
+                .userId(1L)
+                .status(OrderStatus.PENDING)
+                .build();
+        for (int i = 0; i < ITEMS; i++) {
+            OrderItem item = OrderItem.builder()
+                    .productId((long) i + 1)
+                    .productName("Product " + (i + 1))
+                    .price(new BigDecimal("4.00"))
+                    .quantity(1)
+                    .build();
+            item.calculateAndSetSubtotal();
+            order.addOrderItem(item);
+        }
+        order.calculateTotal();
+        return order;
+    }
+
+    // Counts every statement execution, a JDBC batch being one round trip
+    private static DataSource counting(DataSource target) {
+        return proxy(DataSource.class, target, (result, method) ->
+                result instanceof Connection connection ? proxy(Connection.class, connection, (statement, m) ->
+                        statement instanceof Statement ? countExecutions(statement) : statement) : result);
+    }
+
+    private static Object countExecutions(Object statement) {
+        return Proxy.newProxyInstance(OrderInsertRoundTripTest.class.getClassLoader(), statementInterfaces(statement),
+                (proxy, method, args) -> {
+                    if (method.getName().startsWith("execute")) {
+                        ROUND_TRIPS.incrementAndGet();
+                    }
+                    return invoke(statement, method, args);
+                });
+    }
+
+    private static Class<?>[] statementInterfaces(Object statement) {
+        List<Class<?>> interfaces = new ArrayList<>();
+        for (Class<?> type = statement.getClass(); type != null; type = type.getSuperclass()) {
+            for (Class<?> candidate : type.getInterfaces()) {
+                if (Statement.class.isAssignableFrom(candidate) && !interfaces.contains(candidate)) {
+                    interfaces.add(candidate);
+                }
+            }
+        }
+        return interfaces.toArray(Class<?>[]::new);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, T target, ResultWrapper wrapper) {
+        return (T) Proxy.newProxyInstance(OrderInsertRoundTripTest.class.getClassLoader(), new Class<?>[]{type},
+                (proxy, method, args) -> wrapper.wrap(invoke(target, method, args), method));
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    @FunctionalInterface
+    private interface ResultWrapper {
+        Object wrap(Object result, Method method) throws Throwable;
+    }
+}
@@ -0,0 +1,124 @@
+package com.ecommerce.orderservice.repository;
+
+import com.ecommerce.orderservice.dto.ProductDTO;
+import com.ecommerce.orderservice.entity.Cart;
+import com.ecommerce.orderservice.entity.CartItem;
+import com.ecommerce.orderservice.service.CartMutationExecutor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.data.redis.RedisAutoConfiguration;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * The Redis cart store and its write-behind flush against a real Redis (the docker-compose one
+ * on port 6380 by default); skipped when none is reachable.
+ */
+@DataJpaTest(properties = {
+        "cart.store=redis",
+        "spring.data.redis.port=6380"
+})
+@ImportAutoConfiguration({RedisAutoConfiguration.class, JacksonAutoConfiguration.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class RedisCartStoreTest {
+
+    private static final long USER_ID = 42L;
+
+    @SpringBootConfiguration
+    @EnableAutoConfiguration
+    @EntityScan("com.ecommerce.orderservice.entity")
+    @EnableJpaRepositories("com.ecommerce.orderservice.repository")
+    @Import({RedisCartStore.class, CartWriteBehindFlusher.class, CartMutationExecutor.class})
+    static class JpaTestConfig {
+    }
+
+    @Autowired
+    private RedisCartStore cartStore;
+
+    @Autowired
+    private CartWriteBehindFlusher flusher;
+
+    @Autowired
+    private CartRepository cartRepository;
+
+    @Autowired
+    private StringRedisTemplate redisTemplate;
+
+    @BeforeEach
+    void setUp() {
+        try {
+            redisTemplate.delete(List.of(RedisCartStore.key(USER_ID), RedisCartStore.DIRTY_SET_KEY));
+        } catch (Exception e) {
+            assumeTrue(false, "Redis not reachable: " + e.getMessage());
+        }
+        cartStore.clear(USER_ID);
+    }
+
+    @Test
+    void removingTheLastLineOfAFlushedCartEmptiesIt() {
+        cartStore.addItem(USER_ID, product(1L), 2);
+        flusher.flush();
+        assertThat(storedProductIds()).containsExactly(1L);
+
+        assertThat(cartStore.removeItem(USER_ID, 1L).getCartItems()).isEmpty();
+        assertThat(cartStore.getCart(USER_ID).getCartItems()).isEmpty();
+
+        flusher.flush();
+        assertThat(storedProductIds()).isEmpty();
+
+        // Expired or lost with Redis: nothing left to bring back
+        redisTemplate.delete(RedisCartStore.key(USER_ID));
+        assertThat(cartStore.getCart(USER_ID).getCartItems()).isEmpty();
+    }
+
+    @Test
+    void settingTheLastLineToZeroEmptiesAFlushedCart() {
+        cartStore.addItem(USER_ID, product(1L), 2);
+        flusher.flush();
+
+        assertThat(cartStore.updateItemQuantity(USER_ID, 1L, 0).getCartItems()).isEmpty();
+        assertThat(cartStore.getCart(USER_ID).getCartItems()).isEmpty();
+
+        flusher.flush();
+        assertThat(storedProductIds()).isEmpty();
+    }
+
+    @Test
+    void lostCartComesBackFromItsLastFlush() {
+        cartStore.addItem(USER_ID, product(1L), 2);
+        cartStore.addItem(USER_ID, product(2L), 1);
+        flusher.flush();
+
+        redisTemplate.delete(RedisCartStore.key(USER_ID));
+
+        Cart cart = cartStore.getCart(USER_ID);
+        assertThat(cart.getCartItems()).extracting(CartItem::getProductId).containsExactly(1L, 2L);
+        assertThat(cart.getCartItems()).extracting(CartItem::getQuantity).containsExactly(2, 1);
+    }
+
+    private List<Long> storedProductIds() {
+        return cartRepository.findWithItemsByUserId(USER_ID)
+                .map(cart -> cart.getCartItems().stream().map(CartItem::getProductId).toList())
+                .orElse(List.of());
+    }
+
+    private ProductDTO product(Long id) {
+        return new ProductDTO(id, "Product " + id, null, new BigDecimal("2.50"), 100, null, 1L, "Books", true);
+    }
+}
@@ -0,0 +1,104 @@
+package com.ecommerce.orderservice.repository;
+
+import com.ecommerce.orderservice.entity.Order;
+import com.ecommerce.orderservice.entity.OrderItem;
+import com.ecommerce.orderservice.entity.OrderStatus;
+import com.ecommerce.orderservice.repository.SalesRollupWriter.SaleLine;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.jdbc.Sql;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * A rollup rebuild reads the lines of archived orders along with the live ones, in one id order.
+ */
+@DataJpaTest
+@Sql("/db/order-archive.sql")
+class SalesRollupWriterTest {
+
+    @SpringBootConfiguration
+    @EnableAutoConfiguration
+    @EntityScan("com.ecommerce.orderservice.entity")
+    @EnableJpaRepositories("com.ecommerce.orderservice.repository")
+    @Import({SalesRollupWriter.class, OrderArchiveRepository.class})
+    static class JpaTestConfig {
+    }
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private SalesRollupWriter salesRollupWriter;
+
+    @Test
+    void lineBatchesCoverLiveAndArchivedOrders() {
+        Long placed = persist(OrderStatus.PENDING);
+        persist(OrderStatus.CANCELLED);
+        Long shipped = persist(OrderStatus.SHIPPED);
+        LocalDateTime earlier = LocalDateTime.now().minusHours(1);
+        archive(10L, OrderStatus.DELIVERED, earlier);
+        archive(20L, OrderStatus.CANCELLED, earlier);
+        archive(placed + 1000, OrderStatus.DELIVERED, earlier);
+
+        // Two orders per batch, as rebuildRange pages through them
+        LocalDateTime from = LocalDateTime.now().minusDays(1);
+        LocalDateTime to = LocalDateTime.now().plusDays(1);
+        List<Long> orderIds = new ArrayList<>();
+        long lastOrderId = 0;
+        while (true) {
+            List<SaleLine> lines = salesRollupWriter.findLineBatch(from, to, lastOrderId, 2);
+            if (lines.isEmpty()) {
+                break;
+            }
+            lines.stream().map(SaleLine::orderId).distinct().forEach(orderIds::add);
+            lastOrderId = lines.get(lines.size() - 1).orderId();
+        }
+
+        assertThat(orderIds).containsExactly(10L, placed, shipped, placed + 1000);
+    }
+
+    private Long persist(OrderStatus status) {
+        Order order = Order.builder()
+                .userId(1L)
+                .status(status)
+                .build();
+        OrderItem item = OrderItem.builder()
+                .productId(1L)
+                .productName("Product 1")
+                .price(new BigDecimal("4.00"))
+                .quantity(1)
+                .build();
+        item.calculateAndSetSubtotal();
+        order.addOrderItem(item);
+        order.calculateTotal();
+        entityManager.persist(order);
+        entityManager.flush();
+        return order.getId();
+    }
+
+    private void archive(long orderId, OrderStatus status, LocalDateTime createdAt) {
+        Timestamp created = Timestamp.valueOf(createdAt);
+        jdbcTemplate.update("INSERT INTO orders_archive (id, user_id, total_amount, status, created_at, updated_at, " +
+                "archived_at) VALUES (?, 1, 9.00, ?, ?, ?, ?)", orderId, status.name(), created, created, created);
+        jdbcTemplate.update("INSERT INTO order_items_archive (id, order_id, product_id, product_name, price, quantity, " +
+                "subtotal) VALUES (?, ?, 7, 'Archived product', 9.00, 1, 9.00)", orderId, orderId);
+    }
+}
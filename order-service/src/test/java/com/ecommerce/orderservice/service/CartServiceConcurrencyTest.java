@@ -0,0 +1,143 @@
+package com.ecommerce.orderservice.service;
+
+import com.ecommerce.orderservice.dto.CartItemRequest;
+import com.ecommerce.orderservice.dto.ProductDTO;
+import com.ecommerce.orderservice.entity.Cart;
+import com.ecommerce.orderservice.entity.CartItem;
+import com.ecommerce.orderservice.repository.CartStore;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class CartServiceConcurrencyTest {
+
+    private static final int USERS = 8;
+    private static final int PRODUCTS = 4;
+    private static final int ADDS_PER_USER = 1_000;
+
+    @Test
+    void parallelAddsForTheSameUserAreNeverLost() throws Exception {
+        ProductClientService productClient = mock(ProductClientService.class);
+        when(productClient.getProduct(anyLong())).thenAnswer(invocation -> {
+            Long id = invocation.getArgument(0);
+            return new ProductDTO(id, "Product " + id, null, new BigDecimal("2.50"), 100, null, 1L, "Books", true);
+        });
+
+        RacyCartStore store = new RacyCartStore();
+        CartService cartService = new CartService(store, productClient, null, new CartMutationExecutor(64, 3));
+
+        ExecutorService pool = Executors.newFixedThreadPool(32);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        try {
+            for (int user = 1; user <= USERS; user++) {
+                for (int i = 0; i < ADDS_PER_USER; i++) {
+                    long userId = user;
+                    long productId = i % PRODUCTS + 1;
+                    futures.add(pool.submit(() -> {
+                        start.await();
+                        return cartService.addItemToCart(userId, new CartItemRequest(productId, 1));
+                    }));
+                }
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        for (long user = 1; user <= USERS; user++) {
+            Map<Long, Integer> lines = store.lines(user);
+            assertThat(lines).hasSize(PRODUCTS);
+            assertThat(lines.values()).allMatch(quantity -> quantity == ADDS_PER_USER / PRODUCTS);
+
+            Cart cart = store.getCart(user);
+            assertThat(cart.getTotalItems()).isEqualTo(ADDS_PER_USER);
+            assertThat(cart.getTotalAmount()).isEqualByComparingTo(new BigDecimal("2.50").multiply(BigDecimal.valueOf(ADDS_PER_USER)));
+        }
+    }
+
+    /**
+     * Read-modify-write store with no synchronization of its own, like two transactions
+     * reading the same row: any interleaving of adds for one user loses updates.
+     */
+    private static class RacyCartStore implements CartStore {
+
+        private final Map<Long, Map<Long, Integer>> carts = new ConcurrentHashMap<>();
+
+        Map<Long, Integer> lines(Long userId) {
+            return carts.getOrDefault(userId, Map.of());
+        }
+
+        @Override
+        public Cart getCart(Long userId) {
+            Cart cart = Cart.builder().userId(userId).build();
+            lines(userId).forEach((productId, quantity) -> cart.addCartItem(CartItem.builder()
+                    .id(productId)
+                    .productId(productId)
+                    .productName("Product " + productId)
+                    .price(new BigDecimal("2.50"))
+                    .quantity(quantity)
+                    .build()));
+            return cart;
+        }
+
+        @Override
+        public Optional<Cart> findCart(Long userId) {
+            return Optional.of(getCart(userId));
+        }
+
+        @Override
+        public Cart addItem(Long userId, ProductDTO product, int quantity) {
+            Map<Long, Integer> snapshot = new HashMap<>(lines(userId));
+            Thread.yield();
+            snapshot.merge(product.getId(), quantity, Integer::sum);
+            carts.put(userId, snapshot);
+            return getCart(userId);
+        }
+
+        @Override
+        public Cart updateItemQuantity(Long userId, Long itemId, int quantity) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Cart removeItem(Long userId, Long itemId) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Cart removeItems(Long userId, Collection<Long> itemIds) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Cart save(Cart cart) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void clear(Long userId) {
+            carts.remove(userId);
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.ecommerce.orderservice.service;
+
+import com.ecommerce.orderservice.entity.IdempotencyRecord;
+import com.ecommerce.orderservice.repository.IdempotencyRecordRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * A key whose row has expired but is still waiting for the purge is free to be used again.
+ */
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class IdempotencyKeyStoreTest {
+
+    private static final long USER_ID = 7L;
+
+    @SpringBootConfiguration
+    @EnableAutoConfiguration
+    @EntityScan("com.ecommerce.orderservice.entity")
+    @EnableJpaRepositories("com.ecommerce.orderservice.repository")
+    @Import(IdempotencyKeyStore.class)
+    static class JpaTestConfig {
+    }
+
+    @Autowired
+    private IdempotencyKeyStore idempotencyKeyStore;
+
+    @Autowired
+    private IdempotencyRecordRepository idempotencyRecordRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void expiredRowNotYetPurgedIsReplaced() {
+        idempotencyRecordRepository.saveAndFlush(IdempotencyRecord.builder()
+                .recordKey(USER_ID + ":checkout-1")
+                .requestFingerprint("old request")
+                .orderId(1L)
+                .expiresAt(LocalDateTime.now().minusMinutes(1))
+                .build());
+
+        IdempotencyKeyStore.Claim claim = idempotencyKeyStore.claim(USER_ID, "checkout-1", "new request");
+        assertThat(idempotencyKeyStore.findRecordedOrderId(claim)).isEmpty();
+
+        // As in checkout: looked up first, recorded inside the order transaction
+        transactionTemplate.executeWithoutResult(status -> idempotencyKeyStore.record(claim, 2L));
+
+        assertThat(idempotencyKeyStore.findRecordedOrderId(claim)).contains(2L);
+    }
+}
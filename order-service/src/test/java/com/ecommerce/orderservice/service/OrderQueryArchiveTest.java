@@ -0,0 +1,115 @@
+package com.ecommerce.orderservice.service;
+
+import com.ecommerce.orderservice.dto.OrderItemResponse;
+import com.ecommerce.orderservice.dto.OrderResponse;
+import com.ecommerce.orderservice.entity.Order;
+import com.ecommerce.orderservice.entity.OrderItem;
+import com.ecommerce.orderservice.entity.OrderStatus;
+import com.ecommerce.orderservice.repository.OrderArchiveRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.jdbc.Sql;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Order lists reach archived orders only when asked to, paging over both tables as one.
+ */
+@DataJpaTest
+@Sql("/db/order-archive.sql")
+class OrderQueryArchiveTest {
+
+    @SpringBootConfiguration
+    @EnableAutoConfiguration
+    @EntityScan("com.ecommerce.orderservice.entity")
+    @EnableJpaRepositories("com.ecommerce.orderservice.repository")
+    @Import({OrderQueryService.class, OrderArchiveRepository.class})
+    static class JpaTestConfig {
+    }
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private OrderQueryService orderQueryService;
+
+    @BeforeEach
+    void setUp() {
+        for (int i = 0; i < 2; i++) {
+            Order order = Order.builder()
+                    .userId(1L)
+                    .status(OrderStatus.PENDING)
+                    .build();
+            OrderItem item = OrderItem.builder()
+                    .productId(1L)
+                    .productName("Product 1")
+                    .price(new BigDecimal("4.00"))
+                    .quantity(1)
+                    .build();
+            item.calculateAndSetSubtotal();
+            order.addOrderItem(item);
+            order.calculateTotal();
+            entityManager.persist(order);
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        archive(900_001L, 1L, OrderStatus.DELIVERED, LocalDateTime.now().minusYears(1));
+        archive(900_002L, 2L, OrderStatus.CANCELLED, LocalDateTime.now().minusYears(2));
+    }
+
+    @Test
+    void userOrdersIncludeArchivedOnlyWhenAsked() {
+        PageRequest newestFirst = PageRequest.of(0, 2, Sort.by("createdAt").descending());
+
+        assertThat(orderQueryService.getUserOrders(1L, false, newestFirst).getTotalElements()).isEqualTo(2);
+
+        Page<OrderResponse> firstPage = orderQueryService.getUserOrders(1L, true, newestFirst);
+        assertThat(firstPage.getTotalElements()).isEqualTo(3);
+        assertThat(firstPage.getContent()).extracting(OrderResponse::getStatus)
+                .containsOnly(OrderStatus.PENDING);
+
+        Page<OrderResponse> secondPage = orderQueryService.getUserOrders(1L, true, newestFirst.next());
+        assertThat(secondPage.getContent()).singleElement().satisfies(order -> {
+            assertThat(order.getId()).isEqualTo(900_001L);
+            assertThat(order.getVersion()).isNull();
+            assertThat(order.getOrderItems()).extracting(OrderItemResponse::getProductName)
+                    .containsExactly("Archived product");
+        });
+    }
+
+    @Test
+    void allOrdersFilterArchivedByStatus() {
+        Page<OrderResponse> cancelled = orderQueryService.getAllOrders(OrderStatus.CANCELLED, null, null, true,
+                PageRequest.of(0, 10, Sort.by("createdAt")));
+
+        assertThat(cancelled.getContent()).extracting(OrderResponse::getId).containsExactly(900_002L);
+    }
+
+    private void archive(long orderId, long userId, OrderStatus status, LocalDateTime createdAt) {
+        Timestamp created = Timestamp.valueOf(createdAt);
+        jdbcTemplate.update("INSERT INTO orders_archive (id, user_id, total_amount, status, created_at, updated_at, " +
+                "archived_at) VALUES (?, ?, 9.00, ?, ?, ?, ?)", orderId, userId, status.name(), created, created, created);
+        jdbcTemplate.update("INSERT INTO order_items_archive (id, order_id, product_id, product_name, price, quantity, " +
+                "subtotal) VALUES (?, ?, 7, 'Archived product', 9.00, 1, 9.00)", orderId, orderId);
+    }
+}
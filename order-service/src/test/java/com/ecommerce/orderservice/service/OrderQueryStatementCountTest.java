@@ -0,0 +1,147 @@
+package com.ecommerce.orderservice.service;
+
+import com.ecommerce.orderservice.dto.OrderResponse;
+import com.ecommerce.orderservice.dto.OrderSummaryResponse;
+import com.ecommerce.orderservice.entity.Order;
+import com.ecommerce.orderservice.entity.OrderItem;
+import com.ecommerce.orderservice.entity.OrderStatus;
+import com.ecommerce.orderservice.entity.OrderSummary;
+import com.ecommerce.orderservice.repository.OrderArchiveRepository;
+import com.ecommerce.orderservice.repository.OrderRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+
+import java.math.BigDecimal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Order read paths must not issue a query per order, however many orders are on a page.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+class OrderQueryStatementCountTest {
+
+    private static final int ORDERS = 20;
+    private static final int ITEMS_PER_ORDER = 3;
+
+    @SpringBootConfiguration
+    @EnableAutoConfiguration
+    @EntityScan("com.ecommerce.orderservice.entity")
+    @EnableJpaRepositories("com.ecommerce.orderservice.repository")
+    @Import({OrderQueryService.class, OrderArchiveRepository.class})
+    static class JpaTestConfig {
+    }
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private OrderQueryService orderQueryService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        for (int i = 0; i < ORDERS; i++) {
+            Order order = Order.builder()
+                    .userId(i % 2 == 0 ? 1L : 2L)
+                    .status(OrderStatus.PENDING)
+                    .build();
+            for (int j = 0; j < ITEMS_PER_ORDER; j++) {
+                OrderItem item = OrderItem.builder()
+                        .productId((long) j + 1)
+                        .productName("Product " + (j + 1))
+                        .price(new BigDecimal("4.00"))
+                        .quantity(2)
+                        .build();
+                item.calculateAndSetSubtotal();
+                order.addOrderItem(item);
+            }
+            order.calculateTotal();
+            entityManager.persist(order);
+            entityManager.persist(OrderSummary.of(order));
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void userOrderPageLoadsItemsInOneQuery() {
+        Page<OrderResponse> page = orderQueryService.getUserOrders(1L, false,
+                PageRequest.of(0, 5, Sort.by("createdAt").descending()));
+
+        assertThat(page.getContent()).hasSize(5);
+        assertThat(page.getContent()).allSatisfy(order -> assertThat(order.getOrderItems()).hasSize(ITEMS_PER_ORDER));
+        // page of orders, count, items
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(3);
+    }
+
+    @Test
+    void allOrdersPageLoadsItemsInOneQuery() {
+        Page<OrderResponse> page = orderQueryService.getAllOrders(PageRequest.of(0, ORDERS * 2));
+
+        assertThat(page.getContent()).hasSize(ORDERS);
+        assertThat(page.getContent()).allSatisfy(order -> assertThat(order.getOrderItems()).hasSize(ITEMS_PER_ORDER));
+        // a first page that is not full needs no count query
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+    }
+
+    @Test
+    void summariesComeFromTheReadModelOnly() {
+        Page<OrderSummaryResponse> page = orderQueryService.getUserOrderSummaries(2L, PageRequest.of(0, 5));
+
+        assertThat(page.getContent()).hasSize(5);
+        assertThat(page.getContent()).allSatisfy(order -> {
+            assertThat(order.getItemCount()).isEqualTo(ITEMS_PER_ORDER);
+            assertThat(order.getFirstProductName()).isEqualTo("Product 1");
+        });
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+        assertThat(statistics.getEntityStatistics(Order.class.getName()).getLoadCount()).isZero();
+        assertThat(statistics.getEntityStatistics(OrderItem.class.getName()).getLoadCount()).isZero();
+    }
+
+    @Test
+    void statusFilteredSummariesUseOneQueryPerPage() {
+        Page<OrderSummaryResponse> page = orderQueryService.getAllOrderSummaries(OrderStatus.PENDING,
+                PageRequest.of(0, 5, Sort.by("createdAt").descending()));
+
+        assertThat(page.getTotalElements()).isEqualTo(ORDERS);
+        // page of summaries, count
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+    }
+
+    @Test
+    void singleOrderLoadsWithItsItems() {
+        Long orderId = orderRepository.findAll(PageRequest.of(0, 1)).getContent().get(0).getId();
+        entityManager.clear();
+        statistics.clear();
+
+        OrderResponse order = orderQueryService.getOrderById(orderId);
+
+        assertThat(order.getOrderItems()).hasSize(ITEMS_PER_ORDER);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+}
@@ -3,6 +3,8 @@ package com.ecommerce.productservice.controller;
 import com.ecommerce.productservice.dto.CategoryRequest;
 import com.ecommerce.productservice.dto.CategoryResponse;
 import com.ecommerce.productservice.service.CategoryService;
+import com.ecommerce.security.JwtPrincipal;
+import com.ecommerce.security.RequiresRole;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -23,6 +25,7 @@ public class CategoryController {
 
     private final CategoryService categoryService;
 
+    @RequiresRole(JwtPrincipal.ROLE_ADMIN)
     @PostMapping
     public ResponseEntity<?> createCategory(@Valid @RequestBody CategoryRequest request) {
         try {
@@ -62,6 +65,7 @@ public class CategoryController {
         return ResponseEntity.ok(categories);
     }
 
+    @RequiresRole(JwtPrincipal.ROLE_ADMIN)
     @PutMapping("/{id}")
     public ResponseEntity<?> updateCategory(@PathVariable Long id,
                                             @Valid @RequestBody CategoryRequest request) {
@@ -76,6 +80,7 @@ public class CategoryController {
         }
     }
 
+    @RequiresRole(JwtPrincipal.ROLE_ADMIN)
     @DeleteMapping("/{id}")
     public ResponseEntity<?> deleteCategory(@PathVariable Long id) {
         try {
@@ -3,6 +3,8 @@ package com.ecommerce.productservice.controller;
 import com.ecommerce.productservice.dto.ProductRequest;
 import com.ecommerce.productservice.dto.ProductResponse;
 import com.ecommerce.productservice.service.ProductService;
+import com.ecommerce.security.JwtPrincipal;
+import com.ecommerce.security.RequiresRole;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -16,6 +18,7 @@ import org.springframework.web.bind.annotation.*;
 
 import java.math.BigDecimal;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 @RestController
@@ -27,6 +30,7 @@ public class ProductController {
 
     private final ProductService productService;
 
+    @RequiresRole(JwtPrincipal.ROLE_ADMIN)
     @PostMapping
     public ResponseEntity<?> createProduct(@Valid @RequestBody ProductRequest request) {
         try {
@@ -54,6 +58,19 @@ public class ProductController {
         }
     }
 
+    @GetMapping("/batch")
+    public ResponseEntity<?> getProductsByIds(@RequestParam List<Long> ids) {
+        try {
+            List<ProductResponse> products = productService.getProductsByIds(ids);
+            return ResponseEntity.ok(products);
+        } catch (Exception e) {
+            log.error("Error fetching products: {}", e.getMessage());
+            Map<String, String> error = new HashMap<>();
+            error.put("error", e.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
+        }
+    }
+
     @GetMapping
     public ResponseEntity<Page<ProductResponse>> getAllProducts(
             @RequestParam(defaultValue = "0") int page,
@@ -103,6 +120,7 @@ public class ProductController {
         return ResponseEntity.ok(products);
     }
 
+    @RequiresRole(JwtPrincipal.ROLE_ADMIN)
     @PutMapping("/{id}")
     public ResponseEntity<?> updateProduct(@PathVariable Long id,
                                            @Valid @RequestBody ProductRequest request) {
@@ -117,6 +135,7 @@ public class ProductController {
         }
     }
 
+    @RequiresRole(JwtPrincipal.ROLE_ADMIN)
     @PatchMapping("/{id}/stock")
     public ResponseEntity<?> updateStock(@PathVariable Long id,
                                          @RequestParam Integer quantity) {
@@ -133,6 +152,7 @@ public class ProductController {
         }
     }
 
+    @RequiresRole(JwtPrincipal.ROLE_ADMIN)
     @DeleteMapping("/{id}")
     public ResponseEntity<?> deleteProduct(@PathVariable Long id) {
         try {
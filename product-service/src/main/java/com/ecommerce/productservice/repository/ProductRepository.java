@@ -4,12 +4,15 @@ import com.ecommerce.productservice.entity.Product;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface ProductRepository extends JpaRepository<Product, Long> {
@@ -46,4 +49,17 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
 
     // Count by category
     Long countByCategoryId(Long categoryId);
+
+    // Batch lookup with the category fetched in the same query
+    @Query("SELECT p FROM Product p JOIN FETCH p.category WHERE p.id IN :ids")
+    List<Product> findAllWithCategoryByIdIn(@Param("ids") Collection<Long> ids);
+
+    // Stock only, without loading the product
+    @Query("SELECT p.stock FROM Product p WHERE p.id = :id")
+    Optional<Integer> findStockById(@Param("id") Long id);
+
+    // Atomic stock adjustment, refuses to go below zero
+    @Modifying
+    @Query("UPDATE Product p SET p.stock = p.stock + :quantity WHERE p.id = :id AND p.stock + :quantity >= 0")
+    int adjustStock(@Param("id") Long id, @Param("quantity") Integer quantity);
 }
\ No newline at end of file
@@ -66,8 +66,9 @@ public class CategoryService {
                 .collect(Collectors.toList());
     }
 
+    // Cached product details carry the category name
     @Transactional
-    @CacheEvict(value = {"categories", "active-categories"}, allEntries = true)
+    @CacheEvict(value = {"categories", "active-categories", "products"}, allEntries = true)
     public CategoryResponse updateCategory(Long id, CategoryRequest request) {
         log.info("Updating category with ID: {}", id);
 
@@ -85,7 +86,7 @@ public class CategoryService {
     }
 
     @Transactional
-    @CacheEvict(value = {"categories", "active-categories"}, allEntries = true)
+    @CacheEvict(value = {"categories", "active-categories", "products"}, allEntries = true)
     public void deleteCategory(Long id) {
         log.info("Deleting category with ID: {}", id);
 
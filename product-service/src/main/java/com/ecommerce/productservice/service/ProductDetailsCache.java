@@ -0,0 +1,41 @@
+package com.ecommerce.productservice.service;
+
+import com.ecommerce.productservice.dto.ProductResponse;
+import com.ecommerce.productservice.entity.Product;
+import com.ecommerce.productservice.repository.ProductRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.stereotype.Component;
+
+/**
+ * Long-lived cache of the static product attributes (name, price, description, ...).
+ * Stock is deliberately left out and served by {@link ProductStockService}.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ProductDetailsCache {
+
+    private final ProductRepository productRepository;
+
+    @Cacheable(value = "products", key = "#id")
+    public ProductResponse getProductDetails(Long id) {
+        log.info("Loading product details for ID: {}", id);
+        Product product = productRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("Product not found with ID: " + id));
+
+        return ProductResponse.builder()
+                .id(product.getId())
+                .name(product.getName())
+                .description(product.getDescription())
+                .price(product.getPrice())
+                .imageUrl(product.getImageUrl())
+                .categoryId(product.getCategory().getId())
+                .categoryName(product.getCategory().getName())
+                .active(product.getActive())
+                .createdAt(product.getCreatedAt())
+                .updatedAt(product.getUpdatedAt())
+                .build();
+    }
+}
@@ -0,0 +1,53 @@
+package com.ecommerce.productservice.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Publishes the id of a changed product on a Redis channel so that services holding
+ * local product snapshots (order-service) can drop them without waiting for their TTL.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ProductEventPublisher {
+
+    private final StringRedisTemplate stringRedisTemplate;
+
+    @Value("${product.events.enabled:true}")
+    private boolean enabled;
+
+    @Value("${product.events.channel:product-updates}")
+    private String channel;
+
+    public void productChanged(Long productId) {
+        if (!enabled) {
+            return;
+        }
+
+        // Publish only once the change is visible to readers
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    publish(productId);
+                }
+            });
+        } else {
+            publish(productId);
+        }
+    }
+
+    private void publish(Long productId) {
+        try {
+            stringRedisTemplate.convertAndSend(channel, productId.toString());
+        } catch (Exception e) {
+            log.warn("Failed to publish change for product {}: {}", productId, e.getMessage());
+        }
+    }
+}
@@ -8,14 +8,16 @@ import com.ecommerce.productservice.repository.CategoryRepository;
 import com.ecommerce.productservice.repository.ProductRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cache.annotation.CacheEvict;
-import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.util.List;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
@@ -24,6 +26,12 @@ public class ProductService {
 
     private final ProductRepository productRepository;
     private final CategoryRepository categoryRepository;
+    private final ProductDetailsCache productDetailsCache;
+    private final ProductStockService productStockService;
+    private final ProductEventPublisher productEventPublisher;
+
+    @Value("${product.batch.max-size:200}")
+    private int maxBatchSize;
 
     @Transactional
     @CacheEvict(value = "products", allEntries = true)
@@ -49,12 +57,27 @@ public class ProductService {
         return mapToResponse(saved);
     }
 
-    @Cacheable(value = "products", key = "#id")
     public ProductResponse getProductById(Long id) {
         log.info("Fetching product with ID: {}", id);
-        Product product = productRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Product not found with ID: " + id));
-        return mapToResponse(product);
+
+        // Static attributes come from the long-lived cache, stock from the live counter
+        ProductResponse details = productDetailsCache.getProductDetails(id);
+        return details.toBuilder()
+                .stock(productStockService.getStock(id))
+                .build();
+    }
+
+    // Current state of many products in one query, used by order-service at checkout
+    public List<ProductResponse> getProductsByIds(List<Long> ids) {
+        log.info("Fetching {} products by ID", ids.size());
+
+        if (ids.size() > maxBatchSize) {
+            throw new RuntimeException("Too many product IDs, maximum is " + maxBatchSize);
+        }
+
+        return productRepository.findAllWithCategoryByIdIn(ids).stream()
+                .map(this::mapToResponse)
+                .collect(Collectors.toList());
     }
 
     public Page<ProductResponse> getAllProducts(Pageable pageable) {
@@ -99,6 +122,8 @@ public class ProductService {
         product.setActive(request.getActive());
 
         Product updated = productRepository.save(product);
+        productStockService.evict(id);
+        productEventPublisher.productChanged(id);
         log.info("Product updated: {}", updated.getId());
 
         return mapToResponse(updated);
@@ -114,23 +139,24 @@ public class ProductService {
         }
 
         productRepository.deleteById(id);
+        productStockService.evict(id);
+        productEventPublisher.productChanged(id);
         log.info("Product deleted: {}", id);
     }
 
+    // Stock changes no longer touch the "products" cache, only the live stock counter
     @Transactional
-    @CacheEvict(value = "products", key = "#id")
     public void updateStock(Long id, Integer quantity) {
         log.info("Updating stock for product: {} - Quantity: {}", id, quantity);
 
-        Product product = productRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Product not found with ID: " + id));
-
-        if (product.getStock() + quantity < 0) {
+        if (productRepository.adjustStock(id, quantity) == 0) {
+            if (!productRepository.existsById(id)) {
+                throw new RuntimeException("Product not found with ID: " + id);
+            }
             throw new RuntimeException("Insufficient stock for product: " + id);
         }
 
-        product.setStock(product.getStock() + quantity);
-        productRepository.save(product);
+        productStockService.applyDelta(id, quantity);
         log.info("Stock updated for product: {}", id);
     }
 
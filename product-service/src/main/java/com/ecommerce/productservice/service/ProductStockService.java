@@ -0,0 +1,138 @@
+package com.ecommerce.productservice.service;
+
+import com.ecommerce.productservice.repository.ProductRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Live stock counters kept apart from the "products" detail cache.
+ * <p>
+ * Stock changes on every purchase, so it lives in its own Redis keys
+ * ({@code product-stock::<id>}) that are adjusted in place with INCRBY
+ * instead of invalidating the long-lived static product entry.
+ * The database stays the source of truth; a missing counter is reloaded from it.
+ * <p>
+ * A reload must not store a value that misses a concurrent change, so every product also
+ * has a version hash ({@code product-stock-version::<id>}): a change marks itself pending
+ * inside its transaction and bumps the generation once it completes. A reload only fills
+ * the counter when nothing is pending and the generation it saw before reading the
+ * database is still current.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ProductStockService {
+
+    private static final String KEY_PREFIX = "product-stock::";
+    private static final String VERSION_KEY_PREFIX = "product-stock-version::";
+
+    // KEYS: version hash; ARGV: version ttl millis
+    private static final RedisScript<Long> BEGIN_CHANGE = new DefaultRedisScript<>(
+            "redis.call('HINCRBY', KEYS[1], 'pending', 1) " +
+                    "redis.call('PEXPIRE', KEYS[1], ARGV[1]) " +
+                    "return 1",
+            Long.class);
+
+    // KEYS: version hash, counter; ARGV: incr|del|none, delta, version ttl millis
+    // Only adjusts counters that are already loaded, never creates one from zero
+    private static final RedisScript<Long> END_CHANGE = new DefaultRedisScript<>(
+            "if redis.call('HINCRBY', KEYS[1], 'pending', -1) < 0 then " +
+                    "redis.call('HSET', KEYS[1], 'pending', 0) end " +
+                    "redis.call('HINCRBY', KEYS[1], 'gen', 1) " +
+                    "redis.call('PEXPIRE', KEYS[1], ARGV[3]) " +
+                    "if ARGV[1] == 'incr' and redis.call('EXISTS', KEYS[2]) == 1 then " +
+                    "redis.call('INCRBY', KEYS[2], ARGV[2]) " +
+                    "elseif ARGV[1] == 'del' then redis.call('DEL', KEYS[2]) end " +
+                    "return 1",
+            Long.class);
+
+    // KEYS: version hash, counter; ARGV: generation seen before the read, stock, ttl millis
+    private static final RedisScript<Long> FILL = new DefaultRedisScript<>(
+            "local v = redis.call('HMGET', KEYS[1], 'gen', 'pending') " +
+                    "if (tonumber(v[2]) or 0) > 0 or (v[1] or '0') ~= ARGV[1] then return 0 end " +
+                    "redis.call('SET', KEYS[2], ARGV[2], 'PX', ARGV[3], 'NX') " +
+                    "return 1",
+            Long.class);
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final ProductRepository productRepository;
+
+    @Value("${product.stock-cache.ttl:PT1H}")
+    private Duration stockTtl;
+
+    // Outlives any transaction, so a pending mark left by a crashed instance clears itself
+    @Value("${product.stock-cache.version-ttl:PT10M}")
+    private Duration versionTtl;
+
+    public Integer getStock(Long productId) {
+        String cached = stringRedisTemplate.opsForValue().get(key(productId));
+        if (cached != null) {
+            return Integer.valueOf(cached);
+        }
+
+        // Generation first, then the database: a change committed in between makes the fill a no-op
+        Object generation = stringRedisTemplate.opsForHash().get(versionKey(productId), "gen");
+        Integer stock = productRepository.findStockById(productId)
+                .orElseThrow(() -> new RuntimeException("Product not found with ID: " + productId));
+        stringRedisTemplate.execute(FILL, List.of(versionKey(productId), key(productId)),
+                generation != null ? generation.toString() : "0",
+                stock.toString(),
+                Long.toString(stockTtl.toMillis()));
+        return stock;
+    }
+
+    // Apply a stock delta to the live counter once its transaction commits
+    public void applyDelta(Long productId, int delta) {
+        change(productId, "incr", delta);
+    }
+
+    // Drop the counter so the next read reloads it from the database
+    public void evict(Long productId) {
+        change(productId, "del", 0);
+    }
+
+    private void change(Long productId, String committedAction, int delta) {
+        List<String> keys = List.of(versionKey(productId), key(productId));
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            // Already committed and possibly read back by someone else: only dropping is safe
+            endChange(keys, "del", 0);
+            return;
+        }
+
+        stringRedisTemplate.execute(BEGIN_CHANGE, List.of(versionKey(productId)),
+                Long.toString(versionTtl.toMillis()));
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                endChange(keys, status == STATUS_COMMITTED ? committedAction : "none", delta);
+            }
+        });
+    }
+
+    private void endChange(List<String> keys, String action, int delta) {
+        try {
+            stringRedisTemplate.execute(END_CHANGE, keys,
+                    action, Integer.toString(delta), Long.toString(versionTtl.toMillis()));
+        } catch (Exception e) {
+            log.warn("Failed to update stock cache: {}", e.getMessage());
+        }
+    }
+
+    private String key(Long productId) {
+        return KEY_PREFIX + productId;
+    }
+
+    private String versionKey(Long productId) {
+        return VERSION_KEY_PREFIX + productId;
+    }
+}
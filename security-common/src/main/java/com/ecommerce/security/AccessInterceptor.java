@@ -0,0 +1,38 @@
+package com.ecommerce.security;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+/**
+ * Enforces {@link RequiresRole} on the handler the request was mapped to.
+ */
+public class AccessInterceptor implements HandlerInterceptor {
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler)
+            throws Exception {
+        if (!(handler instanceof HandlerMethod method)) {
+            return true;
+        }
+        RequiresRole required = method.getMethodAnnotation(RequiresRole.class);
+        if (required == null) {
+            required = method.getBeanType().getAnnotation(RequiresRole.class);
+        }
+        if (required == null) {
+            return true;
+        }
+
+        JwtPrincipal principal = JwtPrincipal.from(request);
+        if (principal == null) {
+            JwtAuthenticationFilter.writeError(response, HttpServletResponse.SC_UNAUTHORIZED, "Authentication required");
+            return false;
+        }
+        if (!principal.hasRole(required.value())) {
+            JwtAuthenticationFilter.writeError(response, HttpServletResponse.SC_FORBIDDEN, "Access denied");
+            return false;
+        }
+        return true;
+    }
+}
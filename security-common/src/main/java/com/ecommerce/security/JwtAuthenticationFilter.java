@@ -0,0 +1,77 @@
+package com.ecommerce.security;
+
+import io.jsonwebtoken.JwtException;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * Authenticates requests from the bearer token and puts the {@link JwtPrincipal} on the
+ * request. Requests without a token are only let through on public paths; an invalid token
+ * is refused everywhere. Authorisation is left to {@link AccessInterceptor}.
+ */
+@Slf4j
+public class JwtAuthenticationFilter extends OncePerRequestFilter {
+
+    private static final String BEARER = "Bearer ";
+
+    private final JwtVerifier jwtVerifier;
+    private final PathRules publicPaths;
+
+    public JwtAuthenticationFilter(JwtVerifier jwtVerifier, List<String> publicPaths) {
+        this.jwtVerifier = jwtVerifier;
+        this.publicPaths = PathRules.parse(publicPaths);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        // CORS preflights never carry credentials
+        if (HttpMethod.OPTIONS.matches(request.getMethod())) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        String header = request.getHeader(HttpHeaders.AUTHORIZATION);
+        if (header == null || !header.startsWith(BEARER)) {
+            if (publicPaths.matches(request.getMethod(), request.getRequestURI())) {
+                chain.doFilter(request, response);
+            } else {
+                unauthorized(response, "Authentication required");
+            }
+            return;
+        }
+
+        try {
+            request.setAttribute(JwtPrincipal.REQUEST_ATTRIBUTE, jwtVerifier.verify(header.substring(BEARER.length())));
+        } catch (JwtException e) {
+            log.debug("Rejected token for {} {}: {}", request.getMethod(), request.getRequestURI(), e.getMessage());
+            unauthorized(response, "Invalid or expired token");
+            return;
+        }
+        chain.doFilter(request, response);
+    }
+
+    static void writeError(HttpServletResponse response, int status, String message) throws IOException {
+        response.setStatus(status);
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        // Messages are fixed strings, no escaping needed
+        response.getWriter().write("{\"error\":\"" + message + "\"}");
+    }
+
+    private void unauthorized(HttpServletResponse response, String message) throws IOException {
+        response.setHeader(HttpHeaders.WWW_AUTHENTICATE, "Bearer");
+        writeError(response, HttpServletResponse.SC_UNAUTHORIZED, message);
+    }
+}
@@ -0,0 +1,14 @@
+package com.ecommerce.security;
+
+import java.security.PublicKey;
+
+/**
+ * Looks up the public key a token was signed with by its {@code kid} header.
+ */
+public interface JwtKeySource {
+
+    /**
+     * Returns the key for the id, or null when it is unknown.
+     */
+    PublicKey findKey(String keyId);
+}
@@ -0,0 +1,38 @@
+package com.ecommerce.security;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+import java.time.Instant;
+
+/**
+ * The verified claims of a JWT. Immutable, so one instance can be shared by every request
+ * presenting the same token.
+ */
+public record JwtPrincipal(String email, Long userId, String role, Instant expiresAt, String tokenId) {
+
+    public static final String REQUEST_ATTRIBUTE = JwtPrincipal.class.getName();
+
+    public static final String ROLE_ADMIN = "ADMIN";
+
+    // Principal put on the request by JwtAuthenticationFilter, null for anonymous requests
+    public static JwtPrincipal from(HttpServletRequest request) {
+        return (JwtPrincipal) request.getAttribute(REQUEST_ATTRIBUTE);
+    }
+
+    public boolean isExpired(Instant now) {
+        return !expiresAt.isAfter(now);
+    }
+
+    public boolean hasRole(String expected) {
+        return expected.equals(role);
+    }
+
+    public boolean isAdmin() {
+        return hasRole(ROLE_ADMIN);
+    }
+
+    // Admins may act for any user, everyone else only for themselves
+    public boolean canActFor(Long targetUserId) {
+        return isAdmin() || (userId != null && userId.equals(targetUserId));
+    }
+}
@@ -0,0 +1,83 @@
+package com.ecommerce.security;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.core.Ordered;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Local JWT authentication for a resource service: tokens are verified against the key set
+ * published by auth-service, without a call to auth-service per request.
+ * Switched off with {@code security.jwt.enabled=false}.
+ */
+@AutoConfiguration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@ConditionalOnProperty(prefix = "security.jwt", name = "enabled", matchIfMissing = true)
+public class JwtSecurityAutoConfiguration {
+
+    @Bean
+    @ConditionalOnMissingBean(JwtKeySource.class)
+    public RemoteJwkSet remoteJwkSet(
+            @Value("${security.jwt.jwks-uri:http://localhost:8081/api/auth/.well-known/jwks.json}") URI jwksUri,
+            @Value("${security.jwt.jwks-timeout:PT2S}") Duration timeout,
+            @Value("${security.jwt.jwks-refresh-interval:PT5M}") Duration refreshInterval,
+            @Value("${security.jwt.jwks-min-refresh-interval:PT30S}") Duration minRefreshInterval) {
+        return new RemoteJwkSet(jwksUri, timeout, refreshInterval, minRefreshInterval);
+    }
+
+    @Bean
+    @ConditionalOnMissingBean(RevocationCheck.class)
+    @ConditionalOnProperty(prefix = "security.jwt.revocation", name = "enabled", matchIfMissing = true)
+    public RemoteRevocationList remoteRevocationList(
+            @Value("${security.jwt.revocation.uri:http://localhost:8081/api/auth/revocations}") URI revocationsUri,
+            @Value("${security.jwt.revocation.timeout:PT2S}") Duration timeout,
+            @Value("${security.jwt.revocation.poll-interval:PT5S}") Duration pollInterval,
+            @Value("${security.jwt.revocation.expected-entries:100000}") int expectedEntries) {
+        return new RemoteRevocationList(revocationsUri, timeout, pollInterval, expectedEntries);
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    public JwtVerifier jwtVerifier(JwtKeySource keySource,
+                                   ObjectProvider<RevocationCheck> revocationCheck,
+                                   @Value("${security.jwt.cache-size:10000}") int cacheSize) {
+        JwtVerifier verifier = new JwtVerifier(keySource, revocationCheck.getIfAvailable(() -> RevocationCheck.NONE),
+                cacheSize);
+        if (keySource instanceof RemoteJwkSet remote) {
+            remote.onKeysRemoved(verifier::invalidateAll);
+        }
+        return verifier;
+    }
+
+    @Bean
+    public FilterRegistrationBean<JwtAuthenticationFilter> jwtAuthenticationFilter(
+            JwtVerifier jwtVerifier,
+            @Value("${security.jwt.public-paths:GET /**/health}") List<String> publicPaths) {
+        FilterRegistrationBean<JwtAuthenticationFilter> registration =
+                new FilterRegistrationBean<>(new JwtAuthenticationFilter(jwtVerifier, publicPaths));
+        registration.addUrlPatterns("/api/*");
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 10);
+        return registration;
+    }
+
+    @Bean
+    public WebMvcConfigurer jwtAccessInterceptorConfigurer() {
+        return new WebMvcConfigurer() {
+            @Override
+            public void addInterceptors(InterceptorRegistry registry) {
+                registry.addInterceptor(new AccessInterceptor()).addPathPatterns("/api/**");
+            }
+        };
+    }
+}
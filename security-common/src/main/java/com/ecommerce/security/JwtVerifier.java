@@ -0,0 +1,232 @@
+package com.ecommerce.security;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JweHeader;
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.LocatorAdapter;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.Key;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Clock;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Verifies RS256 JWTs with a parser built once at startup; signing keys are looked up by
+ * {@code kid} in a {@link JwtKeySource}, tokens with any other algorithm are rejected.
+ * <p>
+ * A token is parsed and its signature checked once; the resulting {@link JwtPrincipal} is kept
+ * in a bounded LRU cache keyed by the SHA-256 of the token until the token expires, so repeat
+ * requests with the same token skip the RSA and JSON work. The cache is split into segments
+ * with their own lock to keep request threads from queueing on a single monitor.
+ */
+public class JwtVerifier {
+
+    public static final String ALGORITHM = "RS256";
+
+    private static final int SEGMENTS = 16;
+
+    private final JwtParser parser;
+    private final RevocationCheck revocationCheck;
+    private final Clock clock;
+    private final Segment[] segments;
+    private final int maxEntries;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+
+    public JwtVerifier(JwtKeySource keySource, int cacheSize) {
+        this(keySource, RevocationCheck.NONE, cacheSize, Clock.systemUTC());
+    }
+
+    public JwtVerifier(JwtKeySource keySource, RevocationCheck revocationCheck, int cacheSize) {
+        this(keySource, revocationCheck, cacheSize, Clock.systemUTC());
+    }
+
+    public JwtVerifier(JwtKeySource keySource, RevocationCheck revocationCheck, int cacheSize, Clock clock) {
+        this.revocationCheck = revocationCheck;
+        this.parser = Jwts.parser()
+                .keyLocator(new KeyLocator(keySource))
+                .clock(() -> Date.from(clock.instant()))
+                .build();
+        this.clock = clock;
+        this.maxEntries = Math.max(0, cacheSize);
+        this.segments = new Segment[SEGMENTS];
+        int perSegment = (maxEntries + SEGMENTS - 1) / SEGMENTS;
+        for (int i = 0; i < SEGMENTS; i++) {
+            segments[i] = new Segment(perSegment);
+        }
+    }
+
+    /**
+     * Returns the principal of a valid token. Throws {@link JwtException} when the token is
+     * malformed, has a bad signature, has expired or was revoked.
+     */
+    public JwtPrincipal verify(String token) {
+        JwtPrincipal principal = verifySignature(token);
+        // Checked on every call, cached principals included, so a revocation applies at once
+        if (revocationCheck.isRevoked(principal.tokenId())) {
+            rejected.increment();
+            throw new JwtException("Token has been revoked");
+        }
+        return principal;
+    }
+
+    private JwtPrincipal verifySignature(String token) {
+        if (token == null || token.isBlank()) {
+            rejected.increment();
+            throw new JwtException("Token is empty");
+        }
+        if (maxEntries == 0) {
+            misses.increment();
+            return parse(token);
+        }
+
+        TokenKey key = TokenKey.of(token);
+        Segment segment = segments[(key.hashCode() & 0x7fffffff) % SEGMENTS];
+        JwtPrincipal cached = segment.get(key);
+        if (cached != null) {
+            if (!cached.isExpired(clock.instant())) {
+                hits.increment();
+                return cached;
+            }
+            segment.remove(key);
+            rejected.increment();
+            throw new JwtException("Token has expired");
+        }
+
+        misses.increment();
+        JwtPrincipal principal = parse(token);
+        segment.put(key, principal);
+        return principal;
+    }
+
+    // Drops every cached principal, e.g. after a signing key was withdrawn
+    public void invalidateAll() {
+        for (Segment segment : segments) {
+            segment.clear();
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        int size = 0;
+        for (Segment segment : segments) {
+            size += segment.size();
+        }
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("cacheSize", size);
+        stats.put("cacheCapacity", maxEntries);
+        stats.put("hits", hits.sum());
+        stats.put("misses", misses.sum());
+        stats.put("rejected", rejected.sum());
+        return stats;
+    }
+
+    private JwtPrincipal parse(String token) {
+        try {
+            Claims claims = parser.parseSignedClaims(token).getPayload();
+            if (claims.getExpiration() == null) {
+                throw new JwtException("Token has no expiration");
+            }
+            return new JwtPrincipal(claims.getSubject(), claims.get("userId", Long.class),
+                    claims.get("role", String.class), claims.getExpiration().toInstant(), claims.getId());
+        } catch (JwtException e) {
+            rejected.increment();
+            throw e;
+        } catch (IllegalArgumentException e) {
+            rejected.increment();
+            throw new JwtException(e.getMessage(), e);
+        }
+    }
+
+    // Access-ordered map with its own lock; evicts the least recently used token when full
+    private static final class Segment {
+
+        private final LinkedHashMap<TokenKey, JwtPrincipal> entries;
+
+        Segment(int capacity) {
+            this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<TokenKey, JwtPrincipal> eldest) {
+                    return size() > capacity;
+                }
+            };
+        }
+
+        synchronized JwtPrincipal get(TokenKey key) {
+            return entries.get(key);
+        }
+
+        synchronized void put(TokenKey key, JwtPrincipal principal) {
+            entries.put(key, principal);
+        }
+
+        synchronized void remove(TokenKey key) {
+            entries.remove(key);
+        }
+
+        synchronized void clear() {
+            entries.clear();
+        }
+
+        synchronized int size() {
+            return entries.size();
+        }
+    }
+
+    // Only RS256 with a known kid; the alg and kid headers are never trusted beyond that lookup
+    private static final class KeyLocator extends LocatorAdapter<Key> {
+
+        private final JwtKeySource keySource;
+
+        KeyLocator(JwtKeySource keySource) {
+            this.keySource = keySource;
+        }
+
+        @Override
+        protected Key locate(JwsHeader header) {
+            if (!ALGORITHM.equals(header.getAlgorithm())) {
+                throw new JwtException("Unsupported token algorithm " + header.getAlgorithm());
+            }
+            if (header.getKeyId() == null) {
+                throw new JwtException("Token has no key id");
+            }
+            Key key = keySource.findKey(header.getKeyId());
+            if (key == null) {
+                throw new JwtException("Unknown signing key " + header.getKeyId());
+            }
+            return key;
+        }
+
+        @Override
+        protected Key locate(JweHeader header) {
+            throw new JwtException("Encrypted tokens are not supported");
+        }
+    }
+
+    // SHA-256 of the token, so the cache never holds the bearer credential itself
+    private record TokenKey(long a, long b, long c, long d) {
+
+        static TokenKey of(String token) {
+            ByteBuffer digest = ByteBuffer.wrap(sha256().digest(token.getBytes(StandardCharsets.UTF_8)));
+            return new TokenKey(digest.getLong(), digest.getLong(), digest.getLong(), digest.getLong());
+        }
+
+        private static MessageDigest sha256() {
+            try {
+                return MessageDigest.getInstance("SHA-256");
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+}
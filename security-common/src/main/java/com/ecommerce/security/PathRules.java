@@ -0,0 +1,49 @@
+package com.ecommerce.security;
+
+import org.springframework.util.AntPathMatcher;
+import org.springframework.util.StringUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Request rules written as {@code "GET /api/products/**"}; a rule without a method matches
+ * every method.
+ */
+final class PathRules {
+
+    private static final AntPathMatcher MATCHER = new AntPathMatcher();
+
+    private final List<Rule> rules;
+
+    private PathRules(List<Rule> rules) {
+        this.rules = rules;
+    }
+
+    static PathRules parse(List<String> specs) {
+        List<Rule> rules = new ArrayList<>();
+        for (String spec : specs) {
+            String trimmed = spec.trim();
+            if (!StringUtils.hasText(trimmed)) {
+                continue;
+            }
+            int space = trimmed.indexOf(' ');
+            rules.add(space < 0
+                    ? new Rule(null, trimmed)
+                    : new Rule(trimmed.substring(0, space).toUpperCase(), trimmed.substring(space + 1).trim()));
+        }
+        return new PathRules(List.copyOf(rules));
+    }
+
+    boolean matches(String method, String path) {
+        for (Rule rule : rules) {
+            if ((rule.method() == null || rule.method().equals(method)) && MATCHER.match(rule.pattern(), path)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private record Rule(String method, String pattern) {
+    }
+}
@@ -0,0 +1,152 @@
+package com.ecommerce.security;
+
+import io.jsonwebtoken.security.Jwk;
+import io.jsonwebtoken.security.JwkSet;
+import io.jsonwebtoken.security.Jwks;
+import io.jsonwebtoken.security.RsaPublicJwk;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.security.PublicKey;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The auth-service signing keys, fetched from its JWK set endpoint and kept in memory.
+ * <p>
+ * The set is refreshed in the background every {@code refreshInterval}. A token with an
+ * unknown {@code kid} (a key rotated in since the last refresh) triggers one synchronous
+ * refresh, at most once per {@code minRefreshInterval} so forged key ids cannot hammer
+ * auth-service. When a fetch fails the previous keys stay in use.
+ */
+@Slf4j
+public class RemoteJwkSet implements JwtKeySource, DisposableBean {
+
+    private final URI jwksUri;
+    private final Duration timeout;
+    private final Duration minRefreshInterval;
+    private final HttpClient httpClient;
+    private final ScheduledExecutorService refresher;
+
+    private volatile Map<String, PublicKey> keys = Map.of();
+    private volatile long lastAttemptNanos;
+    private volatile boolean attempted;
+    private volatile Runnable keysRemovedListener = () -> { };
+
+    private final LongAdder fetches = new LongAdder();
+    private final LongAdder fetchFailures = new LongAdder();
+    private final LongAdder unknownKeyRefreshes = new LongAdder();
+
+    public RemoteJwkSet(URI jwksUri, Duration timeout, Duration refreshInterval, Duration minRefreshInterval) {
+        this.jwksUri = jwksUri;
+        this.timeout = timeout;
+        this.minRefreshInterval = minRefreshInterval;
+        this.httpClient = HttpClient.newBuilder()
+                .connectTimeout(timeout)
+                .build();
+        this.refresher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "jwks-refresh");
+            thread.setDaemon(true);
+            return thread;
+        });
+        refresher.scheduleWithFixedDelay(this::refresh, 0, refreshInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public PublicKey findKey(String keyId) {
+        PublicKey key = keys.get(keyId);
+        if (key != null) {
+            return key;
+        }
+        return refreshForUnknownKey(keyId);
+    }
+
+    // Called when a refresh drops a key, so results verified with it are not served any more
+    public void onKeysRemoved(Runnable listener) {
+        this.keysRemovedListener = listener;
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("jwksUri", jwksUri.toString());
+        stats.put("keyIds", keys.keySet());
+        stats.put("fetches", fetches.sum());
+        stats.put("fetchFailures", fetchFailures.sum());
+        stats.put("unknownKeyRefreshes", unknownKeyRefreshes.sum());
+        return stats;
+    }
+
+    @Override
+    public void destroy() {
+        refresher.shutdownNow();
+    }
+
+    private synchronized PublicKey refreshForUnknownKey(String keyId) {
+        // Another thread may have refreshed while this one waited for the lock
+        PublicKey key = keys.get(keyId);
+        if (key != null) {
+            return key;
+        }
+        if (attempted && System.nanoTime() - lastAttemptNanos < minRefreshInterval.toNanos()) {
+            return null;
+        }
+        unknownKeyRefreshes.increment();
+        refresh();
+        return keys.get(keyId);
+    }
+
+    synchronized void refresh() {
+        attempted = true;
+        lastAttemptNanos = System.nanoTime();
+        try {
+            HttpResponse<String> response = httpClient.send(HttpRequest.newBuilder(jwksUri)
+                            .timeout(timeout)
+                            .header("Accept", "application/json")
+                            .GET()
+                            .build(),
+                    HttpResponse.BodyHandlers.ofString());
+            if (response.statusCode() != 200) {
+                throw new IllegalStateException("JWK set endpoint returned " + response.statusCode());
+            }
+
+            Map<String, PublicKey> fetched = parse(response.body());
+            if (fetched.isEmpty()) {
+                throw new IllegalStateException("JWK set has no usable RSA keys");
+            }
+            boolean removed = !fetched.keySet().containsAll(keys.keySet());
+            keys = fetched;
+            fetches.increment();
+            if (removed) {
+                log.info("Signing keys withdrawn, now trusting {}", fetched.keySet());
+                keysRemovedListener.run();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            fetchFailures.increment();
+            log.warn("Could not refresh JWK set from {}, keeping {} known keys: {}",
+                    jwksUri, keys.size(), e.getMessage());
+        }
+    }
+
+    private Map<String, PublicKey> parse(String json) {
+        JwkSet jwkSet = Jwks.setParser().build().parse(json);
+        Map<String, PublicKey> parsed = new HashMap<>();
+        for (Jwk<?> jwk : jwkSet) {
+            if (jwk instanceof RsaPublicJwk rsa && jwk.getId() != null) {
+                parsed.put(jwk.getId(), rsa.toKey());
+            }
+        }
+        return Map.copyOf(parsed);
+    }
+}
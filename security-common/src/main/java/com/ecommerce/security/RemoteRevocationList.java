@@ -0,0 +1,112 @@
+package com.ecommerce.security;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Keeps a {@link RevocationFilter} in step with auth-service's revocation list.
+ * <p>
+ * Polls {@code revocationsUri?since=<cursor>} every {@code pollInterval} and adds what was
+ * revoked since the previous poll; auth-service returns a cursor that overlaps the previous
+ * window, so revocations committed late are still seen. A revoked token is therefore refused
+ * by this service at most one poll interval after the revocation. Expired ids are purged
+ * locally. When auth-service is unreachable the last known list stays in force.
+ */
+@Slf4j
+public class RemoteRevocationList implements RevocationCheck, DisposableBean {
+
+    private final URI revocationsUri;
+    private final Duration timeout;
+    private final RevocationFilter filter;
+    private final HttpClient httpClient;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final ScheduledExecutorService poller;
+
+    private volatile String cursor;
+    private volatile Instant lastSync;
+
+    private final LongAdder polls = new LongAdder();
+    private final LongAdder pollFailures = new LongAdder();
+
+    public RemoteRevocationList(URI revocationsUri, Duration timeout, Duration pollInterval, int expectedEntries) {
+        this.revocationsUri = revocationsUri;
+        this.timeout = timeout;
+        this.filter = new RevocationFilter(expectedEntries);
+        this.httpClient = HttpClient.newBuilder()
+                .connectTimeout(timeout)
+                .build();
+        this.poller = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "revocation-sync");
+            thread.setDaemon(true);
+            return thread;
+        });
+        poller.scheduleWithFixedDelay(this::poll, 0, pollInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public boolean isRevoked(String tokenId) {
+        return filter.isRevoked(tokenId);
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>(filter.getStats());
+        stats.put("revocationsUri", revocationsUri.toString());
+        stats.put("lastSync", lastSync);
+        stats.put("polls", polls.sum());
+        stats.put("pollFailures", pollFailures.sum());
+        return stats;
+    }
+
+    @Override
+    public void destroy() {
+        poller.shutdownNow();
+    }
+
+    void poll() {
+        try {
+            URI uri = cursor == null ? revocationsUri
+                    : URI.create(revocationsUri + "?since=" + URLEncoder.encode(cursor, StandardCharsets.UTF_8));
+            HttpResponse<String> response = httpClient.send(HttpRequest.newBuilder(uri)
+                            .timeout(timeout)
+                            .header("Accept", "application/json")
+                            .GET()
+                            .build(),
+                    HttpResponse.BodyHandlers.ofString());
+            if (response.statusCode() != 200) {
+                throw new IllegalStateException("Revocation endpoint returned " + response.statusCode());
+            }
+
+            JsonNode body = objectMapper.readTree(response.body());
+            for (JsonNode token : body.path("tokens")) {
+                filter.add(token.path("tokenId").asText(), Instant.parse(token.path("expiresAt").asText()));
+            }
+            filter.purgeExpired(Instant.now());
+            cursor = body.path("cursor").asText();
+            lastSync = Instant.now();
+            polls.increment();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            pollFailures.increment();
+            log.warn("Could not sync revoked tokens from {}, keeping {} known: {}",
+                    revocationsUri, filter.size(), e.getMessage());
+        }
+    }
+}
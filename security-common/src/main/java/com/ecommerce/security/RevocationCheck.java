@@ -0,0 +1,12 @@
+package com.ecommerce.security;
+
+/**
+ * Tells whether an access token was revoked before it expired, by its {@code jti}.
+ * Called for every authenticated request, so implementations must answer from memory.
+ */
+public interface RevocationCheck {
+
+    RevocationCheck NONE = tokenId -> false;
+
+    boolean isRevoked(String tokenId);
+}